@@ -0,0 +1,76 @@
+package uk.gov.companieshouse.insolvency.data.steps;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.cucumber.java.en.Given;
+import io.cucumber.java.en.Then;
+import io.cucumber.java.en.When;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import uk.gov.companieshouse.api.insolvency.InternalCompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.model.InsolvencyDocument;
+import uk.gov.companieshouse.insolvency.data.repository.InsolvencyRepository;
+
+public class FencingSteps {
+
+    private static final String DATA_HASH = "fencing-steps-hash";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private InsolvencyRepository insolvencyRepository;
+
+    @Given("insolvency data for {string} was written under fencing token {long} with delta_at {string}")
+    public void insolvency_data_was_written_under_fencing_token(String companyNumber, long fencingToken,
+            String deltaAt) throws IOException {
+        assertThat(insolvencyRepository.upsertIfNotStale(document(companyNumber, deltaAt, fencingToken))).isTrue();
+    }
+
+    @When("insolvency data for {string} is bulk written with delta_at {string}")
+    public void insolvency_data_is_bulk_written(String companyNumber, String deltaAt) throws IOException {
+        assertThat(insolvencyRepository.bulkUpsertIfNotStale(List.of(document(companyNumber, deltaAt, null))))
+                .isEmpty();
+    }
+
+    @When("the unchanged insolvency data for {string} is touched with delta_at {string}")
+    public void unchanged_insolvency_data_is_touched(String companyNumber, String deltaAt) throws IOException {
+        assertThat(insolvencyRepository.touchIfUnchanged(document(companyNumber, deltaAt, null))).isTrue();
+    }
+
+    @When("the unchanged insolvency data for {string} is touched under fencing token {long} with delta_at {string}")
+    public void unchanged_insolvency_data_is_touched_under_fencing_token(String companyNumber, long fencingToken,
+            String deltaAt) throws IOException {
+        assertThat(insolvencyRepository.touchIfUnchanged(document(companyNumber, deltaAt, fencingToken))).isTrue();
+    }
+
+    @Then("the stored fencing token for {string} should be {long}")
+    public void the_stored_fencing_token_should_be(String companyNumber, long fencingToken) {
+        assertThat(insolvencyRepository.findById(companyNumber).orElseThrow().getFencingToken())
+                .isEqualTo(fencingToken);
+    }
+
+    @Then("a write for {string} under fencing token {long} with delta_at {string} should be fenced off")
+    public void a_write_under_fencing_token_should_be_fenced_off(String companyNumber, long fencingToken,
+            String deltaAt) throws IOException {
+        assertThat(insolvencyRepository.upsertIfNotStale(document(companyNumber, deltaAt, fencingToken))).isFalse();
+        assertThat(insolvencyRepository.touchIfUnchanged(document(companyNumber, deltaAt, fencingToken))).isFalse();
+        assertThat(insolvencyRepository.isFenced(companyNumber, fencingToken)).isTrue();
+    }
+
+    private InsolvencyDocument document(String companyNumber, String deltaAt, Long fencingToken) throws IOException {
+        File file = new ClassPathResource("/json/input/case_type_compulsory_liquidation.json").getFile();
+        InternalCompanyInsolvency companyInsolvency = objectMapper.readValue(file, InternalCompanyInsolvency.class);
+        InsolvencyDocument document = new InsolvencyDocument(companyNumber, companyInsolvency.getExternalData(),
+                OffsetDateTime.parse(deltaAt), LocalDateTime.now(), companyInsolvency.getInternalData().getUpdatedBy());
+        document.setDataHash(DATA_HASH);
+        document.setFencingToken(fencingToken);
+        return document;
+    }
+}
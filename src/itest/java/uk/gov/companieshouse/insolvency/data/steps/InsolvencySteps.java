@@ -9,6 +9,7 @@ import static org.junit.Assert.assertTrue;
 import static uk.gov.companieshouse.insolvency.data.config.AbstractMongoConfig.mongoDBContainer;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
 import io.cucumber.java.Before;
@@ -19,9 +20,17 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.assertj.core.api.Assertions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.web.client.TestRestTemplate;
@@ -47,6 +56,9 @@ public class InsolvencySteps {
 
     private String companyNumber;
     private String contextId;
+    private OffsetDateTime newestDeltaAt;
+    private List<Integer> concurrentStatusCodes;
+    private String storedEtag;
 
     @Autowired
     private ObjectMapper objectMapper;
@@ -120,6 +132,46 @@ public class InsolvencySteps {
         }
     }
 
+    @When("I send GET request with company number {string} and If-None-Match {string}")
+    public void i_send_conditional_get_request(String companyNumber, String ifNoneMatch) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("ERIC-Identity", "SOME_IDENTITY");
+        headers.add("ERIC-Identity-Type", "key");
+        headers.setIfNoneMatch(ifNoneMatch);
+
+        ResponseEntity<String> response = restTemplate.exchange("/company/{companyNumber}/insolvency",
+                HttpMethod.GET, new HttpEntity<>(headers), String.class, companyNumber);
+
+        CucumberContext.CONTEXT.set("statusCode", response.getStatusCode().value());
+        CucumberContext.CONTEXT.set("getResponseBody", response.getBody());
+    }
+
+    @When("I send a batch GET request with company numbers {string}")
+    public void i_send_batch_get_request_with_company_numbers(String companyNumbers) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("ERIC-Identity", "SOME_IDENTITY");
+        headers.add("ERIC-Identity-Type", "key");
+
+        ResponseEntity<String> response = restTemplate.exchange("/company/insolvency/bulk?company_number={numbers}",
+                HttpMethod.GET, new HttpEntity<>(headers), String.class, companyNumbers);
+
+        CucumberContext.CONTEXT.set("statusCode", response.getStatusCode().value());
+        CucumberContext.CONTEXT.set("getResponseBody", response.getBody());
+    }
+
+    @Then("the batch GET response should contain {string} and list {string} as missing")
+    public void the_batch_get_response_should_contain(String companyNumber, String missing)
+            throws JsonProcessingException {
+        JsonNode body = objectMapper.readTree(CucumberContext.CONTEXT.<String>get("getResponseBody"));
+        CompanyInsolvency expected = insolvencyRepository.findById(companyNumber).orElseThrow().getCompanyInsolvency();
+
+        assertThat(body.get("items").size()).isOne();
+        assertThat(objectMapper.treeToValue(body.get("items").get(companyNumber), CompanyInsolvency.class))
+                .isEqualTo(expected);
+        assertThat(body.get("missing")).hasSize(1);
+        assertThat(body.get("missing").get(0).asText()).isEqualTo(missing);
+    }
+
     @When("I send GET request with company number {string} without eric headers")
     public void i_send_get_request_with_company_number_without_eric_header(String companyNumber) {
         String uri = "/company/{companyNumber}/insolvency";
@@ -205,6 +257,101 @@ public class InsolvencySteps {
         CucumberContext.CONTEXT.set("statusCode", response.getStatusCode().value());
     }
 
+    @When("I resend PUT request with payload {string} file and a newer delta_at")
+    public void i_resend_put_request_with_newer_delta_at(String string) throws IOException {
+        this.storedEtag = insolvencyRepository.findById(this.companyNumber)
+                .map(document -> document.getCompanyInsolvency().getEtag())
+                .orElseThrow();
+
+        File file = new ClassPathResource("/json/input/" + string + ".json").getFile();
+        InternalCompanyInsolvency companyInsolvency = objectMapper.readValue(file, InternalCompanyInsolvency.class);
+        this.newestDeltaAt = companyInsolvency.getInternalData().getDeltaAt().plusDays(1);
+        companyInsolvency.getInternalData().setDeltaAt(newestDeltaAt);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("x-request-id", "5234234234");
+        headers.set("ERIC-Identity", "SOME_IDENTITY");
+        headers.set("ERIC-Identity-Type", "key");
+        headers.set("ERIC-Authorised-Key-Privileges", "internal-app");
+
+        HttpEntity<InternalCompanyInsolvency> request = new HttpEntity<>(companyInsolvency, headers);
+        ResponseEntity<Void> response = restTemplate.exchange("/company/{companyNumber}/insolvency",
+                HttpMethod.PUT, request, Void.class, this.companyNumber);
+
+        CucumberContext.CONTEXT.set("statusCode", response.getStatusCode().value());
+    }
+
+    @Then("the stored etag for {string} should be unchanged")
+    public void the_stored_etag_should_be_unchanged(String companyNumber) {
+        Optional<InsolvencyDocument> actual = insolvencyRepository.findById(companyNumber);
+
+        assertThat(actual).isPresent();
+        assertThat(actual.get().getCompanyInsolvency().getEtag()).isEqualTo(storedEtag);
+    }
+
+    @When("I send {int} concurrent PUT requests with interleaved delta_at values for {string}")
+    public void i_send_concurrent_put_requests(int requests, String companyNumber)
+            throws IOException, InterruptedException, ExecutionException {
+        File file = new ClassPathResource("/json/input/case_type_compulsory_liquidation.json").getFile();
+        OffsetDateTime baseDeltaAt = OffsetDateTime.of(2024, 10, 10, 17, 55, 32, 0, ZoneOffset.UTC);
+
+        List<OffsetDateTime> deltaAts = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            deltaAts.add(baseDeltaAt.plusSeconds(i));
+        }
+        Collections.shuffle(deltaAts);
+        this.newestDeltaAt = Collections.max(deltaAts);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("x-request-id", "5234234234");
+        headers.set("ERIC-Identity", "SOME_IDENTITY");
+        headers.set("ERIC-Identity-Type", "key");
+        headers.set("ERIC-Authorised-Key-Privileges", "internal-app");
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> responses = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            for (OffsetDateTime deltaAt : deltaAts) {
+                InternalCompanyInsolvency companyInsolvency =
+                        objectMapper.readValue(file, InternalCompanyInsolvency.class);
+                companyInsolvency.getInternalData().setDeltaAt(deltaAt);
+                HttpEntity<InternalCompanyInsolvency> request = new HttpEntity<>(companyInsolvency, headers);
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return restTemplate.exchange("/company/{companyNumber}/insolvency", HttpMethod.PUT, request,
+                            Void.class, companyNumber).getStatusCode().value();
+                }));
+            }
+            start.countDown();
+
+            this.concurrentStatusCodes = new ArrayList<>();
+            for (Future<Integer> response : responses) {
+                concurrentStatusCodes.add(response.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        this.companyNumber = companyNumber;
+    }
+
+    @Then("every concurrent PUT request should receive 200 or 409 status code")
+    public void every_concurrent_put_request_should_receive_200_or_409() {
+        assertThat(concurrentStatusCodes).isNotEmpty().allMatch(status -> status == 200 || status == 409);
+        assertThat(concurrentStatusCodes).contains(200);
+    }
+
+    @Then("the stored delta_at for {string} should be the newest sent")
+    public void the_stored_delta_at_should_be_the_newest_sent(String companyNumber) {
+        Optional<InsolvencyDocument> actual = insolvencyRepository.findById(companyNumber);
+
+        assertThat(actual).isPresent();
+        assertThat(actual.get().getDeltaAt()).isEqualTo(newestDeltaAt);
+        assertThat(insolvencyRepository.findAll()).hasSize(1);
+    }
+
     @When("CHS kafka API service is unavailable")
     public void chs_kafka_service_unavailable() {
         WiremockTestConfig.stubKafkaApi(HttpStatus.SERVICE_UNAVAILABLE.value());
@@ -302,6 +449,11 @@ public class InsolvencySteps {
         verify(moreThanOrExactly(1), postRequestedFor(urlEqualTo("/private/resource-changed")));
     }
 
+    @Then("the CHS Kafka API is invoked {int} time(s)")
+    public void chs_kafka_api_invoked_times(int times) {
+        verify(times, postRequestedFor(urlEqualTo("/private/resource-changed")));
+    }
+
     @Then("the CHS Kafka API is not invoked")
     public void chs_kafka_api_not_invoked() {
         verify(0, postRequestedFor(urlEqualTo("/private/resource-changed")));
@@ -0,0 +1,14 @@
+Feature: Concurrent company insolvency updates
+
+  Scenario Outline: Newest delta wins when deltas for one company are processed concurrently
+
+    Given Insolvency data api service is running
+    And the CHS Kafka API is reachable
+    When I send <requests> concurrent PUT requests with interleaved delta_at values for "<companyNumber>"
+    Then every concurrent PUT request should receive 200 or 409 status code
+    And the stored delta_at for "<companyNumber>" should be the newest sent
+
+    Examples:
+      | requests | companyNumber |
+      | 20       | CH5324324     |
+      | 50       | CH5324324     |
@@ -0,0 +1,24 @@
+Feature: Fencing tokens on company insolvency writes
+
+  Scenario: A bulk write keeps the fencing token that keeps a stale lease holder out
+
+    Given Insolvency data api service is running
+    And insolvency data for "CH5324324" was written under fencing token 5 with delta_at "2024-10-10T17:55:32Z"
+    When insolvency data for "CH5324324" is bulk written with delta_at "2024-10-11T17:55:32Z"
+    Then the stored fencing token for "CH5324324" should be 5
+    And a write for "CH5324324" under fencing token 4 with delta_at "2024-10-12T17:55:32Z" should be fenced off
+
+  Scenario: A touch keeps the fencing token that keeps a stale lease holder out
+
+    Given Insolvency data api service is running
+    And insolvency data for "CH5324324" was written under fencing token 5 with delta_at "2024-10-10T17:55:32Z"
+    When the unchanged insolvency data for "CH5324324" is touched with delta_at "2024-10-11T17:55:32Z"
+    Then the stored fencing token for "CH5324324" should be 5
+    And a write for "CH5324324" under fencing token 4 with delta_at "2024-10-12T17:55:32Z" should be fenced off
+
+  Scenario: A later lease holder moves the fencing token forward on a touch
+
+    Given Insolvency data api service is running
+    And insolvency data for "CH5324324" was written under fencing token 5 with delta_at "2024-10-10T17:55:32Z"
+    When the unchanged insolvency data for "CH5324324" is touched under fencing token 7 with delta_at "2024-10-11T17:55:32Z"
+    Then the stored fencing token for "CH5324324" should be 7
@@ -28,6 +28,21 @@ Feature: Process company insolvency information
       | companyNumber  | data                                       | result                                            |
       | CH5324324      | case_type_compulsory_liquidation_no_status | case_type_compulsory_liquidation_no_status_output |
 
+  Scenario Outline: Resending unchanged company insolvency information only moves delta_at forward
+
+    Given Insolvency data api service is running
+    And the CHS Kafka API is reachable
+    When I send PUT request with payload "<data>" file
+    And I resend PUT request with payload "<data>" file and a newer delta_at
+    Then I should receive 200 status code
+    And the stored delta_at for "<companyNumber>" should be the newest sent
+    And the stored etag for "<companyNumber>" should be unchanged
+    And the CHS Kafka API is invoked 1 time
+
+    Examples:
+      | companyNumber | data                             |
+      | CH5324324     | case_type_compulsory_liquidation |
+
   Scenario Outline: Processing company insolvency information no eric headers
 
     Given Insolvency data api service is running
@@ -50,6 +65,30 @@ Feature: Process company insolvency information
       | companyNumber | result                     |
       | CH3634545     | retrieve_by_company_number |
 
+  Scenario Outline: Retrieve unchanged company insolvency information with its etag
+
+    Given Insolvency data api service is running
+    And the insolvency information exists for "<companyNumber>"
+    When I send GET request with company number "<companyNumber>" and If-None-Match "<ifNoneMatch>"
+    Then I should receive <statusCode> status code
+
+    Examples:
+      | companyNumber | ifNoneMatch | statusCode |
+      | CH3634545     | "etag"      | 304        |
+      | CH3634545     | "other"     | 200        |
+
+  Scenario Outline: Retrieve company insolvency information for many companies successfully
+
+    Given Insolvency data api service is running
+    And the insolvency information exists for "<companyNumber>"
+    When I send a batch GET request with company numbers "<companyNumber>,<missing>"
+    Then I should receive 200 status code
+    And the batch GET response should contain "<companyNumber>" and list "<missing>" as missing
+
+    Examples:
+      | companyNumber | missing   |
+      | CH3634545     | CH1234567 |
+
   Scenario: Return a 404 when document doesn't exist
 
     Given Insolvency data api service is running
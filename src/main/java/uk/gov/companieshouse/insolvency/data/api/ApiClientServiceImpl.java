@@ -13,11 +13,18 @@ public class ApiClientServiceImpl implements ApiClientService {
 
     @Value("${chs.kafka.api.endpoint}") String internalApiUrl;
 
-
+    // InternalApiClient carries per-request state (request id, base path), so it can't be shared
+    // between threads; each thread keeps and reuses its own instead of building one for every
+    // call. Connections are still those of the SDK's transport, which this does not configure.
+    private final ThreadLocal<InternalApiClient> internalApiClients =
+            ThreadLocal.withInitial(this::createInternalApiClient);
 
     @Override
     public InternalApiClient getInternalApiClient() {
+        return internalApiClients.get();
+    }
 
+    private InternalApiClient createInternalApiClient() {
         var internalApiClient = new InternalApiClient(getHttpClient());
         internalApiClient.setInternalBasePath(internalApiUrl);
         internalApiClient.setBasePath(internalApiUrl);
@@ -0,0 +1,117 @@
+package uk.gov.companieshouse.insolvency.data.api;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.error.ApiErrorResponseException;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Optionally bounds the number of concurrent calls to chs-kafka-api, so that a burst of writes
+ * queues here for a bounded time instead of piling up calls on chs-kafka-api. Calls that can't
+ * start within the acquire timeout fail as a bad gateway. With no maximum configured, calls are
+ * not limited and are only counted.
+ *
+ * <p>It only limits concurrency; connections are managed by the SDK's HTTP transport.
+ */
+@Component
+public class ChsKafkaConcurrencyLimiter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+
+    private final Semaphore permits;
+    private final Duration acquireTimeout;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Timer acquireTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * Concurrency limiter for chs-kafka-api calls.
+     *
+     * @param maxConcurrentCalls the most calls in flight at once, or 0 for no limit
+     */
+    public ChsKafkaConcurrencyLimiter(MeterRegistry meterRegistry,
+            @Value("${chs.kafka.api.max-concurrent-calls:0}") int maxConcurrentCalls,
+            @Value("${chs.kafka.api.acquire-timeout:5s}") Duration acquireTimeout) {
+        this.permits = maxConcurrentCalls > 0 ? new Semaphore(maxConcurrentCalls, true) : null;
+        this.acquireTimeout = acquireTimeout;
+
+        Gauge.builder("chs.kafka.api.calls.max", () -> maxConcurrentCalls).register(meterRegistry);
+        Gauge.builder("chs.kafka.api.calls.active", active::get).register(meterRegistry);
+        Gauge.builder("chs.kafka.api.calls.pending", pending::get).register(meterRegistry);
+        this.acquireTimer = meterRegistry.timer("chs.kafka.api.calls.acquire");
+        this.rejectedCounter = meterRegistry.counter("chs.kafka.api.calls.rejected");
+    }
+
+    /**
+     * Run a chs-kafka-api call, once fewer than the maximum number of calls are in flight when a
+     * maximum is configured.
+     *
+     * @param call the call to make
+     * @return the call's result
+     * @throws ApiErrorResponseException when chs-kafka-api responds with an error
+     */
+    public <T> T execute(ApiCall<T> call) throws ApiErrorResponseException {
+        if (permits == null) {
+            return countActive(call);
+        }
+        acquire();
+        try {
+            return countActive(call);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private <T> T countActive(ApiCall<T> call) throws ApiErrorResponseException {
+        active.incrementAndGet();
+        try {
+            return call.execute();
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    private void acquire() {
+        boolean acquired;
+        long start = System.nanoTime();
+        pending.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BadGatewayException("Interrupted waiting to call chs-kafka-api", ex);
+        } finally {
+            pending.decrementAndGet();
+            acquireTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejectedCounter.increment();
+            final String msg = "Too many concurrent chs-kafka-api calls for %s".formatted(acquireTimeout);
+            LOGGER.info(msg, DataMapHolder.getLogMap());
+            throw new BadGatewayException(msg, null);
+        }
+    }
+
+    /**
+     * A chs-kafka-api call.
+     */
+    @FunctionalInterface
+    public interface ApiCall<T> {
+
+        T execute() throws ApiErrorResponseException;
+    }
+}
@@ -30,15 +30,18 @@ public class InsolvencyApiService {
 
     private final String chsKafkaUrl;
     private final ApiClientService apiClientService;
+    private final ChsKafkaConcurrencyLimiter concurrencyLimiter;
     private final ObjectMapper objectMapper;
 
     /**
      * Invoke Insolvency API.
      */
     public InsolvencyApiService(@Value("${chs.kafka.api.endpoint}") String chsKafkaUrl,
-            ApiClientService apiClientService, ObjectMapper objectMapper) {
+            ApiClientService apiClientService, ChsKafkaConcurrencyLimiter concurrencyLimiter,
+            ObjectMapper objectMapper) {
         this.chsKafkaUrl = chsKafkaUrl;
         this.apiClientService = apiClientService;
+        this.concurrencyLimiter = concurrencyLimiter;
         this.objectMapper = objectMapper;
     }
 
@@ -58,7 +61,7 @@ public class InsolvencyApiService {
                         mapChangedResource(companyNumber, companyInsolvency, eventType));
         try {
             LOGGER.info("Calling CHS Kafka API", DataMapHolder.getLogMap());
-            return changedResourcePost.execute();
+            return concurrencyLimiter.execute(changedResourcePost::execute);
         } catch (ApiErrorResponseException ex) {
             final String msg = "Resource changed call failed and responded with: %d".formatted(ex.getStatusCode());
             LOGGER.info(msg, DataMapHolder.getLogMap());
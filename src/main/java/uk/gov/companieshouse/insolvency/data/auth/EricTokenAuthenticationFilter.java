@@ -53,14 +53,26 @@ public class EricTokenAuthenticationFilter extends OncePerRequestFilter {
     }
 
     private boolean isKeyAuthorised(HttpServletRequest request, String ericIdentityType) {
-        String[] privileges = getApiKeyPrivileges(request);
+        return request.getMethod().equals("GET") || isInternalAppKey(request, ericIdentityType);
+    }
+
+    /**
+     * Check the request was made with an API key that has internal app privileges, as writes
+     * need. GETs that need it too check it in the handler, once the path has been matched.
+     *
+     * @param request the request
+     * @return true when the key has internal app privileges
+     */
+    public static boolean isInternalAppKey(HttpServletRequest request) {
+        return isInternalAppKey(request, request.getHeader("ERIC-Identity-Type"));
+    }
 
-        return request.getMethod().equals("GET")
-                || (ericIdentityType.equalsIgnoreCase("Key")
-                && ArrayUtils.contains(privileges, "internal-app"));
+    private static boolean isInternalAppKey(HttpServletRequest request, String ericIdentityType) {
+        return "Key".equalsIgnoreCase(ericIdentityType)
+                && ArrayUtils.contains(getApiKeyPrivileges(request), "internal-app");
     }
 
-    private String[] getApiKeyPrivileges(HttpServletRequest request) {
+    private static String[] getApiKeyPrivileges(HttpServletRequest request) {
         String commaSeparatedPrivilegeString = request.getHeader("ERIC-Authorised-Key-Privileges");
 
         return Optional.ofNullable(commaSeparatedPrivilegeString)
@@ -0,0 +1,16 @@
+package uk.gov.companieshouse.insolvency.data.common;
+
+/**
+ * What a PUT does when its external data hashes the same as the stored document.
+ */
+public enum UnchangedDataPolicy {
+
+    /** Move delta_at, updated_at and updated_by forward; keep the etag and publish nothing. */
+    TOUCH,
+
+    /** Leave the stored document as it is and publish nothing. */
+    SKIP,
+
+    /** Replace the document and publish a changed event as for any other update. */
+    WRITE
+}
@@ -9,15 +9,13 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import java.text.SimpleDateFormat;
 import java.time.LocalDate;
 import java.util.List;
-import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
-import org.springframework.context.annotation.Scope;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
-import uk.gov.companieshouse.api.InternalApiClient;
 import uk.gov.companieshouse.environment.EnvironmentReader;
 import uk.gov.companieshouse.environment.impl.EnvironmentReaderImpl;
+import uk.gov.companieshouse.insolvency.data.converter.CompanyInsolvencyCodec;
 import uk.gov.companieshouse.insolvency.data.converter.CompanyInsolvencyReadConverter;
 import uk.gov.companieshouse.insolvency.data.converter.CompanyInsolvencyWriteConverter;
 import uk.gov.companieshouse.insolvency.data.converter.EnumConverters;
@@ -26,7 +24,7 @@ import uk.gov.companieshouse.insolvency.data.converter.OffsetDateTimeWriteConver
 import uk.gov.companieshouse.insolvency.data.serialization.CustomStringSerializer;
 import uk.gov.companieshouse.insolvency.data.serialization.LocalDateDeSerializer;
 import uk.gov.companieshouse.insolvency.data.serialization.LocalDateSerializer;
-import uk.gov.companieshouse.sdk.manager.ApiSdkManager;
+import uk.gov.companieshouse.insolvency.data.serialization.RawCompanyInsolvencyHttpMessageConverter;
 
 @Configuration
 public class ApplicationConfig {
@@ -36,16 +34,6 @@ public class ApplicationConfig {
         return new EnvironmentReaderImpl();
     }
 
-    /**
-     * Bean to configure converters.
-     * @return Mongodb custom converters mapping
-     */
-    @Bean
-    @Scope(ConfigurableBeanFactory.SCOPE_PROTOTYPE)
-    public InternalApiClient internalApiClient() {
-        return ApiSdkManager.getPrivateSDK();
-    }
-
     @Bean
     @Primary
     public ObjectMapper objectMapper() {
@@ -57,15 +45,29 @@ public class ApplicationConfig {
                 .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
     }
 
+    /**
+     * Writes stored company insolvency BSON straight to GET responses when the passthrough is enabled.
+     */
+    @Bean
+    public RawCompanyInsolvencyHttpMessageConverter rawCompanyInsolvencyHttpMessageConverter(
+            ObjectMapper objectMapper) {
+        return new RawCompanyInsolvencyHttpMessageConverter(objectMapper.getFactory());
+    }
+
+    @Bean
+    public CompanyInsolvencyCodec companyInsolvencyCodec() {
+        return new CompanyInsolvencyCodec(mongoDbObjectMapper());
+    }
+
     /**
      * mongoCustomConversions.
      * @return MongoCustomConversions.
      */
     @Bean
     public MongoCustomConversions mongoCustomConversions() {
-        ObjectMapper objectMapper = mongoDbObjectMapper();
-        return new MongoCustomConversions(List.of(new CompanyInsolvencyWriteConverter(objectMapper),
-                new CompanyInsolvencyReadConverter(objectMapper),new EnumConverters.StringToEnum(),
+        CompanyInsolvencyCodec codec = companyInsolvencyCodec();
+        return new MongoCustomConversions(List.of(new CompanyInsolvencyWriteConverter(codec),
+                new CompanyInsolvencyReadConverter(codec), new EnumConverters.StringToEnum(),
                 new EnumConverters.EnumToString(), new OffsetDateTimeReadConverter(),
                 new OffsetDateTimeWriteConverter()));
     }
@@ -0,0 +1,94 @@
+package uk.gov.companieshouse.insolvency.data.config;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.insolvency.data.model.CacheResumeToken;
+import uk.gov.companieshouse.insolvency.data.model.CompanyLease;
+import uk.gov.companieshouse.insolvency.data.model.OutboxEvent;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Creates the indexes of the collections this service added, as Spring Data does not create
+ * indexes declared on the documents unless auto index creation is switched on. Creating an index
+ * that already exists is a no-op, so every node does it at startup.
+ */
+@Component
+public class MongoIndexes {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean leasesEnabled;
+    private final boolean outboxEnabled;
+    private final boolean invalidationEnabled;
+
+    /**
+     * Mongo indexes.
+     */
+    public MongoIndexes(MongoTemplate mongoTemplate,
+            @Value("${insolvency.lease.enabled:false}") boolean leasesEnabled,
+            @Value("${insolvency.outbox.enabled:false}") boolean outboxEnabled,
+            @Value("#{${insolvency.cache.enabled:false} or ${insolvency.bloom-filter.enabled:false}}")
+            boolean invalidationEnabled) {
+        this.mongoTemplate = mongoTemplate;
+        this.leasesEnabled = leasesEnabled;
+        this.outboxEnabled = outboxEnabled;
+        this.invalidationEnabled = invalidationEnabled;
+    }
+
+    /**
+     * Create the indexes of the enabled features once the application is ready. A failure is
+     * logged rather than stopping the application; the indexes are tried again on the next start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            if (leasesEnabled) {
+                // removes leases a day after they expire; the day keeps a released lease's token
+                // around for the next holder to count on from
+                mongoTemplate.indexOps(CompanyLease.class).ensureIndex(new Index()
+                        .on("expires_at", Sort.Direction.ASC)
+                        .named("expires_at_ttl")
+                        .expire(Duration.ofDays(1)));
+            }
+            if (outboxEnabled) {
+                // serves the dispatcher's poll in its sort order, filtering on the index keys alone
+                mongoTemplate.indexOps(OutboxEvent.class).ensureIndex(new Index()
+                        .on("failed", Sort.Direction.ASC)
+                        .on("delta_at", Sort.Direction.ASC)
+                        .on("created_at", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .on("next_attempt_at", Sort.Direction.ASC)
+                        .on("claimed_until", Sort.Direction.ASC)
+                        .named("pending_events"));
+                // finds an earlier event of the same company
+                mongoTemplate.indexOps(OutboxEvent.class).ensureIndex(new Index()
+                        .on("company_number", Sort.Direction.ASC)
+                        .on("delta_at", Sort.Direction.ASC)
+                        .on("created_at", Sort.Direction.ASC)
+                        .on("_id", Sort.Direction.ASC)
+                        .named("company_events"));
+            }
+            if (invalidationEnabled) {
+                // removes the positions of listeners that have not saved one for a week
+                mongoTemplate.indexOps(CacheResumeToken.class).ensureIndex(new Index()
+                        .on("updated_at", Sort.Direction.ASC)
+                        .named("updated_at_ttl")
+                        .expire(Duration.ofDays(7)));
+            }
+        } catch (DataAccessException ex) {
+            LOGGER.error("Failed to create MongoDB indexes", ex, DataMapHolder.getLogMap());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package uk.gov.companieshouse.insolvency.data.config;
+
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MongoReadConfig {
+
+    /**
+     * Replica set members the company insolvency GET reads from. The max staleness only applies to
+     * secondaries, so it is left out of primary reads, and MongoDB requires it to be at least 90s.
+     */
+    @Bean
+    public ReadPreference insolvencyGetReadPreference(
+            @Value("${insolvency.get.read-preference:primary}") String readPreference,
+            @Value("${insolvency.get.max-staleness:90s}") Duration maxStaleness) {
+        if (ReadPreference.primary().getName().equalsIgnoreCase(readPreference)) {
+            return ReadPreference.primary();
+        }
+        return ReadPreference.valueOf(readPreference, List.of(), maxStaleness.toSeconds(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Counts the reads of the insolvency collection by the replica set member that served them.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoReadMemberMetrics(MeterRegistry meterRegistry,
+            @Value("${mongodb.insolvency.collection.name}") String collectionName) {
+        return builder -> builder.addCommandListener(new MongoReadMemberMetrics(meterRegistry, collectionName));
+    }
+}
@@ -0,0 +1,43 @@
+package uk.gov.companieshouse.insolvency.data.config;
+
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Locale;
+import org.bson.BsonValue;
+
+/**
+ * Counts find commands on one collection as {@code insolvency.mongo.reads}, tagged with the
+ * address and replica set state of the member each was sent to.
+ */
+public class MongoReadMemberMetrics implements CommandListener {
+
+    private static final String FIND_COMMAND = "find";
+
+    private final MeterRegistry meterRegistry;
+    private final String collectionName;
+
+    public MongoReadMemberMetrics(MeterRegistry meterRegistry, String collectionName) {
+        this.meterRegistry = meterRegistry;
+        this.collectionName = collectionName;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!FIND_COMMAND.equals(event.getCommandName())) {
+            return;
+        }
+        BsonValue collection = event.getCommand().get(FIND_COMMAND);
+        if (collection == null || !collection.isString() || !collectionName.equals(collection.asString().getValue())) {
+            return;
+        }
+        ConnectionDescription connection = event.getConnectionDescription();
+        Counter.builder("insolvency.mongo.reads")
+                .tag("member", connection.getServerAddress().toString())
+                .tag("member_type", connection.getServerType().name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .increment();
+    }
+}
@@ -0,0 +1,39 @@
+package uk.gov.companieshouse.insolvency.data.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import uk.gov.companieshouse.insolvency.data.common.UnchangedDataPolicy;
+
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    /**
+     * Transaction wrapping each insolvency write and its resource changed event. With the outbox
+     * enabled the event is a document that has to commit with the write; otherwise the event is
+     * an HTTP call and there is nothing to commit together.
+     */
+    @Bean
+    public TransactionOperations insolvencyWriteTransaction(MongoTransactionManager transactionManager,
+            @Value("${insolvency.outbox.enabled:false}") boolean outboxEnabled) {
+        return outboxEnabled ? new TransactionTemplate(transactionManager) : TransactionOperations.withoutTransaction();
+    }
+
+    /**
+     * What a PUT carrying the stored data does. Skipping or touching relies on the stored data's
+     * CHANGED event having been sent, which only the outbox guarantees: without it the data is
+     * stored before the event is published, and a failed publish would never be repeated by the
+     * retried PUT. So without the outbox every PUT is written.
+     */
+    @Bean
+    public UnchangedDataPolicy insolvencyUnchangedDataPolicy(
+            @Value("${insolvency.put.unchanged-data:touch}") UnchangedDataPolicy configured,
+            @Value("${insolvency.outbox.enabled:false}") boolean outboxEnabled) {
+        return outboxEnabled ? configured : UnchangedDataPolicy.WRITE;
+    }
+}
@@ -0,0 +1,105 @@
+package uk.gov.companieshouse.insolvency.data.controller;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import uk.gov.companieshouse.insolvency.data.auth.EricTokenAuthenticationFilter;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.insolvency.data.service.BulkInsolvencyProcessor;
+import uk.gov.companieshouse.insolvency.data.service.InsolvencyExporter;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+@RestController
+public class BulkInsolvencyController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+
+    private final BulkInsolvencyProcessor bulkInsolvencyProcessor;
+    private final InsolvencyExporter insolvencyExporter;
+
+    public BulkInsolvencyController(BulkInsolvencyProcessor bulkInsolvencyProcessor,
+            InsolvencyExporter insolvencyExporter) {
+        this.bulkInsolvencyProcessor = bulkInsolvencyProcessor;
+        this.insolvencyExporter = insolvencyExporter;
+    }
+
+    /**
+     * Bulk PUT request for insolvency, one company per line.
+     *
+     * @param requestBody NDJSON lines of company_number, internal_data and external_data
+     * @param response    NDJSON lines of ok, stale or invalid per request line, then a summary
+     */
+    @PutMapping(value = "/company/insolvency/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public void insolvencies(@RequestHeader("x-request-id") String contextId,
+            InputStream requestBody,
+            HttpServletResponse response) throws IOException {
+        LOGGER.info("Payload received for bulk PUT request", DataMapHolder.getLogMap());
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        bulkInsolvencyProcessor.process(requestBody, response.getOutputStream());
+    }
+
+    /**
+     * Retrieve company insolvency information for many company numbers.
+     *
+     * @param companyNumbers the company numbers, repeated or comma separated
+     * @param response       JSON object of items by company number and the missing company numbers.
+     *                       A MongoDB failure is answered 502 while nothing has been sent, and aborts
+     *                       the connection once the response is committed
+     */
+    @GetMapping("/company/insolvency/bulk")
+    public void insolvencies(@RequestParam("company_number") List<String> companyNumbers,
+            HttpServletResponse response) throws IOException {
+        LOGGER.info("Retrieving company insolvency information for many companies", DataMapHolder.getLogMap());
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        try {
+            bulkInsolvencyProcessor.retrieve(companyNumbers, response.getOutputStream());
+        } catch (BadGatewayException ex) {
+            if (response.isCommitted()) {
+                // the status cannot change now, and the container closes the connection of a committed
+                // response that fails, rather than ending it as though it were complete
+                LOGGER.error("Batch GET failed after the response was committed, aborting it",
+                        DataMapHolder.getLogMap());
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Export every company insolvency, for internal reconciliation only, so it needs the same key
+     * as writes. The key is checked here rather than by path in the filter, so that every spelling
+     * of the path that maps to this handler is covered.
+     *
+     * @param afterCompanyNumber resume after the company number of the last line received
+     * @param request            the request, for its key privileges
+     * @param response           NDJSON lines of company_number, delta_at, updated_at and data
+     */
+    @GetMapping("/company/insolvency/export")
+    public void export(@RequestParam(value = "after", required = false) String afterCompanyNumber,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        if (!EricTokenAuthenticationFilter.isInternalAppKey(request)) {
+            LOGGER.error("Supplied key does not have sufficient privilege for the action",
+                    DataMapHolder.getLogMap());
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        LOGGER.info("Exporting company insolvency information", DataMapHolder.getLogMap());
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        insolvencyExporter.export(afterCompanyNumber, response.getOutputStream());
+    }
+}
@@ -3,6 +3,9 @@ package uk.gov.companieshouse.insolvency.data.controller;
 import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
 
 import jakarta.validation.Valid;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -12,9 +15,12 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
 import uk.gov.companieshouse.api.insolvency.InternalCompanyInsolvency;
 import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.insolvency.data.model.CausalConsistencyToken;
+import uk.gov.companieshouse.insolvency.data.model.RawCompanyInsolvency;
 import uk.gov.companieshouse.insolvency.data.service.InsolvencyService;
 import uk.gov.companieshouse.logging.Logger;
 import uk.gov.companieshouse.logging.LoggerFactory;
@@ -24,16 +30,21 @@ import uk.gov.companieshouse.logging.LoggerFactory;
 public class InsolvencyController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    static final String CAUSAL_CONSISTENCY_TOKEN_HEADER = "X-Causal-Consistency-Token";
 
     private final InsolvencyService insolvencyService;
+    private final boolean getPassthroughEnabled;
 
     /**
      * Endpoint to handle company insolvency information.
      *
-     * @param insolvencyService service to store the collection
+     * @param insolvencyService     service to store the collection
+     * @param getPassthroughEnabled whether GET writes the stored BSON straight to the response
      */
-    public InsolvencyController(InsolvencyService insolvencyService) {
+    public InsolvencyController(InsolvencyService insolvencyService,
+            @Value("${insolvency.get.passthrough.enabled:false}") boolean getPassthroughEnabled) {
         this.insolvencyService = insolvencyService;
+        this.getPassthroughEnabled = getPassthroughEnabled;
     }
 
     /**
@@ -41,7 +52,7 @@ public class InsolvencyController {
      *
      * @param companyNumber the company number for insolvency
      * @param requestBody   the request body containing insolvency data
-     * @return no response
+     * @return no response, with a causal consistency token when GETs may read from secondaries
      */
     @PutMapping("/company/{company_number}/insolvency")
     public ResponseEntity<Void> insolvency(@RequestHeader("x-request-id") String contextId,
@@ -52,24 +63,48 @@ public class InsolvencyController {
         LOGGER.info("Payload successfully received for PUT request", DataMapHolder.getLogMap());
         insolvencyService.processInsolvency(companyNumber, requestBody);
 
-        return ResponseEntity.status(HttpStatus.OK).build();
+        return withCausalConsistencyToken(ResponseEntity.status(HttpStatus.OK)).build();
     }
 
     /**
-     * Retrieve company insolvency information for a company number.
+     * Retrieve company insolvency information for a company number. The stored etag is returned as
+     * the ETag header, and a request whose If-None-Match holds it is answered 304 after reading
+     * only the etag.
      *
      * @param companyNumber the company number for insolvency
-     * @return {@link CompanyInsolvency} return company insolvency information
+     * @param ifNoneMatch   the etags the client already has, if any
+     * @param webRequest    the request, to evaluate If-None-Match against the stored etag
+     * @param causalConsistencyToken token from an earlier PUT or DELETE whose result the read
+     *                               has to include, if any
+     * @return {@link CompanyInsolvency} return company insolvency information, or the stored data as
+     *         {@link RawCompanyInsolvency} when the GET passthrough is enabled
      */
     @GetMapping("/company/{company_number}/insolvency")
-    public ResponseEntity<CompanyInsolvency> insolvency(
-            @PathVariable("company_number") String companyNumber) {
+    public ResponseEntity<Object> insolvency(
+            @PathVariable("company_number") String companyNumber,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            WebRequest webRequest,
+            @RequestHeader(value = CAUSAL_CONSISTENCY_TOKEN_HEADER, required = false) String causalConsistencyToken) {
         DataMapHolder.get().companyNumber(companyNumber);
-        LOGGER.info("Retrieving company insolvency information", DataMapHolder.getLogMap());
-        CompanyInsolvency companyInsolvency = insolvencyService.retrieveCompanyInsolvency(
-                companyNumber);
+        if (ifNoneMatch != null) {
+            Optional<String> etag = insolvencyService.retrieveEtag(companyNumber);
+            if (etag.isPresent() && webRequest.checkNotModified(etag.get())) {
+                LOGGER.info("Company insolvency information not modified", DataMapHolder.getLogMap());
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag.get()).build();
+            }
+        }
 
-        return ResponseEntity.status(HttpStatus.OK).body(companyInsolvency);
+        LOGGER.info("Retrieving company insolvency information", DataMapHolder.getLogMap());
+        CausalConsistencyToken after = causalConsistencyToken == null
+                ? null : CausalConsistencyToken.decode(causalConsistencyToken);
+        if (getPassthroughEnabled) {
+            RawCompanyInsolvency rawCompanyInsolvency =
+                    insolvencyService.retrieveRawCompanyInsolvency(companyNumber, after);
+            return ResponseEntity.status(HttpStatus.OK).eTag(rawCompanyInsolvency.getEtag())
+                    .body(rawCompanyInsolvency);
+        }
+        CompanyInsolvency companyInsolvency = insolvencyService.retrieveCompanyInsolvency(companyNumber, after);
+        return ResponseEntity.status(HttpStatus.OK).eTag(companyInsolvency.getEtag()).body(companyInsolvency);
     }
 
     /**
@@ -86,6 +121,12 @@ public class InsolvencyController {
         LOGGER.info("DELETE request successfully received", DataMapHolder.getLogMap());
 
         insolvencyService.deleteInsolvency(companyNumber, deltaAt);
-        return ResponseEntity.status(HttpStatus.OK).build();
+        return withCausalConsistencyToken(ResponseEntity.status(HttpStatus.OK)).build();
+    }
+
+    private ResponseEntity.BodyBuilder withCausalConsistencyToken(ResponseEntity.BodyBuilder response) {
+        insolvencyService.causalConsistencyToken().ifPresent(token ->
+                response.header(CAUSAL_CONSISTENCY_TOKEN_HEADER, token.encode()));
+        return response;
     }
 }
@@ -0,0 +1,286 @@
+package uk.gov.companieshouse.insolvency.data.converter;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.Decimal128;
+import org.bson.types.ObjectId;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.exceptions.InternalServerErrorException;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * BSON codec for {@link CompanyInsolvency}.
+ *
+ * <p>Encoding replays the Jackson token stream of the MongoDB object mapper directly onto a
+ * {@link BsonWriter}, so the stored shape (blank strings dropped, enums as their values, dates as
+ * BSON dates) is the same as the previous JSON string round trip without producing any text.
+ * Decoding feeds BSON values into the same token stream, handing dates over as embedded
+ * {@link Date} values instead of extended JSON.
+ */
+public class CompanyInsolvencyCodec implements Codec<CompanyInsolvency> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final String ETAG_FIELD = "etag";
+
+    private final ObjectMapper objectMapper;
+
+    public CompanyInsolvencyCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, CompanyInsolvency value, EncoderContext encoderContext) {
+        TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+        try {
+            objectMapper.writeValue(buffer, value);
+            try (JsonParser parser = buffer.asParser()) {
+                parser.nextToken();
+                writeValue(parser, writer);
+            }
+        } catch (IOException ex) {
+            LOGGER.info("Failed to encode CompanyInsolvency into BSON", DataMapHolder.getLogMap());
+            throw new InternalServerErrorException("Failed to encode CompanyInsolvency into BSON", ex);
+        }
+    }
+
+    @Override
+    public CompanyInsolvency decode(BsonReader reader, DecoderContext decoderContext) {
+        TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+        try {
+            readDocument(reader, buffer);
+            return readCompanyInsolvency(buffer);
+        } catch (IOException ex) {
+            LOGGER.info("Failed to decode CompanyInsolvency from BSON", DataMapHolder.getLogMap());
+            throw new InternalServerErrorException("Failed to decode CompanyInsolvency from BSON", ex);
+        }
+    }
+
+    /**
+     * Decode company insolvency from a document already read by the driver.
+     *
+     * @param document the stored data subdocument
+     * @return decoded company insolvency data
+     */
+    public CompanyInsolvency decode(Document document) {
+        TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+        try {
+            readValue(document, buffer);
+            return readCompanyInsolvency(buffer);
+        } catch (IOException ex) {
+            LOGGER.info("Failed to convert document source to CompanyInsolvency", DataMapHolder.getLogMap());
+            throw new InternalServerErrorException("Failed to convert document source to CompanyInsolvency", ex);
+        }
+    }
+
+    @Override
+    public Class<CompanyInsolvency> getEncoderClass() {
+        return CompanyInsolvency.class;
+    }
+
+    /**
+     * Encode company insolvency into a new BSON document.
+     *
+     * @param value company insolvency data
+     * @return encoded BSON document
+     */
+    public BsonDocument toBsonDocument(CompanyInsolvency value) {
+        BsonDocument document = new BsonDocument();
+        encode(new BsonDocumentWriter(document), value, EncoderContext.builder().build());
+        return document;
+    }
+
+    /**
+     * Hash company insolvency by the BSON it is stored as, leaving out the etag, so two payloads
+     * hash the same exactly when they would store the same data.
+     *
+     * @param value company insolvency data
+     * @return hex encoded SHA-256 of the stored encoding without the etag
+     */
+    public String contentHash(CompanyInsolvency value) {
+        TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+        try (BasicOutputBuffer output = new BasicOutputBuffer();
+                BsonBinaryWriter writer = new BsonBinaryWriter(output)) {
+            objectMapper.writeValue(buffer, value);
+            try (JsonParser parser = buffer.asParser()) {
+                parser.nextToken();
+                writer.writeStartDocument();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    parser.nextToken();
+                    if (ETAG_FIELD.equals(name)) {
+                        parser.skipChildren();
+                    } else {
+                        writer.writeName(name);
+                        writeValue(parser, writer);
+                    }
+                }
+                writer.writeEndDocument();
+            }
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(output.getInternalBuffer(), 0, output.getPosition());
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException ex) {
+            LOGGER.info("Failed to hash CompanyInsolvency", DataMapHolder.getLogMap());
+            throw new InternalServerErrorException("Failed to hash CompanyInsolvency", ex);
+        }
+    }
+
+    private CompanyInsolvency readCompanyInsolvency(TokenBuffer buffer) throws IOException {
+        try (JsonParser parser = buffer.asParser()) {
+            return objectMapper.readValue(parser, CompanyInsolvency.class);
+        }
+    }
+
+    private static void readDocument(BsonReader reader, JsonGenerator generator) throws IOException {
+        reader.readStartDocument();
+        generator.writeStartObject();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            generator.writeFieldName(reader.readName());
+            readValue(reader, generator);
+        }
+        reader.readEndDocument();
+        generator.writeEndObject();
+    }
+
+    private static void readValue(BsonReader reader, JsonGenerator generator) throws IOException {
+        switch (reader.getCurrentBsonType()) {
+            case DOCUMENT -> readDocument(reader, generator);
+            case ARRAY -> {
+                reader.readStartArray();
+                generator.writeStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    readValue(reader, generator);
+                }
+                reader.readEndArray();
+                generator.writeEndArray();
+            }
+            case STRING -> generator.writeString(reader.readString());
+            case DATE_TIME -> generator.writeEmbeddedObject(new Date(reader.readDateTime()));
+            case INT32 -> generator.writeNumber(reader.readInt32());
+            case INT64 -> generator.writeNumber(reader.readInt64());
+            case DOUBLE -> generator.writeNumber(reader.readDouble());
+            case DECIMAL128 -> generator.writeNumber(reader.readDecimal128().bigDecimalValue());
+            case BOOLEAN -> generator.writeBoolean(reader.readBoolean());
+            case OBJECT_ID -> generator.writeString(reader.readObjectId().toHexString());
+            case NULL -> {
+                reader.readNull();
+                generator.writeNull();
+            }
+            default -> {
+                reader.skipValue();
+                generator.writeNull();
+            }
+        }
+    }
+
+    private static void readValue(Object value, JsonGenerator generator) throws IOException {
+        if (value instanceof Map<?, ?> map) {
+            generator.writeStartObject();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                generator.writeFieldName((String) entry.getKey());
+                readValue(entry.getValue(), generator);
+            }
+            generator.writeEndObject();
+        } else if (value instanceof List<?> list) {
+            generator.writeStartArray();
+            for (Object element : list) {
+                readValue(element, generator);
+            }
+            generator.writeEndArray();
+        } else if (value instanceof String string) {
+            generator.writeString(string);
+        } else if (value instanceof Date date) {
+            generator.writeEmbeddedObject(date);
+        } else if (value instanceof Integer number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Long number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Double number) {
+            generator.writeNumber(number);
+        } else if (value instanceof Decimal128 number) {
+            generator.writeNumber(number.bigDecimalValue());
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else if (value instanceof ObjectId objectId) {
+            generator.writeString(objectId.toHexString());
+        } else if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    private static void writeValue(JsonParser parser, BsonWriter writer) throws IOException {
+        switch (parser.currentToken()) {
+            case START_OBJECT -> {
+                writer.writeStartDocument();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    writer.writeName(parser.currentName());
+                    parser.nextToken();
+                    writeValue(parser, writer);
+                }
+                writer.writeEndDocument();
+            }
+            case START_ARRAY -> {
+                writer.writeStartArray();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    writeValue(parser, writer);
+                }
+                writer.writeEndArray();
+            }
+            case VALUE_STRING -> writer.writeString(parser.getText());
+            case VALUE_NUMBER_INT -> writeInteger(parser, writer);
+            case VALUE_NUMBER_FLOAT -> writer.writeDouble(parser.getDoubleValue());
+            case VALUE_TRUE, VALUE_FALSE -> writer.writeBoolean(parser.getBooleanValue());
+            case VALUE_NULL -> writer.writeNull();
+            case VALUE_EMBEDDED_OBJECT -> writeEmbeddedObject(parser.getEmbeddedObject(), writer);
+            default -> throw new IOException("Unexpected token: %s".formatted(parser.currentToken()));
+        }
+    }
+
+    private static void writeInteger(JsonParser parser, BsonWriter writer) throws IOException {
+        switch (parser.getNumberType()) {
+            case INT -> writer.writeInt32(parser.getIntValue());
+            case LONG -> writer.writeInt64(parser.getLongValue());
+            default -> writer.writeDecimal128(new Decimal128(new BigDecimal(parser.getBigIntegerValue())));
+        }
+    }
+
+    private static void writeEmbeddedObject(Object value, BsonWriter writer) throws IOException {
+        if (value instanceof LocalDate localDate) {
+            writer.writeDateTime(localDate.toEpochDay() * MILLIS_PER_DAY);
+        } else if (value == null) {
+            writer.writeNull();
+        } else {
+            throw new IOException("Unexpected embedded value: %s".formatted(value.getClass()));
+        }
+    }
+}
@@ -2,6 +2,9 @@ package uk.gov.companieshouse.insolvency.data.converter;
 
 import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
 
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 import org.springframework.core.convert.TypeDescriptor;
 import org.springframework.core.convert.converter.GenericConverter;
@@ -17,6 +20,13 @@ public class EnumConverters {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
 
+    private static final ClassValue<EnumTable> ENUM_TABLES = new ClassValue<>() {
+        @Override
+        protected EnumTable computeValue(@NonNull Class<?> type) {
+            return new EnumTable(type);
+        }
+    };
+
     private EnumConverters() {
 
     }
@@ -32,7 +42,7 @@ public class EnumConverters {
         @Override
         public Object convert(Object source, @NonNull TypeDescriptor sourceType, @NonNull TypeDescriptor targetType) {
             try {
-                return targetType.getType().getDeclaredMethod("fromValue", String.class).invoke(null, source);
+                return ENUM_TABLES.get(targetType.getType()).fromValue(source);
             } catch (Exception ex) {
                 final String msg = "Unexpected Enum: %s".formatted(targetType);
                 LOGGER.info(msg, DataMapHolder.getLogMap());
@@ -51,12 +61,68 @@ public class EnumConverters {
 
         @Override
         public Object convert(Object source, @NonNull TypeDescriptor sourceType, @NonNull TypeDescriptor targetType) {
+            Enum<?> constant = (Enum<?>) source;
+            return ENUM_TABLES.get(constant.getDeclaringClass()).getValue(constant);
+        }
+    }
+
+    /**
+     * The {@code getValue()} / {@code fromValue(String)} mapping of one enum type, resolved once.
+     */
+    static final class EnumTable {
+
+        private final Method fromValueMethod;
+        private final Object[] valuesByOrdinal;
+        private final Map<String, Object> constantsByValue = new HashMap<>();
+
+        EnumTable(Class<?> type) {
+            fromValueMethod = findMethod(type, "fromValue", String.class);
+            Method getValueMethod = findMethod(type, "getValue");
+            Object[] constants = type.isEnum() ? type.getEnumConstants() : new Object[0];
+
+            valuesByOrdinal = new Object[constants.length];
+            for (Object constant : constants) {
+                Enum<?> enumConstant = (Enum<?>) constant;
+                Object value;
+                try {
+                    value = getValueMethod != null ? getValueMethod.invoke(constant) : enumConstant.name();
+                } catch (ReflectiveOperationException | RuntimeException ex) {
+                    LOGGER.info("Exception in EnumConverter during write conversion", DataMapHolder.getLogMap());
+                    value = enumConstant.name();
+                }
+                valuesByOrdinal[enumConstant.ordinal()] = value;
+                if (fromValueMethod != null && value instanceof String stringValue
+                        && resolve(stringValue) == constant) {
+                    constantsByValue.put(stringValue, constant);
+                }
+            }
+        }
+
+        Object fromValue(Object source) throws ReflectiveOperationException {
+            if (fromValueMethod == null) {
+                throw new NoSuchMethodException("fromValue");
+            }
+            Object constant = constantsByValue.get(source);
+            return constant != null ? constant : fromValueMethod.invoke(null, source);
+        }
+
+        Object getValue(Enum<?> constant) {
+            return valuesByOrdinal[constant.ordinal()];
+        }
+
+        private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
             try {
-                return sourceType.getType().getDeclaredMethod("getValue", null)
-                        .invoke(source, null);
-            } catch (Exception ex) {
-                LOGGER.info("Exception in EnumConverter during write conversion", DataMapHolder.getLogMap());
-                return ((Enum<?>) source).name();
+                return type.getDeclaredMethod(name, parameterTypes);
+            } catch (NoSuchMethodException ex) {
+                return null;
+            }
+        }
+
+        private Object resolve(String value) {
+            try {
+                return fromValueMethod.invoke(null, value);
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                return null;
             }
         }
     }
@@ -0,0 +1,63 @@
+package uk.gov.companieshouse.insolvency.data.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+import uk.gov.companieshouse.api.insolvency.InternalCompanyInsolvency;
+import uk.gov.companieshouse.api.insolvency.InternalData;
+
+/**
+ * One line of a bulk PUT: the body of a single company PUT together with its company number.
+ */
+public class BulkInsolvencyRecord {
+
+    @JsonProperty("company_number")
+    private String companyNumber;
+
+    @JsonProperty("internal_data")
+    private InternalData internalData;
+
+    @JsonProperty("external_data")
+    private CompanyInsolvency externalData;
+
+    /**
+     * Default constructor.
+     */
+    public BulkInsolvencyRecord() {
+    }
+
+    /**
+     * Instantiate a bulk PUT record.
+     *
+     * @param companyNumber the company number
+     * @param companyInsolvency the company insolvency as sent to a single company PUT
+     */
+    public BulkInsolvencyRecord(String companyNumber, InternalCompanyInsolvency companyInsolvency) {
+        this.companyNumber = companyNumber;
+        this.internalData = companyInsolvency.getInternalData();
+        this.externalData = companyInsolvency.getExternalData();
+    }
+
+    public String getCompanyNumber() {
+        return companyNumber;
+    }
+
+    public InternalData getInternalData() {
+        return internalData;
+    }
+
+    public CompanyInsolvency getExternalData() {
+        return externalData;
+    }
+
+    /**
+     * The record as the body of a single company PUT.
+     *
+     * @return internal and external data of the record
+     */
+    public InternalCompanyInsolvency toInternalCompanyInsolvency() {
+        InternalCompanyInsolvency companyInsolvency = new InternalCompanyInsolvency();
+        companyInsolvency.setInternalData(internalData);
+        companyInsolvency.setExternalData(externalData);
+        return companyInsolvency;
+    }
+}
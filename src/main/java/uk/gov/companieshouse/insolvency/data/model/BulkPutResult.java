@@ -0,0 +1,54 @@
+package uk.gov.companieshouse.insolvency.data.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Result line written back for each line of a bulk PUT body.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkPutResult {
+
+    @JsonProperty("line")
+    private final long line;
+
+    @JsonProperty("company_number")
+    private final String companyNumber;
+
+    @JsonProperty("result")
+    private final BulkPutStatus result;
+
+    @JsonProperty("message")
+    private final String message;
+
+    /**
+     * Instantiate a bulk PUT result.
+     *
+     * @param line the line of the request body, starting at 1
+     * @param companyNumber the company number, when it could be read
+     * @param result the outcome for the line
+     * @param message why the line was invalid
+     */
+    public BulkPutResult(long line, String companyNumber, BulkPutStatus result, String message) {
+        this.line = line;
+        this.companyNumber = companyNumber;
+        this.result = result;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public String getCompanyNumber() {
+        return companyNumber;
+    }
+
+    public BulkPutStatus getResult() {
+        return result;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,24 @@
+package uk.gov.companieshouse.insolvency.data.model;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Outcome of one record of a bulk PUT.
+ */
+public enum BulkPutStatus {
+
+    OK("ok"),
+    STALE("stale"),
+    INVALID("invalid");
+
+    private final String value;
+
+    BulkPutStatus(String value) {
+        this.value = value;
+    }
+
+    @JsonValue
+    public String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,68 @@
+package uk.gov.companieshouse.insolvency.data.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Last line of a bulk PUT response, written once every record has been processed.
+ */
+public class BulkPutSummary {
+
+    @JsonProperty("records")
+    private final long records;
+
+    @JsonProperty("ok")
+    private final long ok;
+
+    @JsonProperty("stale")
+    private final long stale;
+
+    @JsonProperty("invalid")
+    private final long invalid;
+
+    @JsonProperty("elapsed_ms")
+    private final long elapsedMillis;
+
+    @JsonProperty("records_per_second")
+    private final double recordsPerSecond;
+
+    /**
+     * Instantiate a bulk PUT summary.
+     *
+     * @param ok records written or already up to date
+     * @param stale records with a delta_at older than the stored one
+     * @param invalid lines that could not be read or validated
+     * @param elapsedMillis time taken to process the body
+     */
+    public BulkPutSummary(long ok, long stale, long invalid, long elapsedMillis) {
+        this.records = ok + stale + invalid;
+        this.ok = ok;
+        this.stale = stale;
+        this.invalid = invalid;
+        this.elapsedMillis = elapsedMillis;
+        this.recordsPerSecond = elapsedMillis > 0 ? records * 1000.0 / elapsedMillis : records;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getOk() {
+        return ok;
+    }
+
+    public long getStale() {
+        return stale;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+}
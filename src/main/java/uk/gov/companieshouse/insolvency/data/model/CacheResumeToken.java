@@ -0,0 +1,56 @@
+package uk.gov.companieshouse.insolvency.data.model;
+
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * The last insolvency change stream position a node's cache invalidation listener has applied.
+ *
+ * <p>Tokens not saved for a week are past any oplog window, and are removed by the TTL index
+ * created by {@link uk.gov.companieshouse.insolvency.data.config.MongoIndexes}.
+ */
+@Document(collection = "#{@environment.getProperty('insolvency.cache.invalidation.token-collection.name')}")
+public class CacheResumeToken {
+
+    @Id
+    private String nodeId;
+
+    @Field("resume_token")
+    private String resumeToken;
+
+    @Field("updated_at")
+    private Instant updatedAt;
+
+    /**
+     * Default constructor.
+     */
+    public CacheResumeToken() {
+    }
+
+    /**
+     * Instantiate a resume token.
+     *
+     * @param nodeId the stable id the listener saves its position under
+     * @param resumeToken the change stream resume token as extended JSON
+     * @param updatedAt the time the token was saved
+     */
+    public CacheResumeToken(String nodeId, String resumeToken, Instant updatedAt) {
+        this.nodeId = nodeId;
+        this.resumeToken = resumeToken;
+        this.updatedAt = updatedAt;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
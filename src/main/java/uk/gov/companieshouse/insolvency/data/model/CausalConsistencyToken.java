@@ -0,0 +1,78 @@
+package uk.gov.companieshouse.insolvency.data.model;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import org.bson.BSONException;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadRequestException;
+
+/**
+ * The point in MongoDB's logical time a client has seen, handed out after a write so a later read
+ * from any replica set member can wait until that member has caught up with it.
+ *
+ * <p>Carries the operation time together with the signed cluster time, as both have to be
+ * advanced on a causally consistent session for the read to be ordered after the write. It travels
+ * as URL-safe base64 of a small BSON document.
+ */
+public class CausalConsistencyToken {
+
+    private static final String OPERATION_TIME_FIELD = "operationTime";
+    private static final String CLUSTER_TIME_FIELD = "clusterTime";
+
+    private final BsonTimestamp operationTime;
+    private final BsonDocument clusterTime;
+
+    public CausalConsistencyToken(BsonTimestamp operationTime, BsonDocument clusterTime) {
+        this.operationTime = operationTime;
+        this.clusterTime = clusterTime;
+    }
+
+    public BsonTimestamp getOperationTime() {
+        return operationTime;
+    }
+
+    public BsonDocument getClusterTime() {
+        return clusterTime;
+    }
+
+    /**
+     * Encode the token for a response header.
+     *
+     * @return URL-safe base64 of the token
+     */
+    public String encode() {
+        BsonDocument document = new BsonDocument(OPERATION_TIME_FIELD, operationTime);
+        if (clusterTime != null) {
+            document.append(CLUSTER_TIME_FIELD, clusterTime);
+        }
+        RawBsonDocument raw = new RawBsonDocument(document, new BsonDocumentCodec());
+        ByteBuffer buffer = raw.getByteBuffer().asNIO();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Decode a token sent back by a client.
+     *
+     * @param value the encoded token
+     * @return the token
+     * @throws BadRequestException when the value is not a token
+     */
+    public static CausalConsistencyToken decode(String value) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(Base64.getUrlDecoder().decode(value)))) {
+            BsonDocument document = new BsonDocumentCodec().decode(reader, DecoderContext.builder().build());
+            BsonValue clusterTime = document.get(CLUSTER_TIME_FIELD);
+            return new CausalConsistencyToken(document.getTimestamp(OPERATION_TIME_FIELD),
+                    clusterTime != null ? clusterTime.asDocument() : null);
+        } catch (IllegalArgumentException | BSONException ex) {
+            throw new BadRequestException("Invalid causal consistency token");
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package uk.gov.companieshouse.insolvency.data.model;
+
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * The lease a node holds while it writes a company insolvency, and the fencing token its writes
+ * carry.
+ *
+ * <p>A released lease is expired rather than deleted, so the token keeps counting up; the TTL index
+ * created by {@link uk.gov.companieshouse.insolvency.data.config.MongoIndexes} only removes leases
+ * a day after they expire.
+ */
+@Document(collection = "#{@environment.getProperty('insolvency.lease.collection.name')}")
+public class CompanyLease {
+
+    @Id
+    private String companyNumber;
+
+    @Field("holder")
+    private String holder;
+
+    @Field("token")
+    private long token;
+
+    @Field("expires_at")
+    private Instant expiresAt;
+
+    /**
+     * Default constructor.
+     */
+    public CompanyLease() {
+    }
+
+    public String getCompanyNumber() {
+        return companyNumber;
+    }
+
+    public String getHolder() {
+        return holder;
+    }
+
+    public long getToken() {
+        return token;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
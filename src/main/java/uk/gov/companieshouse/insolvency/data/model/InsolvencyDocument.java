@@ -29,6 +29,12 @@ public class InsolvencyDocument {
     @Field("updated_by")
     private String updatedBy;
 
+    @Field("data_hash")
+    private String dataHash;
+
+    @Field("fencing_token")
+    private Long fencingToken;
+
     /**
      * Default constructor.
      */
@@ -79,4 +85,20 @@ public class InsolvencyDocument {
     public String getUpdatedBy() {
         return updatedBy;
     }
+
+    public String getDataHash() {
+        return dataHash;
+    }
+
+    public void setDataHash(String dataHash) {
+        this.dataHash = dataHash;
+    }
+
+    public Long getFencingToken() {
+        return fencingToken;
+    }
+
+    public void setFencingToken(Long fencingToken) {
+        this.fencingToken = fencingToken;
+    }
 }
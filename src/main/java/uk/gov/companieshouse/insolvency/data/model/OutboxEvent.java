@@ -0,0 +1,126 @@
+package uk.gov.companieshouse.insolvency.data.model;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.common.EventType;
+
+/**
+ * A resource changed event waiting to be sent to chs-kafka-api, written in the same transaction
+ * as the insolvency document it describes. A company's events are sent in the order of the delta_at
+ * they were written with, which unlike the time of writing is the same whichever instance wrote them.
+ */
+@Document(collection = "#{@environment.getProperty('insolvency.outbox.collection.name')}")
+public class OutboxEvent {
+
+    @Id
+    private String id;
+
+    @Field("company_number")
+    private String companyNumber;
+
+    @Field("event_type")
+    private String eventType;
+
+    @Field("deleted_data")
+    private CompanyInsolvency deletedData;
+
+    @Field("context_id")
+    private String contextId;
+
+    @Field("delta_at")
+    private OffsetDateTime deltaAt;
+
+    @Field("created_at")
+    private Instant createdAt;
+
+    @Field("attempts")
+    private int attempts;
+
+    @Field("next_attempt_at")
+    private Instant nextAttemptAt;
+
+    @Field("claimed_until")
+    private Instant claimedUntil;
+
+    @Field("failed")
+    private boolean failed;
+
+    /**
+     * Default constructor.
+     */
+    public OutboxEvent() {
+    }
+
+    /**
+     * Instantiate a pending outbox event.
+     *
+     * @param companyNumber the company number
+     * @param eventType the resource changed event type
+     * @param deletedData the deleted company insolvency, for DELETED events
+     * @param contextId the request id the event was raised by
+     * @param deltaAt the delta_at of the write that raised the event
+     * @param createdAt the time the event was raised
+     */
+    public OutboxEvent(String companyNumber,
+                       EventType eventType,
+                       CompanyInsolvency deletedData,
+                       String contextId,
+                       OffsetDateTime deltaAt,
+                       Instant createdAt) {
+        this.companyNumber = companyNumber;
+        this.eventType = eventType.name();
+        this.deletedData = deletedData;
+        this.contextId = contextId;
+        this.deltaAt = deltaAt;
+        this.createdAt = createdAt;
+        this.nextAttemptAt = createdAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getCompanyNumber() {
+        return companyNumber;
+    }
+
+    public EventType getEventType() {
+        return EventType.valueOf(eventType);
+    }
+
+    public CompanyInsolvency getDeletedData() {
+        return deletedData;
+    }
+
+    public String getContextId() {
+        return contextId;
+    }
+
+    public OffsetDateTime getDeltaAt() {
+        return deltaAt;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public Instant getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public Instant getClaimedUntil() {
+        return claimedUntil;
+    }
+
+    public boolean isFailed() {
+        return failed;
+    }
+}
@@ -0,0 +1,31 @@
+package uk.gov.companieshouse.insolvency.data.model;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * Company insolvency data exactly as stored, written to the response without binding it to
+ * {@link uk.gov.companieshouse.api.insolvency.CompanyInsolvency}.
+ */
+public class RawCompanyInsolvency {
+
+    private final BsonDocument data;
+
+    public RawCompanyInsolvency(BsonDocument data) {
+        this.data = data;
+    }
+
+    public BsonDocument getData() {
+        return data;
+    }
+
+    /**
+     * The stored etag.
+     *
+     * @return the etag, or null when the data has none
+     */
+    public String getEtag() {
+        BsonValue etag = data.get("etag");
+        return etag != null && etag.isString() ? etag.asString().getValue() : null;
+    }
+}
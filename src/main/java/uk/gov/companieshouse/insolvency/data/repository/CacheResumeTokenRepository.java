@@ -0,0 +1,9 @@
+package uk.gov.companieshouse.insolvency.data.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import uk.gov.companieshouse.insolvency.data.model.CacheResumeToken;
+
+@Repository
+public interface CacheResumeTokenRepository extends MongoRepository<CacheResumeToken, String> {
+}
@@ -0,0 +1,10 @@
+package uk.gov.companieshouse.insolvency.data.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import uk.gov.companieshouse.insolvency.data.model.CompanyLease;
+
+@Repository
+public interface CompanyLeaseRepository extends MongoRepository<CompanyLease, String>,
+        CompanyLeaseRepositoryExtension {
+}
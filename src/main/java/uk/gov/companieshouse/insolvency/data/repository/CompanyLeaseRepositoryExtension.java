@@ -0,0 +1,27 @@
+package uk.gov.companieshouse.insolvency.data.repository;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+public interface CompanyLeaseRepositoryExtension {
+
+    /**
+     * Take the lease on a company in a single round trip unless another holder has an unexpired
+     * lease on it. Expiry is judged by the server's clock, not the caller's.
+     *
+     * @param companyNumber the company number
+     * @param holder identifies the holder
+     * @param ttl how long the lease lasts if it is not released
+     * @return the fencing token of the lease, higher than that of every earlier lease on the
+     *         company, or empty when the lease is held elsewhere
+     */
+    OptionalLong acquire(String companyNumber, String holder, Duration ttl);
+
+    /**
+     * Expire a lease now, unless it has already been taken over.
+     *
+     * @param companyNumber the company number
+     * @param token the fencing token of the lease
+     */
+    void release(String companyNumber, long token);
+}
@@ -0,0 +1,66 @@
+package uk.gov.companieshouse.insolvency.data.repository;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import uk.gov.companieshouse.insolvency.data.model.CompanyLease;
+
+class CompanyLeaseRepositoryExtensionImpl implements CompanyLeaseRepositoryExtension {
+
+    private static final String ID_FIELD = "_id";
+    private static final String HOLDER_FIELD = "holder";
+    private static final String TOKEN_FIELD = "token";
+    private static final String EXPIRES_AT_FIELD = "expires_at";
+    private static final String NOW = "$$NOW";
+    private static final Bson EXPIRED =
+            new Document("$expr", new Document("$lte", List.of("$" + EXPIRES_AT_FIELD, NOW)));
+    private static final FindOneAndUpdateOptions UPSERT_RETURNING_TOKEN = new FindOneAndUpdateOptions()
+            .upsert(true)
+            .returnDocument(ReturnDocument.AFTER)
+            .projection(Projections.include(TOKEN_FIELD));
+
+    private final MongoTemplate mongoTemplate;
+
+    CompanyLeaseRepositoryExtensionImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public OptionalLong acquire(String companyNumber, String holder, Duration ttl) {
+        // Matches the lease only once it has expired. While it has not, the upsert falls through
+        // to an insert that collides on _id, which is how a lease held elsewhere shows up. The
+        // token is never less than the server's time in millis, so it still counts up when the
+        // TTL index has removed an old lease and the next one starts afresh.
+        Bson filter = Filters.and(Filters.eq(ID_FIELD, companyNumber), EXPIRED);
+        Document previousToken = new Document("$ifNull", List.of("$" + TOKEN_FIELD, 0L));
+        Document nextToken = new Document("$max", List.of(
+                new Document("$add", List.of(previousToken, 1L)),
+                new Document("$toLong", NOW)));
+        List<Bson> update = List.of(new Document("$set", new Document()
+                .append(HOLDER_FIELD, new Document("$literal", holder))
+                .append(TOKEN_FIELD, nextToken)
+                .append(EXPIRES_AT_FIELD, new Document("$add", List.of(NOW, ttl.toMillis())))));
+        try {
+            Document lease = mongoTemplate.execute(CompanyLease.class, collection ->
+                    collection.findOneAndUpdate(filter, update, UPSERT_RETURNING_TOKEN));
+            return lease == null ? OptionalLong.empty() : OptionalLong.of(lease.getLong(TOKEN_FIELD));
+        } catch (DuplicateKeyException ex) {
+            return OptionalLong.empty();
+        }
+    }
+
+    @Override
+    public void release(String companyNumber, long token) {
+        mongoTemplate.execute(CompanyLease.class, collection -> collection.updateOne(
+                Filters.and(Filters.eq(ID_FIELD, companyNumber), Filters.eq(TOKEN_FIELD, token)),
+                List.of(new Document("$set", new Document(EXPIRES_AT_FIELD, NOW)))));
+    }
+}
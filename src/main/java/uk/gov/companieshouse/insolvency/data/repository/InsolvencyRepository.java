@@ -1,9 +1,23 @@
 package uk.gov.companieshouse.insolvency.data.repository;
 
+import java.util.Collection;
+import java.util.stream.Stream;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 import uk.gov.companieshouse.insolvency.data.model.InsolvencyDocument;
 
 @Repository
-public interface InsolvencyRepository extends MongoRepository<InsolvencyDocument, String> {
+public interface InsolvencyRepository extends MongoRepository<InsolvencyDocument, String>,
+        InsolvencyRepositoryExtension {
+
+    /**
+     * Stream the company insolvencies for many company numbers from a single $in query, reading
+     * only the id and data of each.
+     *
+     * @param companyNumbers the company numbers
+     * @return the documents found, in no particular order; the stream must be closed
+     */
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ 'data': 1 }")
+    Stream<InsolvencyDocument> findAllByIdIn(Collection<String> companyNumbers);
 }
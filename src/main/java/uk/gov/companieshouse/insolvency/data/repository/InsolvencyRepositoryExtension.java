@@ -0,0 +1,177 @@
+package uk.gov.companieshouse.insolvency.data.repository;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import uk.gov.companieshouse.insolvency.data.model.CausalConsistencyToken;
+import uk.gov.companieshouse.insolvency.data.model.InsolvencyDocument;
+import uk.gov.companieshouse.insolvency.data.model.RawCompanyInsolvency;
+
+public interface InsolvencyRepositoryExtension {
+
+    /**
+     * Find the stored data subdocument of a company insolvency without mapping it, reading as
+     * {@link #findDataById(String, ReadPreference, CausalConsistencyToken)} does.
+     *
+     * @param companyNumber the company number
+     * @param readPreference the replica set members the read may go to
+     * @param after when set, read in a causally consistent session after the token
+     * @return the raw BSON data when the document exists
+     */
+    Optional<RawCompanyInsolvency> findRawDataById(String companyNumber, ReadPreference readPreference,
+            CausalConsistencyToken after);
+
+    /**
+     * Find the company insolvency data of a company, reading only the id and data.
+     *
+     * @param companyNumber the company number
+     * @param readPreference the replica set members the read may go to
+     * @param after when set, read in a causally consistent session so that whichever member serves
+     *              the read has caught up with the operation the token was taken after
+     * @return the document with only its id and data set, when it exists
+     */
+    Optional<InsolvencyDocument> findDataById(String companyNumber, ReadPreference readPreference,
+            CausalConsistencyToken after);
+
+    /**
+     * Find the data of several company insolvencies in one query, reading only the data field.
+     *
+     * @param companyNumbers the company numbers
+     * @param readPreference replica set members the read may go to
+     * @return the documents found, in no particular order
+     */
+    List<InsolvencyDocument> findDataByIdIn(Collection<String> companyNumbers, ReadPreference readPreference);
+
+    /**
+     * Take a token for the logical time the primary has reached, which is after every write it
+     * has already acknowledged.
+     *
+     * @return the primary's operation and cluster time, both null when not on a replica set
+     */
+    CausalConsistencyToken currentCausalConsistencyToken();
+
+    /**
+     * Find the etag of a stored company insolvency, reading only that field.
+     *
+     * @param companyNumber the company number
+     * @return the etag when the document exists and has one
+     */
+    Optional<String> findEtagById(String companyNumber);
+
+    /**
+     * Read every stored company insolvency in company number order from one cursor, handing each
+     * document to the action before the next batch is fetched.
+     *
+     * @param afterCompanyNumber only read company numbers after this one, or all when null
+     * @param batchSize number of documents fetched per cursor batch
+     * @param action receives the id, delta_at, updated_at and data of each document
+     */
+    void forEachAfter(String afterCompanyNumber, int batchSize, Consumer<RawBsonDocument> action);
+
+    /**
+     * Read the company number of every stored company insolvency from the _id index alone.
+     *
+     * @param batchSize number of ids fetched per cursor batch
+     * @param action receives each company number
+     */
+    void forEachCompanyNumber(int batchSize, Consumer<String> action);
+
+    /**
+     * Open a change stream on the insolvency collection carrying only the operation type and
+     * document key of each change.
+     *
+     * @param resumeToken resume after this change, or start from now when null
+     * @param maxAwait how long each poll of the cursor waits for a change
+     * @return the open cursor, which the caller closes
+     */
+    MongoChangeStreamCursor<ChangeStreamDocument<Document>> watchChanges(BsonDocument resumeToken,
+            Duration maxAwait);
+
+    /**
+     * Insert or replace a company insolvency in a single write, unless the stored document has a
+     * later delta_at, or, when the document carries a fencing token, was written under a later one.
+     * The stored fencing token is kept when the document carries none or an earlier one.
+     *
+     * @param document the document to store
+     * @return true when the document was written, false when the stored delta_at is newer
+     */
+    boolean upsertIfNotStale(InsolvencyDocument document);
+
+    /**
+     * Move delta_at, updated_at and updated_by of the stored company insolvency forward when its
+     * data hash matches and its delta_at is not later, leaving the data and etag as they are. A
+     * document carrying a fencing token only matches when the stored one is not later, and moves
+     * the stored token forward to it.
+     *
+     * @param document the document that would have been stored
+     * @return true when the stored document had the same data and was updated
+     */
+    boolean touchIfUnchanged(InsolvencyDocument document);
+
+    /**
+     * Check whether the stored company insolvency has the same data hash and a delta_at that is not
+     * later.
+     *
+     * @param document the document that would have been stored
+     * @return true when storing the document would not change its data
+     */
+    boolean existsUnchanged(InsolvencyDocument document);
+
+    /**
+     * Find the delta_at and data hash of the stored company insolvencies, without their data.
+     *
+     * @param companyNumbers the company numbers
+     * @return the stored documents found, holding only id, delta_at and data hash
+     */
+    List<InsolvencyDocument> findWriteStates(Collection<String> companyNumbers);
+
+    /**
+     * Insert or replace company insolvencies with one unordered bulk write, each guarded on
+     * delta_at and keeping the stored fencing token as in {@link #upsertIfNotStale(InsolvencyDocument)}.
+     *
+     * @param documents the documents to store
+     * @return the documents that were not written, either because the stored delta_at is newer or
+     *         because another write got there first
+     */
+    List<InsolvencyDocument> bulkUpsertIfNotStale(List<InsolvencyDocument> documents);
+
+    /**
+     * Apply {@link #touchIfUnchanged(InsolvencyDocument)} to many documents with one unordered bulk
+     * write.
+     *
+     * @param documents the documents that would have been stored
+     * @return true when every stored document matched and was updated
+     */
+    boolean bulkTouchIfUnchanged(List<InsolvencyDocument> documents);
+
+    /**
+     * Delete a company insolvency in a single round trip, unless the stored document has a later
+     * delta_at or was written under a later fencing token.
+     *
+     * @param companyNumber the company number
+     * @param deltaAt the delta_at of the delete request
+     * @param fencingToken the token of the lease the delete is made under, or null when not leased
+     * @return the deleted document with only its id and data read, or empty when the document is
+     *         absent, has a later delta_at or was written under a later fencing token
+     */
+    Optional<InsolvencyDocument> deleteIfNotStale(String companyNumber, OffsetDateTime deltaAt, Long fencingToken);
+
+    /**
+     * Check whether the stored company insolvency was written under a later fencing token, which
+     * means the lease the token belongs to has been taken over.
+     *
+     * @param companyNumber the company number
+     * @param fencingToken the token of the lease held
+     * @return true when the stored document carries a later fencing token
+     */
+    boolean isFenced(String companyNumber, long fencingToken);
+}
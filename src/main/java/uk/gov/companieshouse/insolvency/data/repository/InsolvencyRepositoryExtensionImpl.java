@@ -0,0 +1,331 @@
+package uk.gov.companieshouse.insolvency.data.repository;
+
+import com.mongodb.ClientSessionOptions;
+import com.mongodb.ReadPreference;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.ClientSession;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.conversions.Bson;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.BulkOperations.BulkMode;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import uk.gov.companieshouse.insolvency.data.model.CausalConsistencyToken;
+import uk.gov.companieshouse.insolvency.data.model.InsolvencyDocument;
+import uk.gov.companieshouse.insolvency.data.model.RawCompanyInsolvency;
+
+class InsolvencyRepositoryExtensionImpl implements InsolvencyRepositoryExtension {
+
+    private static final String ID_FIELD = "_id";
+    private static final String DATA_FIELD = "data";
+    private static final String ETAG_FIELD = "etag";
+    private static final String DELTA_AT_FIELD = "delta_at";
+    private static final String UPDATED_AT_FIELD = "updated_at";
+    private static final String UPDATED_BY_FIELD = "updated_by";
+    private static final String DATA_HASH_FIELD = "data_hash";
+    private static final String FENCING_TOKEN_FIELD = "fencing_token";
+    private static final String OPERATION_TYPE_FIELD = "operationType";
+    private static final String DOCUMENT_KEY_FIELD = "documentKey";
+    private static final UpdateOptions UPSERT = new UpdateOptions().upsert(true);
+    private static final ClientSessionOptions CAUSALLY_CONSISTENT =
+            ClientSessionOptions.builder().causallyConsistent(true).build();
+
+    private final MongoTemplate mongoTemplate;
+
+    InsolvencyRepositoryExtensionImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<RawCompanyInsolvency> findRawDataById(String companyNumber, ReadPreference readPreference,
+            CausalConsistencyToken after) {
+        RawBsonDocument document = findFirstData(companyNumber, RawBsonDocument.class, readPreference, after);
+        return Optional.ofNullable(document)
+                .map(found -> found.get(DATA_FIELD))
+                .filter(BsonValue::isDocument)
+                .map(data -> new RawCompanyInsolvency(data.asDocument()));
+    }
+
+    @Override
+    public Optional<InsolvencyDocument> findDataById(String companyNumber, ReadPreference readPreference,
+            CausalConsistencyToken after) {
+        Document document = findFirstData(companyNumber, Document.class, readPreference, after);
+        return Optional.ofNullable(document)
+                .map(found -> mongoTemplate.getConverter().read(InsolvencyDocument.class, found));
+    }
+
+    private <T> T findFirstData(String companyNumber, Class<T> documentClass, ReadPreference readPreference,
+            CausalConsistencyToken after) {
+        Bson filter = Filters.eq(ID_FIELD, companyNumber);
+        Bson projection = Projections.include(DATA_FIELD);
+        return mongoTemplate.execute(InsolvencyDocument.class, collection -> {
+            MongoCollection<T> members = collection.withDocumentClass(documentClass)
+                    .withReadPreference(readPreference);
+            if (after == null) {
+                return members.find(filter).projection(projection).first();
+            }
+            try (ClientSession session = mongoTemplate.getMongoDatabaseFactory().getSession(CAUSALLY_CONSISTENT)) {
+                if (after.getClusterTime() != null) {
+                    session.advanceClusterTime(after.getClusterTime());
+                }
+                session.advanceOperationTime(after.getOperationTime());
+                return members.find(session, filter).projection(projection).first();
+            }
+        });
+    }
+
+    @Override
+    public List<InsolvencyDocument> findDataByIdIn(Collection<String> companyNumbers,
+            ReadPreference readPreference) {
+        List<Document> documents = mongoTemplate.execute(InsolvencyDocument.class, collection ->
+                collection.withReadPreference(readPreference)
+                        .find(Filters.in(ID_FIELD, companyNumbers))
+                        .projection(Projections.include(DATA_FIELD))
+                        .into(new ArrayList<>()));
+        return documents.stream()
+                .map(found -> mongoTemplate.getConverter().read(InsolvencyDocument.class, found))
+                .toList();
+    }
+
+    @Override
+    public CausalConsistencyToken currentCausalConsistencyToken() {
+        return mongoTemplate.execute(db -> {
+            try (ClientSession session = mongoTemplate.getMongoDatabaseFactory().getSession(CAUSALLY_CONSISTENT)) {
+                db.runCommand(session, new Document("ping", 1));
+                return new CausalConsistencyToken(session.getOperationTime(), session.getClusterTime());
+            }
+        });
+    }
+
+    @Override
+    public Optional<String> findEtagById(String companyNumber) {
+        Document document = mongoTemplate.execute(InsolvencyDocument.class, collection ->
+                collection.find(Filters.eq(ID_FIELD, companyNumber))
+                        .projection(Projections.include(DATA_FIELD + "." + ETAG_FIELD))
+                        .first());
+        return Optional.ofNullable(document)
+                .map(found -> found.getEmbedded(List.of(DATA_FIELD, ETAG_FIELD), String.class));
+    }
+
+    @Override
+    public void forEachAfter(String afterCompanyNumber, int batchSize, Consumer<RawBsonDocument> action) {
+        Bson filter = afterCompanyNumber == null ? Filters.empty() : Filters.gt(ID_FIELD, afterCompanyNumber);
+        mongoTemplate.execute(InsolvencyDocument.class, collection -> {
+            collection.withDocumentClass(RawBsonDocument.class)
+                    .find(filter)
+                    .sort(Sorts.ascending(ID_FIELD))
+                    .projection(Projections.include(DELTA_AT_FIELD, UPDATED_AT_FIELD, DATA_FIELD))
+                    .batchSize(batchSize)
+                    .forEach(action);
+            return null;
+        });
+    }
+
+    @Override
+    public void forEachCompanyNumber(int batchSize, Consumer<String> action) {
+        mongoTemplate.execute(InsolvencyDocument.class, collection -> {
+            // hinting the _id index with an _id-only projection makes this a covered index scan
+            collection.withDocumentClass(RawBsonDocument.class)
+                    .find()
+                    .projection(Projections.include(ID_FIELD))
+                    .hint(Indexes.ascending(ID_FIELD))
+                    .batchSize(batchSize)
+                    .forEach(document -> action.accept(document.getString(ID_FIELD).getValue()));
+            return null;
+        });
+    }
+
+    @Override
+    public MongoChangeStreamCursor<ChangeStreamDocument<Document>> watchChanges(BsonDocument resumeToken,
+            Duration maxAwait) {
+        return mongoTemplate.execute(InsolvencyDocument.class, collection -> {
+            ChangeStreamIterable<Document> changes = collection.watch(List.of(
+                    Aggregates.project(Projections.include(OPERATION_TYPE_FIELD, DOCUMENT_KEY_FIELD))));
+            if (resumeToken != null) {
+                changes = changes.resumeAfter(resumeToken);
+            }
+            return changes.maxAwaitTime(maxAwait.toMillis(), TimeUnit.MILLISECONDS).cursor();
+        });
+    }
+
+    @Override
+    public boolean upsertIfNotStale(InsolvencyDocument document) {
+        Document replacement = new Document();
+        mongoTemplate.getConverter().write(document, replacement);
+
+        // Matches the stored document only while its delta_at is not after ours. When it is, the
+        // upsert falls through to an insert that collides on _id, which is how a stale delta
+        // shows up. A collision can also come from a concurrent first insert, so retry once: by
+        // then the document exists and the filter alone decides. Inside a transaction the filter
+        // sees the transaction's snapshot and a concurrent insert is a write conflict instead, so
+        // the collision is final (and has aborted the transaction anyway).
+        Bson filter = Filters.and(Filters.eq(ID_FIELD, document.getId()),
+                Filters.or(Filters.lte(DELTA_AT_FIELD, replacement.get(DELTA_AT_FIELD)),
+                        Filters.eq(DELTA_AT_FIELD, null)));
+        if (document.getFencingToken() != null) {
+            // a holder whose lease has been taken over must not overwrite its successor's write
+            filter = Filters.and(filter, Filters.or(Filters.lte(FENCING_TOKEN_FIELD, document.getFencingToken()),
+                    Filters.eq(FENCING_TOKEN_FIELD, null)));
+        }
+        List<Bson> update = List.of(replaceKeepingFencingToken(replacement));
+        try {
+            upsert(filter, update);
+        } catch (DuplicateKeyException firstEx) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                return false;
+            }
+            try {
+                upsert(filter, update);
+            } catch (DuplicateKeyException ex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean touchIfUnchanged(InsolvencyDocument document) {
+        return mongoTemplate.updateFirst(unchangedQuery(document), touch(document), InsolvencyDocument.class)
+                .getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean existsUnchanged(InsolvencyDocument document) {
+        return mongoTemplate.exists(unchangedQuery(document), InsolvencyDocument.class);
+    }
+
+    @Override
+    public List<InsolvencyDocument> findWriteStates(Collection<String> companyNumbers) {
+        Query query = Query.query(Criteria.where(ID_FIELD).in(companyNumbers));
+        query.fields().include(DELTA_AT_FIELD, DATA_HASH_FIELD);
+        return mongoTemplate.find(query, InsolvencyDocument.class);
+    }
+
+    @Override
+    public List<InsolvencyDocument> bulkUpsertIfNotStale(List<InsolvencyDocument> documents) {
+        if (documents.isEmpty()) {
+            return List.of();
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, InsolvencyDocument.class);
+        for (InsolvencyDocument document : documents) {
+            Document replacement = new Document();
+            mongoTemplate.getConverter().write(document, replacement);
+            Document stage = replaceKeepingFencingToken(replacement);
+            operations.upsert(notStaleQuery(document.getId(), document.getDeltaAt()),
+                    AggregationUpdate.from(List.of(context -> stage)));
+        }
+        // As for a single upsert, a stale delta_at or a concurrent first insert shows up as an
+        // _id collision. Unordered, the remaining writes still go ahead and only the failed
+        // ones are handed back.
+        try {
+            operations.execute();
+            return List.of();
+        } catch (BulkOperationException ex) {
+            return ex.getErrors().stream()
+                    .map(error -> documents.get(error.getIndex()))
+                    .toList();
+        }
+    }
+
+    @Override
+    public boolean bulkTouchIfUnchanged(List<InsolvencyDocument> documents) {
+        if (documents.isEmpty()) {
+            return true;
+        }
+        BulkOperations operations = mongoTemplate.bulkOps(BulkMode.UNORDERED, InsolvencyDocument.class);
+        for (InsolvencyDocument document : documents) {
+            operations.updateOne(unchangedQuery(document), touch(document));
+        }
+        return operations.execute().getMatchedCount() == documents.size();
+    }
+
+    @Override
+    public Optional<InsolvencyDocument> deleteIfNotStale(String companyNumber, OffsetDateTime deltaAt,
+            Long fencingToken) {
+        // the filter settles staleness, so only the data is returned for the DELETED event
+        Query query = fencingToken == null
+                ? notStaleQuery(companyNumber, deltaAt)
+                : Query.query(Criteria.where(ID_FIELD).is(companyNumber).andOperator(
+                        new Criteria().orOperator(Criteria.where(DELTA_AT_FIELD).lte(deltaAt),
+                                Criteria.where(DELTA_AT_FIELD).is(null)),
+                        new Criteria().orOperator(Criteria.where(FENCING_TOKEN_FIELD).lte(fencingToken),
+                                Criteria.where(FENCING_TOKEN_FIELD).is(null))));
+        query.fields().include(DATA_FIELD);
+        return Optional.ofNullable(mongoTemplate.findAndRemove(query, InsolvencyDocument.class));
+    }
+
+    @Override
+    public boolean isFenced(String companyNumber, long fencingToken) {
+        return mongoTemplate.exists(Query.query(Criteria.where(ID_FIELD).is(companyNumber)
+                .and(FENCING_TOKEN_FIELD).gt(fencingToken)), InsolvencyDocument.class);
+    }
+
+    private static Query notStaleQuery(String companyNumber, OffsetDateTime deltaAt) {
+        return Query.query(Criteria.where(ID_FIELD).is(companyNumber)
+                .orOperator(Criteria.where(DELTA_AT_FIELD).lte(deltaAt), Criteria.where(DELTA_AT_FIELD).is(null)));
+    }
+
+    private static Query unchangedQuery(InsolvencyDocument document) {
+        Criteria notStale = new Criteria().orOperator(Criteria.where(DELTA_AT_FIELD).lte(document.getDeltaAt()),
+                Criteria.where(DELTA_AT_FIELD).is(null));
+        Criteria criteria = Criteria.where(ID_FIELD).is(document.getId())
+                .and(DATA_HASH_FIELD).is(document.getDataHash());
+        return Query.query(document.getFencingToken() == null
+                ? criteria.andOperator(notStale)
+                : criteria.andOperator(notStale, new Criteria().orOperator(
+                        Criteria.where(FENCING_TOKEN_FIELD).lte(document.getFencingToken()),
+                        Criteria.where(FENCING_TOKEN_FIELD).is(null))));
+    }
+
+    private static Update touch(InsolvencyDocument document) {
+        Update update = new Update()
+                .set(DELTA_AT_FIELD, document.getDeltaAt())
+                .set(UPDATED_AT_FIELD, document.getUpdatedAt())
+                .set(UPDATED_BY_FIELD, document.getUpdatedBy());
+        return document.getFencingToken() == null
+                ? update
+                : update.max(FENCING_TOKEN_FIELD, document.getFencingToken());
+    }
+
+    // Replaces the stored document as a whole, except that its fencing token only moves forward,
+    // so a write made without a lease does not clear the token that keeps stale holders out. The
+    // replacement is a literal, so none of its values are read as expressions.
+    private static Document replaceKeepingFencingToken(Document replacement) {
+        Object fencingToken = replacement.remove(FENCING_TOKEN_FIELD);
+        Document keptToken = new Document("$max", Arrays.asList("$" + FENCING_TOKEN_FIELD, fencingToken));
+        return new Document("$replaceWith", new Document("$mergeObjects",
+                List.of(new Document("$literal", replacement), new Document(FENCING_TOKEN_FIELD, keptToken))));
+    }
+
+    private void upsert(Bson filter, List<Bson> update) {
+        mongoTemplate.execute(InsolvencyDocument.class, collection ->
+                collection.updateOne(filter, update, UPSERT));
+    }
+}
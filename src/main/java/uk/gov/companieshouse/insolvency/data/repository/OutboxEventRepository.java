@@ -0,0 +1,10 @@
+package uk.gov.companieshouse.insolvency.data.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import uk.gov.companieshouse.insolvency.data.model.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends MongoRepository<OutboxEvent, String>,
+        OutboxEventRepositoryExtension {
+}
@@ -0,0 +1,54 @@
+package uk.gov.companieshouse.insolvency.data.repository;
+
+import java.time.Instant;
+import java.util.List;
+import uk.gov.companieshouse.insolvency.data.model.OutboxEvent;
+
+public interface OutboxEventRepositoryExtension {
+
+    /**
+     * Find events that have not failed permanently, are due for an attempt and are not claimed,
+     * oldest first.
+     *
+     * @param limit the maximum number of events to return
+     * @param now the current time
+     * @return pending events in the order they were raised
+     */
+    List<OutboxEvent> findPending(int limit, Instant now);
+
+    /**
+     * Check whether a company has an event raised before the given one that has not been sent or
+     * failed permanently, whether or not it is due or claimed.
+     *
+     * @param event the event
+     * @return true when an earlier event is still to be sent
+     */
+    boolean hasEarlierPending(OutboxEvent event);
+
+    /**
+     * Claim an event for dispatch unless another dispatcher holds an unexpired claim on it.
+     *
+     * @param id the event id
+     * @param now the current time
+     * @param claimedUntil when the claim expires if the event is neither sent nor rescheduled
+     * @return true when the claim was taken
+     */
+    boolean claim(String id, Instant now, Instant claimedUntil);
+
+    /**
+     * Release an event after a failed attempt so that it is retried later.
+     *
+     * @param id the event id
+     * @param attempts the number of attempts made so far
+     * @param nextAttemptAt the earliest time of the next attempt
+     */
+    void scheduleRetry(String id, int attempts, Instant nextAttemptAt);
+
+    /**
+     * Stop retrying an event once it has used up its attempts.
+     *
+     * @param id the event id
+     * @param attempts the number of attempts made
+     */
+    void markFailed(String id, int attempts);
+}
@@ -0,0 +1,73 @@
+package uk.gov.companieshouse.insolvency.data.repository;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import uk.gov.companieshouse.insolvency.data.model.OutboxEvent;
+
+class OutboxEventRepositoryExtensionImpl implements OutboxEventRepositoryExtension {
+
+    private static final String ID = "id";
+    private static final String COMPANY_NUMBER = "companyNumber";
+    private static final String DELTA_AT = "deltaAt";
+    private static final String CREATED_AT = "createdAt";
+    private static final String ATTEMPTS = "attempts";
+    private static final String NEXT_ATTEMPT_AT = "nextAttemptAt";
+    private static final String CLAIMED_UNTIL = "claimedUntil";
+    private static final String FAILED = "failed";
+
+    private final MongoTemplate mongoTemplate;
+
+    OutboxEventRepositoryExtensionImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<OutboxEvent> findPending(int limit, Instant now) {
+        Query query = Query.query(Criteria.where(FAILED).ne(true).andOperator(
+                        new Criteria().orOperator(Criteria.where(NEXT_ATTEMPT_AT).is(null),
+                                Criteria.where(NEXT_ATTEMPT_AT).lte(now)),
+                        new Criteria().orOperator(Criteria.where(CLAIMED_UNTIL).is(null),
+                                Criteria.where(CLAIMED_UNTIL).lte(now))))
+                .with(Sort.by(DELTA_AT, CREATED_AT, ID))
+                .limit(limit);
+        return mongoTemplate.find(query, OutboxEvent.class);
+    }
+
+    @Override
+    public boolean hasEarlierPending(OutboxEvent event) {
+        Query query = Query.query(Criteria.where(COMPANY_NUMBER).is(event.getCompanyNumber())
+                .and(FAILED).ne(true)
+                .orOperator(Criteria.where(DELTA_AT).lt(event.getDeltaAt()),
+                        Criteria.where(DELTA_AT).is(event.getDeltaAt()).orOperator(
+                                Criteria.where(CREATED_AT).lt(event.getCreatedAt()),
+                                Criteria.where(CREATED_AT).is(event.getCreatedAt()).and(ID).lt(event.getId()))));
+        return mongoTemplate.exists(query, OutboxEvent.class);
+    }
+
+    @Override
+    public boolean claim(String id, Instant now, Instant claimedUntil) {
+        Query query = Query.query(Criteria.where(ID).is(id)
+                .orOperator(Criteria.where(CLAIMED_UNTIL).is(null), Criteria.where(CLAIMED_UNTIL).lte(now)));
+        return mongoTemplate.updateFirst(query, Update.update(CLAIMED_UNTIL, claimedUntil), OutboxEvent.class)
+                .getModifiedCount() == 1;
+    }
+
+    @Override
+    public void scheduleRetry(String id, int attempts, Instant nextAttemptAt) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where(ID).is(id)),
+                new Update().set(ATTEMPTS, attempts).set(NEXT_ATTEMPT_AT, nextAttemptAt).unset(CLAIMED_UNTIL),
+                OutboxEvent.class);
+    }
+
+    @Override
+    public void markFailed(String id, int attempts) {
+        mongoTemplate.updateFirst(Query.query(Criteria.where(ID).is(id)),
+                new Update().set(ATTEMPTS, attempts).set(FAILED, true).unset(CLAIMED_UNTIL),
+                OutboxEvent.class);
+    }
+}
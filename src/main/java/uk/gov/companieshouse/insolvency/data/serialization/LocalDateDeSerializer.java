@@ -3,12 +3,12 @@ package uk.gov.companieshouse.insolvency.data.serialization;
 import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
-import com.fasterxml.jackson.databind.JsonNode;
 import java.io.IOException;
-import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.Date;
 import uk.gov.companieshouse.insolvency.data.exceptions.InternalServerErrorException;
 import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
@@ -23,23 +23,63 @@ public class LocalDateDeSerializer extends JsonDeserializer<LocalDate> {
     @Override
     public LocalDate deserialize(JsonParser jsonParser,
                                  DeserializationContext deserializationContext) throws IOException {
-        JsonNode jsonNode = jsonParser.readValueAsTree();
+        JsonToken token = jsonParser.currentToken();
+        if (token == JsonToken.VALUE_EMBEDDED_OBJECT && jsonParser.getEmbeddedObject() instanceof Date date) {
+            return LocalDate.ofInstant(date.toInstant(), ZoneOffset.UTC);
+        }
+        String text = token == JsonToken.VALUE_STRING ? jsonParser.getText() : null;
         try {
-            JsonNode dateJsonNode = jsonNode.get("$date");
-            if (dateJsonNode == null) {
-                return DateTimeFormatter.parse(jsonNode.textValue());
-            } else if (dateJsonNode.isTextual()) {
-                var dateStr = dateJsonNode.textValue();
-                return DateTimeFormatter.parse(dateStr);
-            } else {
-                var longDate = dateJsonNode.get("$numberLong").asLong();
-                var dateStr = Instant.ofEpochMilli(new Date(longDate).getTime()).toString();
-                return DateTimeFormatter.parse(dateStr);
+            if (token == JsonToken.START_OBJECT) {
+                return readDateObject(jsonParser);
             }
+            return DateTimeFormatter.parse(text);
         } catch (Exception ex) {
-            final String msg = "Failed to deserialise LocalDate from JSON node: %s".formatted(jsonNode);
+            final String msg = "Failed to deserialise LocalDate from JSON token: %s".formatted(
+                    text != null ? text : token);
             LOGGER.info(msg, DataMapHolder.getLogMap());
             throw new InternalServerErrorException(msg, ex);
         }
     }
+
+    /**
+     * Read an extended JSON date, either {"$date": "2015-06-26T00:00:00Z"} or
+     * {"$date": {"$numberLong": "1435276800000"}}, without building a tree.
+     */
+    private static LocalDate readDateObject(JsonParser jsonParser) throws IOException {
+        LocalDate localDate = null;
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jsonParser.currentName();
+            JsonToken token = jsonParser.nextToken();
+            if ("$date".equals(fieldName) && token == JsonToken.VALUE_STRING) {
+                localDate = DateTimeFormatter.parse(jsonParser.getText());
+            } else if ("$date".equals(fieldName) && token == JsonToken.START_OBJECT) {
+                localDate = readNumberLong(jsonParser);
+            } else {
+                jsonParser.skipChildren();
+            }
+        }
+        if (localDate == null) {
+            throw new IllegalArgumentException("Missing $date");
+        }
+        return localDate;
+    }
+
+    private static LocalDate readNumberLong(JsonParser jsonParser) throws IOException {
+        LocalDate localDate = null;
+        while (jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = jsonParser.currentName();
+            JsonToken token = jsonParser.nextToken();
+            if ("$numberLong".equals(fieldName) && token == JsonToken.VALUE_STRING) {
+                localDate = DateTimeFormatter.fromEpochMilli(Long.parseLong(jsonParser.getText()));
+            } else if ("$numberLong".equals(fieldName) && token == JsonToken.VALUE_NUMBER_INT) {
+                localDate = DateTimeFormatter.fromEpochMilli(jsonParser.getLongValue());
+            } else {
+                jsonParser.skipChildren();
+            }
+        }
+        if (localDate == null) {
+            throw new IllegalArgumentException("Missing $numberLong");
+        }
+        return localDate;
+    }
 }
@@ -5,8 +5,12 @@ import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import java.io.IOException;
 import java.time.LocalDate;
-import uk.gov.companieshouse.insolvency.data.util.DateTimeFormatter;
 
+/**
+ * Passes the date through as an embedded value so that
+ * {@link uk.gov.companieshouse.insolvency.data.converter.CompanyInsolvencyCodec} can write it as a
+ * native BSON date.
+ */
 public class LocalDateSerializer extends JsonSerializer<LocalDate> {
 
     @Override
@@ -15,8 +19,7 @@ public class LocalDateSerializer extends JsonSerializer<LocalDate> {
         if (localDate == null) {
             jsonGenerator.writeNull();
         } else {
-            String format = DateTimeFormatter.format(localDate);
-            jsonGenerator.writeRawValue("ISODate(\"" + format + "\")");
+            jsonGenerator.writeEmbeddedObject(localDate);
         }
     }
 }
@@ -0,0 +1,121 @@
+package uk.gov.companieshouse.insolvency.data.serialization;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.time.LocalDate;
+import org.bson.BsonDocument;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StreamUtils;
+import uk.gov.companieshouse.insolvency.data.model.RawCompanyInsolvency;
+
+/**
+ * Transcodes stored company insolvency BSON straight into the public JSON representation.
+ *
+ * <p>The output matches what the primary object mapper produces for the bound model: field order
+ * is kept as stored, null fields are omitted and dates are written as {@code yyyy-MM-dd}.
+ */
+public class RawCompanyInsolvencyHttpMessageConverter extends AbstractHttpMessageConverter<RawCompanyInsolvency> {
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final JsonFactory jsonFactory;
+
+    public RawCompanyInsolvencyHttpMessageConverter(JsonFactory jsonFactory) {
+        super(MediaType.APPLICATION_JSON);
+        this.jsonFactory = jsonFactory;
+    }
+
+    @Override
+    protected boolean supports(@NonNull Class<?> clazz) {
+        return RawCompanyInsolvency.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    @NonNull
+    protected RawCompanyInsolvency readInternal(@NonNull Class<? extends RawCompanyInsolvency> clazz,
+            @NonNull HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Raw company insolvency cannot be read", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(@NonNull RawCompanyInsolvency rawCompanyInsolvency,
+            @NonNull HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator generator = jsonFactory.createGenerator(
+                StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            writeJson(rawCompanyInsolvency.getData(), generator);
+        }
+    }
+
+    /**
+     * Write stored company insolvency data as its public JSON representation.
+     *
+     * @param data the stored data subdocument
+     * @param generator generator positioned where the JSON object is to be written
+     * @throws IOException when the JSON cannot be written
+     */
+    public static void writeJson(BsonDocument data, JsonGenerator generator) throws IOException {
+        writeDocument(data.asBsonReader(), generator);
+    }
+
+    private static void writeDocument(BsonReader reader, JsonGenerator generator) throws IOException {
+        reader.readStartDocument();
+        generator.writeStartObject();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.getCurrentBsonType() == BsonType.NULL) {
+                reader.skipName();
+                reader.readNull();
+            } else {
+                generator.writeFieldName(reader.readName());
+                writeValue(reader, generator);
+            }
+        }
+        reader.readEndDocument();
+        generator.writeEndObject();
+    }
+
+    private static void writeValue(BsonReader reader, JsonGenerator generator) throws IOException {
+        switch (reader.getCurrentBsonType()) {
+            case DOCUMENT -> writeDocument(reader, generator);
+            case ARRAY -> {
+                reader.readStartArray();
+                generator.writeStartArray();
+                while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                    writeValue(reader, generator);
+                }
+                reader.readEndArray();
+                generator.writeEndArray();
+            }
+            case STRING -> generator.writeString(reader.readString());
+            case DATE_TIME -> generator.writeString(
+                    LocalDate.ofEpochDay(Math.floorDiv(reader.readDateTime(), MILLIS_PER_DAY)).toString());
+            case INT32 -> generator.writeNumber(reader.readInt32());
+            case INT64 -> generator.writeNumber(reader.readInt64());
+            case DOUBLE -> generator.writeNumber(reader.readDouble());
+            case DECIMAL128 -> generator.writeNumber(reader.readDecimal128().bigDecimalValue());
+            case BOOLEAN -> generator.writeBoolean(reader.readBoolean());
+            case OBJECT_ID -> generator.writeString(reader.readObjectId().toHexString());
+            case NULL -> {
+                reader.readNull();
+                generator.writeNull();
+            }
+            default -> {
+                reader.skipValue();
+                generator.writeNull();
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import uk.gov.companieshouse.api.insolvency.InternalCompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadRequestException;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.insolvency.data.model.BulkInsolvencyRecord;
+import uk.gov.companieshouse.insolvency.data.model.BulkPutResult;
+import uk.gov.companieshouse.insolvency.data.model.BulkPutStatus;
+import uk.gov.companieshouse.insolvency.data.model.BulkPutSummary;
+import uk.gov.companieshouse.insolvency.data.model.InsolvencyDocument;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Streams the multi-company requests.
+ *
+ * <p>A bulk PUT body has one {@link BulkInsolvencyRecord} per line, and one {@link BulkPutResult}
+ * per line is written back, followed by a {@link BulkPutSummary}. Lines are handed to
+ * {@link InsolvencyService#processInsolvencies(List)} in chunks, and the results of each chunk are
+ * written and flushed before the next is read. A response that ends without the summary line was
+ * cut short by a failure part way through.
+ *
+ * <p>A batch GET writes each company insolvency as it comes off the query cursor, keyed by company
+ * number, and then lists the company numbers that were not found. A read that fails part way
+ * through leaves the JSON unfinished, so a response cut short cannot be taken for a complete one.
+ */
+@Component
+public class BulkInsolvencyProcessor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final String RECOVERABLE_MONGO_EX_MSG = "Recoverable MongoDB exception";
+    private static final String NONRECOVERABLE_MONGO_EX_MSG = "Failed to access MongoDB";
+
+    private final InsolvencyService insolvencyService;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader recordReader;
+    private final ObjectWriter resultWriter;
+    private final Validator validator;
+    private final int chunkSize;
+    private final int maxCompanyNumbers;
+    private final Map<BulkPutStatus, Counter> recordCounters = new EnumMap<>(BulkPutStatus.class);
+
+    /**
+     * Bulk PUT processor.
+     *
+     * @param insolvencyService service applying the PUT rules to each chunk
+     * @param objectMapper mapper for the request and response lines
+     * @param validator validator applied to each record as to a single company PUT body
+     * @param meterRegistry registry for the per result record counters
+     * @param chunkSize number of valid records read and written together
+     * @param maxCompanyNumbers most company numbers one batch GET may ask for
+     */
+    public BulkInsolvencyProcessor(InsolvencyService insolvencyService,
+            ObjectMapper objectMapper,
+            Validator validator,
+            MeterRegistry meterRegistry,
+            @Value("${insolvency.bulk.chunk-size:500}") int chunkSize,
+            @Value("${insolvency.bulk.get.max-company-numbers:100}") int maxCompanyNumbers) {
+        this.insolvencyService = insolvencyService;
+        this.objectMapper = objectMapper;
+        this.recordReader = objectMapper.readerFor(BulkInsolvencyRecord.class);
+        this.resultWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.validator = validator;
+        this.chunkSize = chunkSize;
+        this.maxCompanyNumbers = maxCompanyNumbers;
+        for (BulkPutStatus status : BulkPutStatus.values()) {
+            recordCounters.put(status, Counter.builder("insolvency.bulk.records")
+                    .tag("result", status.getValue())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Process a bulk PUT body.
+     *
+     * @param input request body, one JSON record per line
+     * @param output response body, one JSON result per line and the summary last
+     * @return the summary written last
+     * @throws IOException when the body cannot be read or the response written
+     */
+    public BulkPutSummary process(InputStream input, OutputStream output) throws IOException {
+        long started = System.nanoTime();
+        Map<BulkPutStatus, Long> totals = new EnumMap<>(BulkPutStatus.class);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(StreamUtils.nonClosing(output))) {
+            generator.setRootValueSeparator(null);
+            List<Line> chunk = new ArrayList<>();
+            int validLines = 0;
+            long lineNumber = 0;
+            String text;
+            while ((text = reader.readLine()) != null) {
+                lineNumber++;
+                if (StringUtils.isBlank(text)) {
+                    continue;
+                }
+                Line line = readLine(lineNumber, text);
+                chunk.add(line);
+                if (line.insolvencyRecord() != null && ++validLines == chunkSize) {
+                    writeResults(chunk, generator, totals);
+                    chunk.clear();
+                    validLines = 0;
+                }
+            }
+            writeResults(chunk, generator, totals);
+
+            BulkPutSummary summary = new BulkPutSummary(totals.getOrDefault(BulkPutStatus.OK, 0L),
+                    totals.getOrDefault(BulkPutStatus.STALE, 0L), totals.getOrDefault(BulkPutStatus.INVALID, 0L),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            writeLine(generator, summary);
+            LOGGER.info("Bulk PUT processed %d records in %d ms (%.1f records/sec)".formatted(summary.getRecords(),
+                    summary.getElapsedMillis(), summary.getRecordsPerSecond()), DataMapHolder.getLogMap());
+            return summary;
+        }
+    }
+
+    /**
+     * Write the company insolvencies of many companies, read with one query.
+     *
+     * @param companyNumbers requested company numbers, duplicates and blanks ignored
+     * @param output response body of found items by company number and the missing company numbers
+     * @throws IOException when the response cannot be written
+     * @throws BadGatewayException when MongoDB fails, which may be after part of the response is written
+     */
+    public void retrieve(List<String> companyNumbers, OutputStream output) throws IOException {
+        Set<String> missing = companyNumbers.stream()
+                .filter(StringUtils::isNotBlank)
+                .map(String::trim)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (missing.isEmpty() || missing.size() > maxCompanyNumbers) {
+            LOGGER.info("Batch GET rejected with %d company numbers".formatted(missing.size()),
+                    DataMapHolder.getLogMap());
+            throw new BadRequestException(
+                    "Between 1 and %d company numbers are required".formatted(maxCompanyNumbers));
+        }
+
+        try (Stream<InsolvencyDocument> documents =
+                        insolvencyService.retrieveCompanyInsolvencies(List.copyOf(missing));
+                JsonGenerator generator = objectMapper.getFactory().createGenerator(StreamUtils.nonClosing(output))) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("items");
+            Iterator<InsolvencyDocument> found = documents.iterator();
+            while (found.hasNext()) {
+                InsolvencyDocument document = found.next();
+                missing.remove(document.getId());
+                generator.writeFieldName(document.getId());
+                resultWriter.writeValue(generator, document.getCompanyInsolvency());
+            }
+            generator.writeEndObject();
+            generator.writeArrayFieldStart("missing");
+            for (String companyNumber : missing) {
+                generator.writeString(companyNumber);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        } catch (TransientDataAccessException ex) {
+            LOGGER.info(RECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(RECOVERABLE_MONGO_EX_MSG, ex);
+        } catch (DataAccessException ex) {
+            LOGGER.error(NONRECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(NONRECOVERABLE_MONGO_EX_MSG, ex);
+        }
+        LOGGER.info("Batch GET completed with %d company numbers not found".formatted(missing.size()),
+                DataMapHolder.getLogMap());
+    }
+
+    private Line readLine(long lineNumber, String text) {
+        BulkInsolvencyRecord insolvencyRecord;
+        try {
+            insolvencyRecord = recordReader.readValue(text);
+        } catch (JsonProcessingException ex) {
+            return Line.invalid(lineNumber, null, "Malformed JSON: " + ex.getOriginalMessage());
+        }
+        String companyNumber = insolvencyRecord.getCompanyNumber();
+        if (StringUtils.isBlank(companyNumber)) {
+            return Line.invalid(lineNumber, null, "company_number is required");
+        }
+        if (insolvencyRecord.getInternalData() == null || insolvencyRecord.getInternalData().getDeltaAt() == null
+                || insolvencyRecord.getExternalData() == null) {
+            return Line.invalid(lineNumber, companyNumber, "internal_data.delta_at and external_data are required");
+        }
+        Set<ConstraintViolation<InternalCompanyInsolvency>> violations =
+                validator.validate(insolvencyRecord.toInternalCompanyInsolvency());
+        if (!violations.isEmpty()) {
+            return Line.invalid(lineNumber, companyNumber, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return new Line(lineNumber, companyNumber, insolvencyRecord, null);
+    }
+
+    private void writeResults(List<Line> chunk, JsonGenerator generator, Map<BulkPutStatus, Long> totals)
+            throws IOException {
+        List<BulkInsolvencyRecord> valid = chunk.stream()
+                .filter(line -> line.insolvencyRecord() != null)
+                .map(Line::insolvencyRecord)
+                .toList();
+        Iterator<BulkPutStatus> statuses = valid.isEmpty()
+                ? List.<BulkPutStatus>of().iterator()
+                : insolvencyService.processInsolvencies(valid).iterator();
+
+        for (Line line : chunk) {
+            BulkPutStatus status = line.insolvencyRecord() != null ? statuses.next() : BulkPutStatus.INVALID;
+            totals.merge(status, 1L, Long::sum);
+            recordCounters.get(status).increment();
+            writeLine(generator, new BulkPutResult(line.number(), line.companyNumber(), status, line.message()));
+        }
+        generator.flush();
+    }
+
+    private void writeLine(JsonGenerator generator, Object value) throws IOException {
+        resultWriter.writeValue(generator, value);
+        generator.writeRaw('\n');
+    }
+
+    private record Line(long number, String companyNumber, BulkInsolvencyRecord insolvencyRecord, String message) {
+
+        static Line invalid(long number, String companyNumber, String message) {
+            return new Line(number, companyNumber, null, message);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.insolvency.data.model.CacheResumeToken;
+import uk.gov.companieshouse.insolvency.data.repository.CacheResumeTokenRepository;
+import uk.gov.companieshouse.insolvency.data.repository.InsolvencyRepository;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Keeps this node's {@link CompanyInsolvencyCache} in step with writes made on any node by
+ * following the insolvency collection's change stream.
+ *
+ * <p>Every insert, update, replace or delete evicts that company. The position reached is saved
+ * under a node id that stays the same across restarts and replaced instances, so a new listener
+ * resumes from where the last one stopped. Its own cache starts empty, so any recent position
+ * serves it, and instances of one service can share the id. Whenever the stream has to start
+ * without a position (none saved, the oplog has moved past it, or the collection was dropped) the
+ * whole cache is flushed once the stream is open, as changes before that point can't be known.
+ *
+ * <p>It also feeds the {@link CompanyNumberBloomFilter}, which is a negative cache of its own:
+ * inserted, updated and replaced companies are added to it, and it is rebuilt whenever the cache
+ * is flushed and when the stream is first opened, so a build never misses a change made before
+ * the events it will receive.
+ */
+@Component
+@ConditionalOnExpression("${insolvency.cache.enabled:false} or ${insolvency.bloom-filter.enabled:false}")
+public class CacheInvalidationListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final String ID_FIELD = "_id";
+
+    // InvalidResumeToken, ChangeStreamFatalError and ChangeStreamHistoryLost
+    private static final Set<Integer> RESUME_TOKEN_LOST_CODES = Set.of(260, 280, 286);
+
+    private final InsolvencyRepository insolvencyRepository;
+    private final CacheResumeTokenRepository cacheResumeTokenRepository;
+    private final CompanyInsolvencyCache companyInsolvencyCache;
+    private final CompanyNumberBloomFilter companyNumberBloomFilter;
+    private final ExecutorService executor;
+    private final String nodeId;
+    private final Duration maxAwait;
+    private final Duration retryBackoff;
+    private final Duration tokenSaveInterval;
+
+    private final Counter invalidationCounter;
+    private final Counter flushCounter;
+    private final Counter errorCounter;
+
+    private volatile boolean running = true;
+    private boolean opened;
+    private BsonDocument resumeToken;
+    private BsonDocument savedResumeToken;
+    private Instant tokenSavedAt = Instant.MIN;
+
+    /**
+     * Cache invalidation listener.
+     */
+    public CacheInvalidationListener(InsolvencyRepository insolvencyRepository,
+            CacheResumeTokenRepository cacheResumeTokenRepository,
+            CompanyInsolvencyCache companyInsolvencyCache,
+            CompanyNumberBloomFilter companyNumberBloomFilter,
+            MeterRegistry meterRegistry,
+            @Value("${insolvency.cache.invalidation.node-id:insolvency-data-api}") String nodeId,
+            @Value("${insolvency.cache.invalidation.max-await:1s}") Duration maxAwait,
+            @Value("${insolvency.cache.invalidation.retry-backoff:1s}") Duration retryBackoff,
+            @Value("${insolvency.cache.invalidation.token-save-interval:1s}") Duration tokenSaveInterval) {
+        this.insolvencyRepository = insolvencyRepository;
+        this.cacheResumeTokenRepository = cacheResumeTokenRepository;
+        this.companyInsolvencyCache = companyInsolvencyCache;
+        this.companyNumberBloomFilter = companyNumberBloomFilter;
+        this.executor = Executors.newSingleThreadExecutor();
+        this.nodeId = nodeId;
+        this.maxAwait = maxAwait;
+        this.retryBackoff = retryBackoff;
+        this.tokenSaveInterval = tokenSaveInterval;
+        this.invalidationCounter = meterRegistry.counter("insolvency.cache.invalidations");
+        this.flushCounter = meterRegistry.counter("insolvency.cache.flushes");
+        this.errorCounter = meterRegistry.counter("insolvency.cache.change-stream.errors");
+    }
+
+    /**
+     * Start following the change stream once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(this::listen);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    void listen() {
+        resumeToken = loadResumeToken();
+        savedResumeToken = resumeToken;
+        while (running) {
+            try {
+                watch();
+            } catch (RuntimeException ex) {
+                if (!running) {
+                    break;
+                }
+                if (isResumeTokenLost(ex)) {
+                    LOGGER.info("Cache invalidation resume token lost, restarting change stream from now",
+                            DataMapHolder.getLogMap());
+                    resumeToken = null;
+                } else {
+                    LOGGER.error("Cache invalidation change stream failed, retrying", ex, DataMapHolder.getLogMap());
+                    errorCounter.increment();
+                    pause();
+                }
+            }
+        }
+        saveResumeToken(true);
+    }
+
+    private void watch() {
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor =
+                insolvencyRepository.watchChanges(resumeToken, maxAwait)) {
+            if (resumeToken == null) {
+                flush();
+            } else if (!opened) {
+                // changes since the saved token will be replayed, so a build from here on misses none
+                companyNumberBloomFilter.requestRebuild();
+            }
+            opened = true;
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null && change.getOperationType() == OperationType.INVALIDATE) {
+                    // the collection was dropped or renamed and the stream has ended
+                    resumeToken = null;
+                    return;
+                }
+                if (change != null) {
+                    apply(change);
+                }
+                // advances past empty polls too, so an idle collection doesn't age the saved token
+                if (cursor.getResumeToken() != null) {
+                    resumeToken = cursor.getResumeToken();
+                }
+                saveResumeToken(false);
+            }
+        }
+    }
+
+    private void apply(ChangeStreamDocument<Document> change) {
+        BsonValue id = change.getDocumentKey() != null ? change.getDocumentKey().get(ID_FIELD) : null;
+        switch (change.getOperationType()) {
+            case INSERT, UPDATE, REPLACE, DELETE -> {
+                if (id != null && id.isString()) {
+                    if (change.getOperationType() != OperationType.DELETE) {
+                        companyNumberBloomFilter.add(id.asString().getValue());
+                    }
+                    companyInsolvencyCache.invalidate(id.asString().getValue());
+                    invalidationCounter.increment();
+                } else {
+                    flush();
+                }
+            }
+            default -> flush();
+        }
+    }
+
+    private void flush() {
+        companyInsolvencyCache.invalidateAll();
+        companyNumberBloomFilter.requestRebuild();
+        flushCounter.increment();
+    }
+
+    private BsonDocument loadResumeToken() {
+        try {
+            return cacheResumeTokenRepository.findById(nodeId)
+                    .map(token -> BsonDocument.parse(token.getResumeToken()))
+                    .orElse(null);
+        } catch (DataAccessException ex) {
+            LOGGER.info("Failed to load cache invalidation resume token", DataMapHolder.getLogMap());
+            return null;
+        }
+    }
+
+    private void saveResumeToken(boolean force) {
+        Instant now = Instant.now();
+        if (resumeToken == null || resumeToken.equals(savedResumeToken)
+                || !force && now.isBefore(tokenSavedAt.plus(tokenSaveInterval))) {
+            return;
+        }
+        try {
+            cacheResumeTokenRepository.save(new CacheResumeToken(nodeId, resumeToken.toJson(), now));
+            savedResumeToken = resumeToken;
+            tokenSavedAt = now;
+        } catch (DataAccessException ex) {
+            LOGGER.info("Failed to save cache invalidation resume token", DataMapHolder.getLogMap());
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(retryBackoff.toMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private static boolean isResumeTokenLost(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException
+                    && RESUME_TOKEN_LOST_CODES.contains(mongoException.getCode())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,28 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import java.time.OffsetDateTime;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.api.InsolvencyApiService;
+import uk.gov.companieshouse.insolvency.data.common.EventType;
+
+/**
+ * Calls chs-kafka-api as part of the request, so a failed call fails the request.
+ */
+@Component
+@ConditionalOnProperty(name = "insolvency.outbox.enabled", havingValue = "false", matchIfMissing = true)
+public class ChsKafkaResourceChangedPublisher implements ResourceChangedPublisher {
+
+    private final InsolvencyApiService insolvencyApiService;
+
+    public ChsKafkaResourceChangedPublisher(InsolvencyApiService insolvencyApiService) {
+        this.insolvencyApiService = insolvencyApiService;
+    }
+
+    @Override
+    public void publish(String companyNumber, CompanyInsolvency companyInsolvency, EventType eventType,
+            OffsetDateTime deltaAt) {
+        insolvencyApiService.invokeChsKafkaApi(companyNumber, companyInsolvency, eventType);
+    }
+}
@@ -0,0 +1,135 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+
+/**
+ * In-process read-through cache of company insolvency data by company number.
+ *
+ * <p>Found and not found results share one size bound but expire separately, so a 404 is only
+ * remembered for the shorter negative TTL. Loads run inside the cache's per-key computation, which
+ * makes an invalidation wait for a load in flight and then discard it, so a write followed by
+ * {@link #invalidate(String)} is never shadowed by a read that started before it.
+ */
+@Component
+public class CompanyInsolvencyCache {
+
+    static final String CACHE_NAME = "company-insolvency";
+
+    private final boolean enabled;
+    private final Cache<String, Optional<CompanyInsolvency>> cache;
+
+    /**
+     * Company insolvency cache.
+     */
+    public CompanyInsolvencyCache(MeterRegistry meterRegistry,
+            @Value("${insolvency.cache.enabled:false}") boolean enabled,
+            @Value("${insolvency.cache.maximum-size:10000}") long maximumSize,
+            @Value("${insolvency.cache.ttl:60s}") Duration ttl,
+            @Value("${insolvency.cache.negative-ttl:5s}") Duration negativeTtl) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new FoundOrNotFoundExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+        if (enabled) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Get the company insolvency data, loading and caching it on a miss.
+     *
+     * @param companyNumber the company number
+     * @param loader reads the company insolvency data from MongoDB
+     * @return the company insolvency data, or empty when there is none
+     */
+    public Optional<CompanyInsolvency> get(String companyNumber,
+            Function<String, Optional<CompanyInsolvency>> loader) {
+        return enabled ? cache.get(companyNumber, loader) : loader.apply(companyNumber);
+    }
+
+    /**
+     * Get the company insolvency data only when it is already cached, without loading it or
+     * counting towards the hit and miss statistics.
+     *
+     * @param companyNumber the company number
+     * @return the cached company insolvency data, or empty when not cached or cached as not found
+     */
+    public Optional<CompanyInsolvency> getIfPresent(String companyNumber) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Optional<CompanyInsolvency> cached = cache.policy().getIfPresentQuietly(companyNumber);
+        return cached != null ? cached : Optional.empty();
+    }
+
+    /**
+     * Forget the company insolvency data after it has been written or deleted.
+     *
+     * @param companyNumber the company number
+     */
+    public void invalidate(String companyNumber) {
+        if (enabled) {
+            cache.invalidate(companyNumber);
+        }
+    }
+
+    /**
+     * Forget the company insolvency data of several companies.
+     *
+     * @param companyNumbers the company numbers
+     */
+    public void invalidateAll(Collection<String> companyNumbers) {
+        if (enabled) {
+            cache.invalidateAll(companyNumbers);
+        }
+    }
+
+    /**
+     * Forget every company's insolvency data, when the changes made elsewhere can't be known.
+     */
+    public void invalidateAll() {
+        if (enabled) {
+            cache.invalidateAll();
+        }
+    }
+
+    private record FoundOrNotFoundExpiry(long ttlNanos, long negativeTtlNanos)
+            implements Expiry<String, Optional<CompanyInsolvency>> {
+
+        @Override
+        public long expireAfterCreate(@NonNull String key, @NonNull Optional<CompanyInsolvency> value,
+                long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(@NonNull String key, @NonNull Optional<CompanyInsolvency> value,
+                long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(@NonNull String key, @NonNull Optional<CompanyInsolvency> value,
+                long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.insolvency.data.model.InsolvencyDocument;
+import uk.gov.companieshouse.insolvency.data.repository.InsolvencyRepository;
+
+/**
+ * Gathers the single company reads made within a short window into one $in query, in the manner
+ * of a DataLoader, to cut the command rate and connection pool use under peak GET load.
+ *
+ * <p>The first read of a batch waits for the window to pass, or for the batch to fill, then runs
+ * the query on its own thread and hands each waiting read its document. No thread of its own is
+ * needed, and a batch that fills early is sent at once. Reads for different replica set members
+ * are batched apart, and any failure of the query is thrown to every read in the batch.
+ */
+@Component
+public class CompanyInsolvencyReadBatcher {
+
+    private final InsolvencyRepository insolvencyRepository;
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxSize;
+    private final Map<ReadPreference, Batch> pending = new HashMap<>();
+
+    private final DistributionSummary batchSizeSummary;
+    private final Counter queryCounter;
+
+    /**
+     * Company insolvency read batcher.
+     */
+    public CompanyInsolvencyReadBatcher(InsolvencyRepository insolvencyRepository,
+            MeterRegistry meterRegistry,
+            @Value("${insolvency.get.batching.enabled:false}") boolean enabled,
+            @Value("${insolvency.get.batching.window:2ms}") Duration window,
+            @Value("${insolvency.get.batching.max-size:100}") int maxSize) {
+        this.insolvencyRepository = insolvencyRepository;
+        this.enabled = enabled;
+        this.window = window;
+        this.maxSize = maxSize;
+        this.batchSizeSummary = DistributionSummary.builder("insolvency.get.batch.size")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.queryCounter = meterRegistry.counter("insolvency.get.batch.queries");
+    }
+
+    /**
+     * Find the data of a company insolvency, batched with the reads made around the same time.
+     *
+     * @param companyNumber the company number
+     * @param readPreference replica set members the read may go to
+     * @return the document, or empty when there is none
+     */
+    public Optional<InsolvencyDocument> findDataById(String companyNumber, ReadPreference readPreference) {
+        if (!enabled) {
+            return insolvencyRepository.findDataById(companyNumber, readPreference, null);
+        }
+        Batch batch;
+        CompletableFuture<Optional<InsolvencyDocument>> result;
+        boolean first = false;
+        synchronized (pending) {
+            batch = pending.get(readPreference);
+            if (batch == null) {
+                batch = new Batch(readPreference);
+                pending.put(readPreference, batch);
+                first = true;
+            }
+            result = batch.reads.computeIfAbsent(companyNumber, id -> new CompletableFuture<>());
+            if (batch.reads.size() >= maxSize) {
+                pending.remove(readPreference);
+                batch.full.countDown();
+            }
+        }
+        if (first) {
+            awaitWindow(batch);
+            synchronized (pending) {
+                pending.remove(readPreference, batch);
+            }
+            dispatch(batch);
+        }
+        return await(result);
+    }
+
+    private void awaitWindow(Batch batch) {
+        try {
+            batch.full.await(window.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            // send the batch now rather than strand the reads waiting on it
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // only called once the batch is out of pending, so no read can join it any more
+    private void dispatch(Batch batch) {
+        batchSizeSummary.record(batch.reads.size());
+        queryCounter.increment();
+        try {
+            Map<String, InsolvencyDocument> found = insolvencyRepository
+                    .findDataByIdIn(batch.reads.keySet(), batch.readPreference)
+                    .stream()
+                    .collect(Collectors.toMap(InsolvencyDocument::getId, Function.identity()));
+            batch.reads.forEach((id, read) -> read.complete(Optional.ofNullable(found.get(id))));
+        } catch (RuntimeException | Error ex) {
+            batch.reads.values().forEach(read -> read.completeExceptionally(ex));
+            if (ex instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    private static Optional<InsolvencyDocument> await(CompletableFuture<Optional<InsolvencyDocument>> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for batched company insolvency read", ex);
+        }
+    }
+
+    private static final class Batch {
+
+        private final ReadPreference readPreference;
+        private final Map<String, CompletableFuture<Optional<InsolvencyDocument>>> reads = new LinkedHashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+
+        private Batch(ReadPreference readPreference) {
+            this.readPreference = readPreference;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+
+/**
+ * Lets concurrent GETs for the same company share one read and its decoded result.
+ *
+ * <p>The first caller for a company reads on its own thread; callers arriving while that read is
+ * in flight wait for its result, or its exception, for at most the timeout and then read for
+ * themselves. A write calls {@link #forget(String)} once committed, so a GET sent after the write
+ * has been answered never joins a read that started before it.
+ */
+@Component
+public class CompanyInsolvencyReadCoalescer {
+
+    private final boolean enabled;
+    private final Duration timeout;
+    private final ConcurrentMap<String, CompletableFuture<Optional<CompanyInsolvency>>> inFlight =
+            new ConcurrentHashMap<>();
+
+    private final Counter leaderCounter;
+    private final Counter followerCounter;
+    private final Counter timeoutCounter;
+
+    /**
+     * Company insolvency read coalescer.
+     */
+    public CompanyInsolvencyReadCoalescer(MeterRegistry meterRegistry,
+            @Value("${insolvency.get.coalescing.enabled:false}") boolean enabled,
+            @Value("${insolvency.get.coalescing.timeout:500ms}") Duration timeout) {
+        this.enabled = enabled;
+        this.timeout = timeout;
+        this.leaderCounter = meterRegistry.counter("insolvency.get.coalescing", "result", "leader");
+        this.followerCounter = meterRegistry.counter("insolvency.get.coalescing", "result", "follower");
+        this.timeoutCounter = meterRegistry.counter("insolvency.get.coalescing", "result", "timeout");
+    }
+
+    /**
+     * Read the company insolvency data, sharing a read already in flight for the company.
+     *
+     * @param companyNumber the company number
+     * @param loader reads the company insolvency data
+     * @return the company insolvency data, or empty when there is none
+     */
+    public Optional<CompanyInsolvency> load(String companyNumber,
+            Function<String, Optional<CompanyInsolvency>> loader) {
+        if (!enabled) {
+            return loader.apply(companyNumber);
+        }
+        CompletableFuture<Optional<CompanyInsolvency>> flight = new CompletableFuture<>();
+        CompletableFuture<Optional<CompanyInsolvency>> leader = inFlight.putIfAbsent(companyNumber, flight);
+        if (leader == null) {
+            leaderCounter.increment();
+            try {
+                Optional<CompanyInsolvency> companyInsolvency = loader.apply(companyNumber);
+                flight.complete(companyInsolvency);
+                return companyInsolvency;
+            } catch (RuntimeException ex) {
+                flight.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(companyNumber, flight);
+            }
+        }
+        try {
+            Optional<CompanyInsolvency> companyInsolvency = leader.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            followerCounter.increment();
+            return companyInsolvency;
+        } catch (TimeoutException ex) {
+            timeoutCounter.increment();
+            return loader.apply(companyNumber);
+        } catch (ExecutionException ex) {
+            followerCounter.increment();
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for company insolvency read", ex);
+        }
+    }
+
+    /**
+     * Stop sharing the read in flight for the company, after the company has been written.
+     *
+     * @param companyNumber the company number
+     */
+    public void forget(String companyNumber) {
+        if (enabled) {
+            inFlight.remove(companyNumber);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.insolvency.data.repository.CompanyLeaseRepository;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Leases stored in MongoDB that order the PUTs and DELETEs of one company across every instance.
+ *
+ * <p>A write runs only while its instance holds the company's lease, and carries the lease's
+ * fencing token into the write's filter. A holder that stalls past the lease's TTL loses the lease
+ * to the next writer, and its own write then matches nothing rather than overwriting the newer
+ * one. Such a write reports {@link LeaseLostException}, and is run again under a new lease, where
+ * only the delta_at decides whether it still applies. Uncontended, a lease costs one round trip
+ * to take and one to release.
+ */
+@Component
+public class CompanyLeases {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final String RECOVERABLE_MONGO_EX_MSG = "Recoverable MongoDB exception";
+    private static final String NONRECOVERABLE_MONGO_EX_MSG = "Failed to access MongoDB";
+    private static final String LEASE_HELD_MSG = "Insolvency not persisted - company lease held elsewhere";
+    private static final String LEASE_LOST_MSG = "Insolvency not persisted - company lease repeatedly lost";
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long MAX_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final CompanyLeaseRepository companyLeaseRepository;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration acquireTimeout;
+    private final Duration retryInterval;
+
+    private final Timer acquiredTimer;
+    private final Timer timedOutTimer;
+    private final Counter contendedCounter;
+    private final Counter lostCounter;
+
+    /**
+     * Company leases.
+     */
+    public CompanyLeases(CompanyLeaseRepository companyLeaseRepository, MeterRegistry meterRegistry,
+            @Value("${insolvency.lease.enabled:false}") boolean enabled,
+            @Value("${insolvency.lease.ttl:10s}") Duration ttl,
+            @Value("${insolvency.lease.acquire-timeout:2s}") Duration acquireTimeout,
+            @Value("${insolvency.lease.retry-interval:5ms}") Duration retryInterval) {
+        this.companyLeaseRepository = companyLeaseRepository;
+        this.enabled = enabled;
+        this.ttl = ttl;
+        this.acquireTimeout = acquireTimeout;
+        this.retryInterval = retryInterval;
+        this.acquiredTimer = Timer.builder("insolvency.lease.acquire")
+                .tag("result", "acquired")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.timedOutTimer = Timer.builder("insolvency.lease.acquire")
+                .tag("result", "timeout")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.contendedCounter = meterRegistry.counter("insolvency.lease.contended");
+        this.lostCounter = meterRegistry.counter("insolvency.lease.lost");
+    }
+
+    /**
+     * Run the write while holding the company's lease.
+     *
+     * @param companyNumber the company number
+     * @param write applies the write, given the fencing token of the lease, or null when leases are
+     *              disabled; throws {@link LeaseLostException} when fenced off
+     * @throws BadGatewayException when the lease could not be taken in time, was lost on every
+     *                             attempt, or MongoDB failed
+     */
+    public void run(String companyNumber, Consumer<Long> write) {
+        if (!enabled) {
+            write.accept(null);
+            return;
+        }
+        for (int attempt = 1; ; attempt++) {
+            long token = acquire(companyNumber);
+            try {
+                write.accept(token);
+                return;
+            } catch (LeaseLostException ex) {
+                lostCounter.increment();
+                LOGGER.info("Company lease taken over during write - attempt %d".formatted(attempt),
+                        DataMapHolder.getLogMap());
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw new BadGatewayException(LEASE_LOST_MSG, ex);
+                }
+            } finally {
+                release(companyNumber, token);
+            }
+        }
+    }
+
+    private long acquire(String companyNumber) {
+        String holder = UUID.randomUUID().toString();
+        long started = System.nanoTime();
+        long deadline = started + acquireTimeout.toNanos();
+        long backoff = retryInterval.toNanos();
+        try {
+            OptionalLong token = companyLeaseRepository.acquire(companyNumber, holder, ttl);
+            if (token.isEmpty()) {
+                contendedCounter.increment();
+            }
+            while (token.isEmpty()) {
+                if (System.nanoTime() + backoff > deadline) {
+                    timedOutTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    LOGGER.info(LEASE_HELD_MSG, DataMapHolder.getLogMap());
+                    throw new BadGatewayException(LEASE_HELD_MSG, null);
+                }
+                TimeUnit.NANOSECONDS.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_RETRY_NANOS);
+                token = companyLeaseRepository.acquire(companyNumber, holder, ttl);
+            }
+            acquiredTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return token.getAsLong();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BadGatewayException(LEASE_HELD_MSG, ex);
+        } catch (TransientDataAccessException ex) {
+            LOGGER.info(RECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(RECOVERABLE_MONGO_EX_MSG, ex);
+        } catch (DataAccessException ex) {
+            LOGGER.error(NONRECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(NONRECOVERABLE_MONGO_EX_MSG, ex);
+        }
+    }
+
+    // the write has already been answered for, so a lease left behind just runs out its TTL
+    private void release(String companyNumber, long token) {
+        try {
+            companyLeaseRepository.release(companyNumber, token);
+        } catch (DataAccessException ex) {
+            LOGGER.info("Company lease not released - left to expire", DataMapHolder.getLogMap());
+        }
+    }
+
+    /**
+     * Thrown by a write whose fencing token has been overtaken by a later lease's write, so that
+     * it is run again under a new lease rather than answered as stale.
+     */
+    public static class LeaseLostException extends RuntimeException {
+
+        public LeaseLostException() {
+            super("Company lease taken over by a later holder");
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.insolvency.data.repository.InsolvencyRepository;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Bloom filter of the company numbers that have an insolvency document, so a GET for a company
+ * with none can be answered 404 without reading MongoDB.
+ *
+ * <p>It never answers "absent" for a stored company: until a build has completed, and from the
+ * moment a rebuild is requested after changes may have been missed, every company is reported
+ * as possibly present. Companies are added before they are written locally and again when the
+ * {@link CacheInvalidationListener} sees them inserted on any node. A rebuild collects the adds
+ * made while it runs and only starts reading the collection after a grace period, so a write
+ * added just before the rebuild began has committed by the time its company's _id is read. A
+ * rebuild that another request has overtaken while it ran is discarded, as it may have missed
+ * the changes that request was made for; the rebuild that request queued takes its place.
+ * Deleted companies can't be removed from a Bloom filter, so the filter is rebuilt periodically
+ * to shed them.
+ */
+@Component
+public class CompanyNumberBloomFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final int MAX_PACKED_LENGTH = 10;
+
+    private final InsolvencyRepository insolvencyRepository;
+    private final boolean enabled;
+    private final long bitCount;
+    private final int hashCount;
+    private final Duration rebuildGrace;
+    private final int batchSize;
+    private final ScheduledExecutorService executor;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final Object publishLock = new Object();
+
+    private final Counter absentCounter;
+    private final Counter presentCounter;
+    private final Counter falsePositiveCounter;
+    private final Timer rebuildTimer;
+
+    private volatile Bits current;
+    private volatile Bits building;
+    private volatile boolean ready;
+    private long generation;
+
+    /**
+     * Company number Bloom filter.
+     */
+    public CompanyNumberBloomFilter(InsolvencyRepository insolvencyRepository,
+            MeterRegistry meterRegistry,
+            @Value("${insolvency.bloom-filter.enabled:false}") boolean enabled,
+            @Value("${insolvency.bloom-filter.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${insolvency.bloom-filter.false-positive-probability:0.01}") double falsePositiveProbability,
+            @Value("${insolvency.bloom-filter.rebuild-interval:6h}") Duration rebuildInterval,
+            @Value("${insolvency.bloom-filter.rebuild-grace:10s}") Duration rebuildGrace,
+            @Value("${insolvency.bloom-filter.batch-size:10000}") int batchSize) {
+        this.insolvencyRepository = insolvencyRepository;
+        this.enabled = enabled;
+        this.bitCount = Math.max(Long.SIZE, (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2))));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.rebuildGrace = rebuildGrace;
+        this.batchSize = batchSize;
+        this.executor = Executors.newSingleThreadScheduledExecutor();
+        this.current = new Bits(bitCount, hashCount);
+
+        this.absentCounter = meterRegistry.counter("insolvency.bloom-filter.lookups", "result", "absent");
+        this.presentCounter = meterRegistry.counter("insolvency.bloom-filter.lookups", "result", "present");
+        this.falsePositiveCounter = meterRegistry.counter("insolvency.bloom-filter.false-positives");
+        this.rebuildTimer = meterRegistry.timer("insolvency.bloom-filter.rebuild");
+        Gauge.builder("insolvency.bloom-filter.expected-fpp", () -> current.expectedFalsePositiveProbability())
+                .register(meterRegistry);
+        Gauge.builder("insolvency.bloom-filter.ready", () -> ready ? 1 : 0).register(meterRegistry);
+
+        if (enabled) {
+            executor.scheduleWithFixedDelay(this::requestRebuild, rebuildInterval.toMillis(),
+                    rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Whether the company may have an insolvency document. False means it definitely has none.
+     *
+     * @param companyNumber the company number
+     * @return false only when the company is known not to be stored
+     */
+    public boolean mightContain(String companyNumber) {
+        if (!enabled || !ready) {
+            return true;
+        }
+        boolean present = current.mightContain(encode(companyNumber));
+        (present ? presentCounter : absentCounter).increment();
+        return present;
+    }
+
+    /**
+     * Record that the company has, or is about to have, an insolvency document.
+     *
+     * @param companyNumber the company number
+     */
+    public void add(String companyNumber) {
+        if (!enabled) {
+            return;
+        }
+        long key = encode(companyNumber);
+        current.put(key);
+        Bits next = building;
+        if (next != null) {
+            next.put(key);
+        }
+    }
+
+    /**
+     * Record that a company the filter reported as possibly present had no document.
+     */
+    public void recordFalsePositive() {
+        if (enabled && ready) {
+            falsePositiveCounter.increment();
+        }
+    }
+
+    /**
+     * Stop answering "absent" and rebuild the filter from the collection, for when changes may
+     * have been missed. Requests made while a rebuild is already queued share it.
+     */
+    public void requestRebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (publishLock) {
+            generation++;
+            ready = false;
+        }
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        executor.execute(() -> {
+            rebuildPending.set(false);
+            rebuild();
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void rebuild() {
+        long started;
+        synchronized (publishLock) {
+            started = generation;
+        }
+        Bits next = new Bits(bitCount, hashCount);
+        building = next;
+        try {
+            Thread.sleep(rebuildGrace.toMillis());
+            rebuildTimer.record(() -> insolvencyRepository.forEachCompanyNumber(batchSize,
+                    companyNumber -> next.put(encode(companyNumber))));
+            synchronized (publishLock) {
+                if (generation != started) {
+                    LOGGER.info("Company number Bloom filter rebuild overtaken by a newer request",
+                            DataMapHolder.getLogMap());
+                    return;
+                }
+                current = next;
+                ready = true;
+            }
+            LOGGER.info("Company number Bloom filter rebuilt", DataMapHolder.getLogMap());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            LOGGER.error("Failed to rebuild company number Bloom filter", ex, DataMapHolder.getLogMap());
+        } finally {
+            building = null;
+        }
+    }
+
+    // company numbers are short runs of digits and capitals, packed 6 bits a character with no
+    // collisions; anything else falls back to a string hash, which only adds false positives
+    static long encode(String companyNumber) {
+        if (companyNumber.length() <= MAX_PACKED_LENGTH) {
+            long packed = 0;
+            for (int i = 0; i < companyNumber.length(); i++) {
+                char c = companyNumber.charAt(i);
+                int digit;
+                if (c >= '0' && c <= '9') {
+                    digit = c - '0' + 1;
+                } else if (c >= 'A' && c <= 'Z') {
+                    digit = c - 'A' + 11;
+                } else {
+                    return companyNumber.hashCode() * GOLDEN_GAMMA;
+                }
+                packed = packed << 6 | digit;
+            }
+            return packed;
+        }
+        return companyNumber.hashCode() * GOLDEN_GAMMA;
+    }
+
+    /**
+     * The bits of one filter, set without locking by compare-and-set on 64-bit words. Probes are
+     * derived from two mixes of the encoded company number by double hashing.
+     */
+    static final class Bits {
+
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+        private final AtomicLong bitsSet = new AtomicLong();
+
+        Bits(long size, int hashes) {
+            this.words = new AtomicLongArray((int) ((size + Long.SIZE - 1) / Long.SIZE));
+            this.size = size;
+            this.hashes = hashes;
+        }
+
+        void put(long key) {
+            long hash1 = mix(key);
+            long hash2 = mix(key ^ GOLDEN_GAMMA) | 1;
+            for (int i = 0; i < hashes; i++) {
+                set(Math.floorMod(hash1 + i * hash2, size));
+            }
+        }
+
+        boolean mightContain(long key) {
+            long hash1 = mix(key);
+            long hash2 = mix(key ^ GOLDEN_GAMMA) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(hash1 + i * hash2, size);
+                if ((words.get((int) (bit >>> 6)) & 1L << bit) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double expectedFalsePositiveProbability() {
+            return Math.pow((double) bitsSet.get() / size, hashes);
+        }
+
+        private void set(long bit) {
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word;
+            do {
+                word = words.get(index);
+                if ((word & mask) != 0) {
+                    return;
+                }
+            } while (!words.compareAndSet(index, word, word | mask));
+            bitsSet.incrementAndGet();
+        }
+
+        // MurmurHash3 64-bit finaliser
+        static long mix(long value) {
+            long hash = value;
+            hash ^= hash >>> 33;
+            hash *= 0xFF51AFD7ED558CCDL;
+            hash ^= hash >>> 33;
+            hash *= 0xC4CEB9FE1A85EC53L;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Striped locks that serialise the PUTs and DELETEs of one company on this instance, while
+ * companies on different stripes write in parallel.
+ *
+ * <p>A company always maps to the same stripe, so two companies sharing a stripe also wait for
+ * each other; more stripes make that rarer at the cost of memory only. An uncontended lock is
+ * taken with a single compare-and-set and records nothing. A contended one counts against its
+ * stripe and records how long it waited.
+ */
+@Component
+public class CompanyWriteLocks {
+
+    private final boolean enabled;
+    private final ReentrantLock[] stripes;
+    private final Counter[] contendedCounters;
+    private final Timer waitTimer;
+
+    /**
+     * Company write locks.
+     */
+    public CompanyWriteLocks(MeterRegistry meterRegistry,
+            @Value("${insolvency.write.locks.enabled:false}") boolean enabled,
+            @Value("${insolvency.write.locks.stripes:64}") int stripeCount) {
+        this.enabled = enabled;
+        this.stripes = new ReentrantLock[stripeCount];
+        this.contendedCounters = new Counter[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+            if (enabled) {
+                contendedCounters[i] = meterRegistry.counter("insolvency.write.lock.contended",
+                        "stripe", String.valueOf(i));
+            }
+        }
+        this.waitTimer = meterRegistry.timer("insolvency.write.lock.wait");
+    }
+
+    /**
+     * Run the write while holding the company's stripe.
+     *
+     * @param companyNumber the company number
+     * @param write the write to run
+     */
+    public void run(String companyNumber, Runnable write) {
+        if (!enabled) {
+            write.run();
+            return;
+        }
+        int stripe = stripe(companyNumber);
+        ReentrantLock lock = stripes[stripe];
+        if (!lock.tryLock()) {
+            contendedCounters[stripe].increment();
+            long started = System.nanoTime();
+            lock.lock();
+            waitTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+        try {
+            write.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int stripe(String companyNumber) {
+        int hash = companyNumber.hashCode();
+        return Math.floorMod(hash ^ hash >>> 16, stripes.length);
+    }
+}
@@ -0,0 +1,121 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.insolvency.data.repository.InsolvencyRepository;
+import uk.gov.companieshouse.insolvency.data.serialization.RawCompanyInsolvencyHttpMessageConverter;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Writes the whole insolvency collection as NDJSON, one company per line in company number order.
+ *
+ * <p>Documents are transcoded from the cursor's raw BSON straight to the response, and the next
+ * cursor batch is only fetched once the previous one has been written, so memory use does not grow
+ * with the collection and a slow client slows the read down. An export that breaks can be resumed
+ * from the company_number of the last complete line.
+ */
+@Component
+public class InsolvencyExporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final String RECOVERABLE_MONGO_EX_MSG = "Recoverable MongoDB exception";
+    private static final String NONRECOVERABLE_MONGO_EX_MSG = "Failed to access MongoDB";
+
+    private final InsolvencyRepository insolvencyRepository;
+    private final JsonFactory jsonFactory;
+    private final int batchSize;
+
+    /**
+     * Insolvency collection exporter.
+     *
+     * @param insolvencyRepository mongodb repository
+     * @param objectMapper mapper whose factory creates the response generator
+     * @param batchSize number of documents fetched per cursor batch and written between flushes
+     */
+    public InsolvencyExporter(InsolvencyRepository insolvencyRepository,
+            ObjectMapper objectMapper,
+            @Value("${insolvency.export.batch-size:1000}") int batchSize) {
+        this.insolvencyRepository = insolvencyRepository;
+        this.jsonFactory = objectMapper.getFactory();
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Export company insolvencies.
+     *
+     * @param afterCompanyNumber resume after this company number, or export everything when null
+     * @param output response body, one JSON object per line
+     * @throws IOException when the response cannot be written
+     */
+    public void export(String afterCompanyNumber, OutputStream output) throws IOException {
+        long started = System.nanoTime();
+        long[] exported = {0};
+        String[] lastCompanyNumber = {afterCompanyNumber};
+        try (JsonGenerator generator = jsonFactory.createGenerator(StreamUtils.nonClosing(output))) {
+            generator.setRootValueSeparator(null);
+            insolvencyRepository.forEachAfter(afterCompanyNumber, batchSize, document -> {
+                try {
+                    lastCompanyNumber[0] = writeLine(document, generator);
+                    if (++exported[0] % batchSize == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            LOGGER.info("Export stopped after %d documents, last company number %s"
+                    .formatted(exported[0], lastCompanyNumber[0]), DataMapHolder.getLogMap());
+            throw ex.getCause();
+        } catch (TransientDataAccessException ex) {
+            LOGGER.info(RECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(RECOVERABLE_MONGO_EX_MSG, ex);
+        } catch (DataAccessException ex) {
+            LOGGER.error(NONRECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(NONRECOVERABLE_MONGO_EX_MSG, ex);
+        }
+        LOGGER.info("Exported %d documents in %d ms, last company number %s".formatted(exported[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), lastCompanyNumber[0]),
+                DataMapHolder.getLogMap());
+    }
+
+    private static String writeLine(RawBsonDocument document, JsonGenerator generator) throws IOException {
+        String companyNumber = document.getString("_id").getValue();
+        generator.writeStartObject();
+        generator.writeStringField("company_number", companyNumber);
+        writeInstant("delta_at", document.get("delta_at"), generator);
+        writeInstant("updated_at", document.get("updated_at"), generator);
+        BsonValue data = document.get("data");
+        if (data != null && data.isDocument()) {
+            generator.writeFieldName("data");
+            RawCompanyInsolvencyHttpMessageConverter.writeJson(data.asDocument(), generator);
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        return companyNumber;
+    }
+
+    private static void writeInstant(String name, BsonValue value, JsonGenerator generator) throws IOException {
+        if (value != null && value.isDateTime()) {
+            generator.writeStringField(name, Instant.ofEpochMilli(value.asDateTime().getValue()).toString());
+        }
+    }
+}
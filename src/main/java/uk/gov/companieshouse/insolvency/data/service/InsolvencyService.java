@@ -1,7 +1,16 @@
 package uk.gov.companieshouse.insolvency.data.service;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
 import uk.gov.companieshouse.api.insolvency.InternalCompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.model.BulkInsolvencyRecord;
+import uk.gov.companieshouse.insolvency.data.model.BulkPutStatus;
+import uk.gov.companieshouse.insolvency.data.model.CausalConsistencyToken;
+import uk.gov.companieshouse.insolvency.data.model.InsolvencyDocument;
+import uk.gov.companieshouse.insolvency.data.model.RawCompanyInsolvency;
 
 public interface InsolvencyService {
 
@@ -15,7 +24,64 @@ public interface InsolvencyService {
      */
     void processInsolvency(String companyNumber, InternalCompanyInsolvency companyInsolvency);
 
+    /**
+     * Processing a chunk of company insolvencies with the same rules as
+     * {@link #processInsolvency(String, InternalCompanyInsolvency)}, reading the stored state with
+     * one query and writing with one bulk write.
+     *
+     * @param records validated company insolvencies with their company numbers
+     * @return {@link BulkPutStatus#OK} or {@link BulkPutStatus#STALE} for each record, in order
+     */
+    List<BulkPutStatus> processInsolvencies(List<BulkInsolvencyRecord> records);
+
     CompanyInsolvency retrieveCompanyInsolvency(String companyNumber);
 
+    /**
+     * Retrieve the company insolvency from whichever member the GET read preference allows, once
+     * that member has caught up with the point the token was taken at.
+     *
+     * @param companyNumber company number
+     * @param after token from an earlier write, or null to read as {@link #retrieveCompanyInsolvency(String)}
+     * @return company insolvency information
+     */
+    CompanyInsolvency retrieveCompanyInsolvency(String companyNumber, CausalConsistencyToken after);
+
+    /**
+     * Take a token to return with a write, so the writer can read its own write from a
+     * secondary.
+     *
+     * @return the token, or empty when GETs read the primary and so never need one
+     */
+    Optional<CausalConsistencyToken> causalConsistencyToken();
+
+    /**
+     * Retrieve only the etag of the company insolvency, to answer conditional requests without
+     * reading the data.
+     *
+     * @param companyNumber company number
+     * @return the stored etag, or empty when there is no document
+     */
+    Optional<String> retrieveEtag(String companyNumber);
+
+    /**
+     * Retrieve the company insolvencies of many companies with one query, each read as
+     * {@link #retrieveCompanyInsolvency(String)} reads it.
+     *
+     * @param companyNumbers company numbers
+     * @return the documents found, in no particular order; the stream must be closed
+     */
+    Stream<InsolvencyDocument> retrieveCompanyInsolvencies(Collection<String> companyNumbers);
+
+    /**
+     * Retrieve the stored company insolvency data without binding it to the model, from the members
+     * the GET read preference allows, as {@link #retrieveCompanyInsolvency(String, CausalConsistencyToken)}
+     * reads it.
+     *
+     * @param companyNumber company number
+     * @param after token from an earlier write, or null
+     * @return the stored data as raw BSON
+     */
+    RawCompanyInsolvency retrieveRawCompanyInsolvency(String companyNumber, CausalConsistencyToken after);
+
     void deleteInsolvency(String companyNumber, String deltaAt);
 }
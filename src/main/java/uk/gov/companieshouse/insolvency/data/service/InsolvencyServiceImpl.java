@@ -1,25 +1,45 @@
 package uk.gov.companieshouse.insolvency.data.service;
 
 import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
-import static uk.gov.companieshouse.insolvency.data.util.DateTimeFormatter.isDeltaStale;
+import static uk.gov.companieshouse.insolvency.data.util.DateTimeFormatter.parseDeltaAt;
 
+import com.mongodb.ReadPreference;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.TransientDataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionOperations;
 import uk.gov.companieshouse.GenerateEtagUtil;
 import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
 import uk.gov.companieshouse.api.insolvency.InternalCompanyInsolvency;
 import uk.gov.companieshouse.api.insolvency.InternalData;
-import uk.gov.companieshouse.insolvency.data.api.InsolvencyApiService;
 import uk.gov.companieshouse.insolvency.data.common.EventType;
+import uk.gov.companieshouse.insolvency.data.common.UnchangedDataPolicy;
+import uk.gov.companieshouse.insolvency.data.converter.CompanyInsolvencyCodec;
 import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
 import uk.gov.companieshouse.insolvency.data.exceptions.ConflictException;
 import uk.gov.companieshouse.insolvency.data.exceptions.DocumentNotFoundException;
 import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.insolvency.data.model.BulkInsolvencyRecord;
+import uk.gov.companieshouse.insolvency.data.model.BulkPutStatus;
+import uk.gov.companieshouse.insolvency.data.model.CausalConsistencyToken;
 import uk.gov.companieshouse.insolvency.data.model.InsolvencyDocument;
+import uk.gov.companieshouse.insolvency.data.model.RawCompanyInsolvency;
 import uk.gov.companieshouse.insolvency.data.repository.InsolvencyRepository;
 import uk.gov.companieshouse.logging.Logger;
 import uk.gov.companieshouse.logging.LoggerFactory;
@@ -32,50 +52,206 @@ public class InsolvencyServiceImpl implements InsolvencyService {
     private static final String NONRECOVERABLE_MONGO_EX_MSG = "Failed to access MongoDB";
 
     private final InsolvencyRepository insolvencyRepository;
-    private final InsolvencyApiService insolvencyApiService;
+    private final ResourceChangedPublisher resourceChangedPublisher;
+    private final TransactionOperations writeTransaction;
+    private final CompanyInsolvencyCodec companyInsolvencyCodec;
+    private final UnchangedDataPolicy unchangedDataPolicy;
+    private final CompanyInsolvencyCache companyInsolvencyCache;
+    private final ReadPreference getReadPreference;
+    private final CompanyNumberBloomFilter companyNumberBloomFilter;
+    private final CompanyInsolvencyReadCoalescer companyInsolvencyReadCoalescer;
+    private final CompanyInsolvencyReadBatcher companyInsolvencyReadBatcher;
+    private final InsolvencyWriteBatcher insolvencyWriteBatcher;
+    private final InsolvencyWriteCoalescer insolvencyWriteCoalescer;
+    private final CompanyWriteLocks companyWriteLocks;
+    private final CompanyLeases companyLeases;
 
     /**
-     * Insolvency service to store the insolvency data onto mongodb and call chs kafka endpoint.
+     * Insolvency service to store the insolvency data onto mongodb and publish resource changed events.
      *
      * @param insolvencyRepository mongodb repository
-     * @param insolvencyApiService chs-kafka api service
+     * @param resourceChangedPublisher chs-kafka api or outbox publisher
+     * @param writeTransaction transaction around each write and its event
+     * @param companyInsolvencyCodec codec used to hash the stored form of the data
+     * @param unchangedDataPolicy what to do when a PUT carries the data already stored, always write
+     *                            unless the outbox is enabled
+     * @param companyInsolvencyCache read-through cache invalidated after each write
+     * @param getReadPreference replica set members the GET reads from
+     * @param companyNumberBloomFilter answers GETs for companies with no insolvency without a read
+     * @param companyInsolvencyReadCoalescer shares one read between concurrent GETs for a company
+     * @param companyInsolvencyReadBatcher gathers the reads of concurrent GETs into one query
+     * @param insolvencyWriteBatcher gathers the writes of concurrent PUTs into one bulk write
+     * @param insolvencyWriteCoalescer collapses a burst of PUTs for one company to the latest
+     * @param companyWriteLocks serialises the PUTs and DELETEs of one company
+     * @param companyLeases orders the PUTs and DELETEs of one company across instances
      */
     public InsolvencyServiceImpl(InsolvencyRepository insolvencyRepository,
-            InsolvencyApiService insolvencyApiService) {
+            ResourceChangedPublisher resourceChangedPublisher,
+            TransactionOperations writeTransaction,
+            CompanyInsolvencyCodec companyInsolvencyCodec,
+            UnchangedDataPolicy unchangedDataPolicy,
+            CompanyInsolvencyCache companyInsolvencyCache,
+            ReadPreference getReadPreference,
+            CompanyNumberBloomFilter companyNumberBloomFilter,
+            CompanyInsolvencyReadCoalescer companyInsolvencyReadCoalescer,
+            CompanyInsolvencyReadBatcher companyInsolvencyReadBatcher,
+            InsolvencyWriteBatcher insolvencyWriteBatcher,
+            InsolvencyWriteCoalescer insolvencyWriteCoalescer,
+            CompanyWriteLocks companyWriteLocks,
+            CompanyLeases companyLeases) {
         this.insolvencyRepository = insolvencyRepository;
-        this.insolvencyApiService = insolvencyApiService;
+        this.resourceChangedPublisher = resourceChangedPublisher;
+        this.writeTransaction = writeTransaction;
+        this.companyInsolvencyCodec = companyInsolvencyCodec;
+        this.unchangedDataPolicy = unchangedDataPolicy;
+        this.companyInsolvencyCache = companyInsolvencyCache;
+        this.getReadPreference = getReadPreference;
+        this.companyNumberBloomFilter = companyNumberBloomFilter;
+        this.companyInsolvencyReadCoalescer = companyInsolvencyReadCoalescer;
+        this.companyInsolvencyReadBatcher = companyInsolvencyReadBatcher;
+        this.insolvencyWriteBatcher = insolvencyWriteBatcher;
+        this.insolvencyWriteCoalescer = insolvencyWriteCoalescer;
+        this.companyWriteLocks = companyWriteLocks;
+        this.companyLeases = companyLeases;
     }
 
     @Override
     public void processInsolvency(String companyNumber, InternalCompanyInsolvency companyInsolvency) {
+        insolvencyWriteCoalescer.write(companyNumber, companyInsolvency.getInternalData().getDeltaAt(),
+                () -> companyWriteLocks.run(companyNumber, () -> companyLeases.run(companyNumber,
+                        fencingToken -> submitInsolvency(companyNumber, companyInsolvency, fencingToken))));
+    }
+
+    private void submitInsolvency(String companyNumber, InternalCompanyInsolvency companyInsolvency,
+            Long fencingToken) {
+        // a grouped write carries no fencing token, so a PUT made under a lease is written singly
+        if (fencingToken != null) {
+            writeInsolvency(companyNumber, companyInsolvency, fencingToken);
+            return;
+        }
+        Optional<BulkPutStatus> status = insolvencyWriteBatcher.write(
+                new BulkInsolvencyRecord(companyNumber, companyInsolvency), this::processInsolvencies);
+        if (status.isEmpty()) {
+            writeInsolvency(companyNumber, companyInsolvency, null);
+        } else if (status.get() == BulkPutStatus.STALE) {
+            LOGGER.error("Insolvency not persisted - stale delta at", DataMapHolder.getLogMap());
+            throw new ConflictException("Insolvency not persisted - stale delta at");
+        }
+    }
+
+    private void writeInsolvency(String companyNumber, InternalCompanyInsolvency companyInsolvency,
+            Long fencingToken) {
         try {
-            Optional<InsolvencyDocument> insolvencyDocumentFromDbOptional =
-                    insolvencyRepository.findById(companyNumber);
             OffsetDateTime dateFromBodyRequest = companyInsolvency.getInternalData().getDeltaAt();
 
-            insolvencyDocumentFromDbOptional
-                    .ifPresent(existingDocument -> {
-                        if (existingDocument.getDeltaAt() != null
-                                && dateFromBodyRequest.isBefore(existingDocument.getDeltaAt())) {
-                            LOGGER.error("Insolvency not persisted - stale delta at",
-                                    DataMapHolder.getLogMap());
-                            throw new ConflictException("Insolvency not persisted - stale delta at");
-                        }
-                    });
-
             InsolvencyDocument insolvencyDocument = mapInsolvencyDocument(
                     companyNumber, companyInsolvency);
             LOGGER.info("Successfully mapped insolvency document", DataMapHolder.getLogMap());
 
             insolvencyDocument.setDeltaAt(dateFromBodyRequest);
             insolvencyDocument.setUpdatedAt(LocalDateTime.now());
+            insolvencyDocument.setFencingToken(fencingToken);
 
-            insolvencyRepository.save(insolvencyDocument);
-            LOGGER.info("Company insolvency successfully persisted in MongoDB", DataMapHolder.getLogMap());
+            if (isUnchanged(insolvencyDocument)) {
+                LOGGER.info("Company insolvency data unchanged - no update published", DataMapHolder.getLogMap());
+                return;
+            }
 
-            insolvencyApiService.invokeChsKafkaApi(companyNumber, insolvencyDocument.getCompanyInsolvency(),
-                    EventType.CHANGED);
-            LOGGER.info("ChsKafka api CHANGED invoked successfully", DataMapHolder.getLogMap());
+            // added before the write is visible, so no GET can be turned away once it is
+            companyNumberBloomFilter.add(companyNumber);
+            writeTransaction.executeWithoutResult(status -> {
+                if (!insolvencyRepository.upsertIfNotStale(insolvencyDocument)) {
+                    LOGGER.error("Insolvency not persisted - stale delta at", DataMapHolder.getLogMap());
+                    throw new ConflictException("Insolvency not persisted - stale delta at");
+                }
+                LOGGER.info("Company insolvency successfully persisted in MongoDB", DataMapHolder.getLogMap());
+
+                resourceChangedPublisher.publish(companyNumber, insolvencyDocument.getCompanyInsolvency(),
+                        EventType.CHANGED, insolvencyDocument.getDeltaAt());
+                LOGGER.info("Resource changed CHANGED event published successfully", DataMapHolder.getLogMap());
+            });
+            companyInsolvencyCache.invalidate(companyNumber);
+            companyInsolvencyReadCoalescer.forget(companyNumber);
+
+        } catch (ConflictException ex) {
+            throwIfFenced(companyNumber, fencingToken);
+            throw ex;
+        } catch (TransientDataAccessException ex) {
+            LOGGER.info(RECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(RECOVERABLE_MONGO_EX_MSG, ex);
+        } catch (DataAccessException ex) {
+            LOGGER.error(NONRECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(NONRECOVERABLE_MONGO_EX_MSG, ex);
+        }
+    }
+
+    @Override
+    public List<BulkPutStatus> processInsolvencies(List<BulkInsolvencyRecord> records) {
+        try {
+            List<InsolvencyDocument> documents = records.stream()
+                    .map(insolvencyRecord -> mapInsolvencyDocument(insolvencyRecord.getCompanyNumber(),
+                            insolvencyRecord.toInternalCompanyInsolvency()))
+                    .toList();
+            Map<String, InsolvencyDocument> storedDocuments = insolvencyRepository
+                    .findWriteStates(documents.stream().map(InsolvencyDocument::getId).distinct().toList())
+                    .stream()
+                    .collect(Collectors.toMap(InsolvencyDocument::getId, Function.identity()));
+
+            BulkPutStatus[] statuses = new BulkPutStatus[documents.size()];
+            Map<InsolvencyDocument, Integer> positions = new IdentityHashMap<>();
+            List<InsolvencyDocument> writes = new ArrayList<>();
+            List<InsolvencyDocument> touches = new ArrayList<>();
+            for (int i = 0; i < documents.size(); i++) {
+                InsolvencyDocument document = documents.get(i);
+                InsolvencyDocument stored = storedDocuments.get(document.getId());
+                positions.put(document, i);
+                statuses[i] = BulkPutStatus.OK;
+                if (stored != null && isStale(stored, document)) {
+                    statuses[i] = BulkPutStatus.STALE;
+                } else if (stored != null && unchangedDataPolicy != UnchangedDataPolicy.WRITE
+                        && Objects.equals(stored.getDataHash(), document.getDataHash())) {
+                    if (unchangedDataPolicy == UnchangedDataPolicy.TOUCH) {
+                        touches.add(document);
+                    }
+                } else {
+                    writes.add(document);
+                }
+            }
+
+            writes.forEach(document -> companyNumberBloomFilter.add(document.getId()));
+            List<InsolvencyDocument> retries = writeTransaction.execute(status -> {
+                List<InsolvencyDocument> unapplied = new ArrayList<>(insolvencyRepository.bulkUpsertIfNotStale(writes));
+                if (!insolvencyRepository.bulkTouchIfUnchanged(touches)) {
+                    unapplied.addAll(touches);
+                }
+                if (!unapplied.isEmpty() && status.isNewTransaction()) {
+                    // a failed write has aborted the transaction, so retry the whole chunk one by one
+                    status.setRollbackOnly();
+                    List<InsolvencyDocument> all = new ArrayList<>(writes);
+                    all.addAll(touches);
+                    return all;
+                }
+                Set<InsolvencyDocument> retried = Collections.newSetFromMap(new IdentityHashMap<>());
+                retried.addAll(unapplied);
+                for (InsolvencyDocument document : writes) {
+                    if (!retried.contains(document)) {
+                        resourceChangedPublisher.publish(document.getId(), document.getCompanyInsolvency(),
+                                EventType.CHANGED, document.getDeltaAt());
+                    }
+                }
+                return unapplied;
+            });
+            companyInsolvencyCache.invalidateAll(writes.stream().map(InsolvencyDocument::getId).toList());
+            writes.forEach(document -> companyInsolvencyReadCoalescer.forget(document.getId()));
+
+            // lost a race with another write since the states were read, so settle them singly
+            for (InsolvencyDocument document : Objects.requireNonNull(retries)) {
+                int position = positions.get(document);
+                statuses[position] = processSingleInsolvency(records.get(position));
+            }
+            LOGGER.info("Bulk company insolvency chunk of %d records persisted, %d retried singly"
+                    .formatted(records.size(), retries.size()), DataMapHolder.getLogMap());
+            return Arrays.asList(statuses);
 
         } catch (TransientDataAccessException ex) {
             LOGGER.info(RECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
@@ -88,10 +264,32 @@ public class InsolvencyServiceImpl implements InsolvencyService {
 
     @Override
     public CompanyInsolvency retrieveCompanyInsolvency(String companyNumber) {
-        Optional<InsolvencyDocument> insolvencyDocumentOptional;
+        return retrieveCompanyInsolvency(companyNumber, null);
+    }
+
+    @Override
+    public CompanyInsolvency retrieveCompanyInsolvency(String companyNumber, CausalConsistencyToken after) {
+        // a company written on another node reaches the filter through the change stream, which
+        // may not have caught up with the token, so only reads without one trust it
+        if (after == null && !companyNumberBloomFilter.mightContain(companyNumber)) {
+            LOGGER.info("Insolvency document not found", DataMapHolder.getLogMap());
+            throw new DocumentNotFoundException("Insolvency document not found");
+        }
+        Optional<CompanyInsolvency> companyInsolvencyOptional;
         try {
-            insolvencyDocumentOptional =
-                    insolvencyRepository.findById(companyNumber);
+            if (after != null) {
+                // the cache could be behind the token, so go to a member that is known not to be
+                companyInsolvencyOptional = findData(companyNumber, getReadPreference, after);
+            } else if (companyInsolvencyCache.isEnabled()) {
+                // a lagging secondary could hand back data from before the last invalidation and
+                // keep it cached for the whole TTL, so the cache loads from the primary; coalescing
+                // in front of it puts a timeout on waiting for another caller's load
+                companyInsolvencyOptional = companyInsolvencyReadCoalescer.load(companyNumber,
+                        id -> companyInsolvencyCache.get(id, key -> findData(key, ReadPreference.primary(), null)));
+            } else {
+                companyInsolvencyOptional = companyInsolvencyReadCoalescer.load(companyNumber,
+                        id -> findData(id, getReadPreference, null));
+            }
         } catch (TransientDataAccessException ex) {
             LOGGER.info(RECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
             throw new BadGatewayException(RECOVERABLE_MONGO_EX_MSG, ex);
@@ -100,38 +298,122 @@ public class InsolvencyServiceImpl implements InsolvencyService {
             throw new BadGatewayException(NONRECOVERABLE_MONGO_EX_MSG, ex);
         }
 
-        InsolvencyDocument insolvencyDocument = insolvencyDocumentOptional.orElseGet(
+        CompanyInsolvency companyInsolvency = companyInsolvencyOptional.orElseGet(
                 () -> {
                     LOGGER.info("Insolvency document not found", DataMapHolder.getLogMap());
                     throw new DocumentNotFoundException("Insolvency document not found");
                 });
 
         LOGGER.info("Successfully retrieved insolvency document", DataMapHolder.getLogMap());
-        return insolvencyDocument.getCompanyInsolvency();
+        return companyInsolvency;
+    }
+
+    @Override
+    public Optional<CausalConsistencyToken> causalConsistencyToken() {
+        if (ReadPreference.primary().equals(getReadPreference)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(insolvencyRepository.currentCausalConsistencyToken())
+                    .filter(token -> token.getOperationTime() != null);
+        } catch (DataAccessException ex) {
+            // the write has succeeded, so answer it without a token rather than fail it
+            LOGGER.info("Failed to read causal consistency token", DataMapHolder.getLogMap());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Optional<String> retrieveEtag(String companyNumber) {
+        if (!companyNumberBloomFilter.mightContain(companyNumber)) {
+            return Optional.empty();
+        }
+        Optional<CompanyInsolvency> cached = companyInsolvencyCache.getIfPresent(companyNumber);
+        if (cached.isPresent()) {
+            return Optional.ofNullable(cached.get().getEtag());
+        }
+        try {
+            return insolvencyRepository.findEtagById(companyNumber);
+        } catch (TransientDataAccessException ex) {
+            LOGGER.info(RECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(RECOVERABLE_MONGO_EX_MSG, ex);
+        } catch (DataAccessException ex) {
+            LOGGER.error(NONRECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(NONRECOVERABLE_MONGO_EX_MSG, ex);
+        }
+    }
+
+    @Override
+    public Stream<InsolvencyDocument> retrieveCompanyInsolvencies(Collection<String> companyNumbers) {
+        try {
+            return insolvencyRepository.findAllByIdIn(companyNumbers);
+        } catch (TransientDataAccessException ex) {
+            LOGGER.info(RECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(RECOVERABLE_MONGO_EX_MSG, ex);
+        } catch (DataAccessException ex) {
+            LOGGER.error(NONRECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(NONRECOVERABLE_MONGO_EX_MSG, ex);
+        }
+    }
+
+    @Override
+    public RawCompanyInsolvency retrieveRawCompanyInsolvency(String companyNumber, CausalConsistencyToken after) {
+        Optional<RawCompanyInsolvency> rawCompanyInsolvencyOptional = Optional.empty();
+        try {
+            // as for the mapped GET, only reads without a token trust the filter
+            if (after != null || companyNumberBloomFilter.mightContain(companyNumber)) {
+                rawCompanyInsolvencyOptional =
+                        insolvencyRepository.findRawDataById(companyNumber, getReadPreference, after);
+            }
+        } catch (TransientDataAccessException ex) {
+            LOGGER.info(RECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(RECOVERABLE_MONGO_EX_MSG, ex);
+        } catch (DataAccessException ex) {
+            LOGGER.error(NONRECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(NONRECOVERABLE_MONGO_EX_MSG, ex);
+        }
+
+        RawCompanyInsolvency rawCompanyInsolvency = rawCompanyInsolvencyOptional.orElseGet(
+                () -> {
+                    LOGGER.info("Insolvency document not found", DataMapHolder.getLogMap());
+                    throw new DocumentNotFoundException("Insolvency document not found");
+                });
+
+        LOGGER.info("Successfully retrieved raw insolvency data", DataMapHolder.getLogMap());
+        return rawCompanyInsolvency;
     }
 
     @Override
     public void deleteInsolvency(String companyNumber, String deltaAt) {
+        companyWriteLocks.run(companyNumber, () -> companyLeases.run(companyNumber,
+                fencingToken -> removeInsolvency(companyNumber, deltaAt, fencingToken)));
+    }
+
+    private void removeInsolvency(String companyNumber, String deltaAt, Long fencingToken) {
         try {
-            Optional<InsolvencyDocument> insolvencyDocumentOptional = insolvencyRepository.findById(companyNumber);
+            OffsetDateTime requestDeltaAt = parseDeltaAt(deltaAt);
+            writeTransaction.executeWithoutResult(status -> {
+                Optional<InsolvencyDocument> deletedDocument =
+                        insolvencyRepository.deleteIfNotStale(companyNumber, requestDeltaAt, fencingToken);
 
-            if (insolvencyDocumentOptional.isEmpty()) {
-                LOGGER.info("Invoking CHS Kafka API DELETED with empty deleted data", DataMapHolder.getLogMap());
-                insolvencyApiService.invokeChsKafkaApi(companyNumber, null, EventType.DELETED);
-            } else {
-                InsolvencyDocument existingDocument = insolvencyDocumentOptional.get();
-                if (isDeltaStale(deltaAt, existingDocument.getDeltaAt())) {
+                if (deletedDocument.isPresent()) {
+                    LOGGER.info("Publishing resource changed DELETED event", DataMapHolder.getLogMap());
+                    resourceChangedPublisher.publish(companyNumber, deletedDocument.get().getCompanyInsolvency(),
+                            EventType.DELETED, requestDeltaAt);
+                } else if (insolvencyRepository.existsById(companyNumber)) {
                     LOGGER.error("Insolvency not deleted - stale delta at", DataMapHolder.getLogMap());
                     throw new ConflictException("Insolvency not deleted - stale delta at");
+                } else {
+                    LOGGER.info("Publishing resource changed DELETED event with empty deleted data",
+                            DataMapHolder.getLogMap());
+                    resourceChangedPublisher.publish(companyNumber, null, EventType.DELETED, requestDeltaAt);
                 }
-
-                LOGGER.info("Deleting company insolvency");
-                insolvencyRepository.deleteById(companyNumber);
-
-                LOGGER.info("Invoking CHS Kafka API DELETED", DataMapHolder.getLogMap());
-                insolvencyApiService.invokeChsKafkaApi(companyNumber, existingDocument.getCompanyInsolvency(),
-                        EventType.DELETED);
-            }
+            });
+            companyInsolvencyCache.invalidate(companyNumber);
+            companyInsolvencyReadCoalescer.forget(companyNumber);
+        } catch (ConflictException ex) {
+            throwIfFenced(companyNumber, fencingToken);
+            throw ex;
         } catch (TransientDataAccessException ex) {
             LOGGER.info(RECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
             throw new BadGatewayException(RECOVERABLE_MONGO_EX_MSG, ex);
@@ -141,18 +423,82 @@ public class InsolvencyServiceImpl implements InsolvencyService {
         }
     }
 
+    private Optional<CompanyInsolvency> findData(String companyNumber, ReadPreference readPreference,
+            CausalConsistencyToken after) {
+        // a causal read needs a session of its own, so only reads without a token are batched
+        Optional<InsolvencyDocument> document = after == null
+                ? companyInsolvencyReadBatcher.findDataById(companyNumber, readPreference)
+                : insolvencyRepository.findDataById(companyNumber, readPreference, after);
+        Optional<CompanyInsolvency> companyInsolvency = document.map(InsolvencyDocument::getCompanyInsolvency);
+        if (companyInsolvency.isEmpty() && after == null) {
+            companyNumberBloomFilter.recordFalsePositive();
+        }
+        return companyInsolvency;
+    }
+
+    private BulkPutStatus processSingleInsolvency(BulkInsolvencyRecord insolvencyRecord) {
+        String companyNumber = insolvencyRecord.getCompanyNumber();
+        try {
+            // leased as a single PUT is, but not locked: under group commit the PUT's own thread
+            // already holds the company's stripe while this runs
+            companyLeases.run(companyNumber, fencingToken ->
+                    writeInsolvency(companyNumber, insolvencyRecord.toInternalCompanyInsolvency(), fencingToken));
+            return BulkPutStatus.OK;
+        } catch (ConflictException ex) {
+            return BulkPutStatus.STALE;
+        }
+    }
+
+    // A write fenced off by a later lease is run again under a new one, not answered as stale.
+    // Checked once the write's transaction is over, as a failed write may have aborted it.
+    private void throwIfFenced(String companyNumber, Long fencingToken) {
+        if (fencingToken == null) {
+            return;
+        }
+        boolean fenced;
+        try {
+            fenced = insolvencyRepository.isFenced(companyNumber, fencingToken);
+        } catch (DataAccessException ex) {
+            LOGGER.info(RECOVERABLE_MONGO_EX_MSG, DataMapHolder.getLogMap());
+            throw new BadGatewayException(RECOVERABLE_MONGO_EX_MSG, ex);
+        }
+        if (fenced) {
+            LOGGER.info("Insolvency not persisted - company lease taken over", DataMapHolder.getLogMap());
+            throw new CompanyLeases.LeaseLostException();
+        }
+    }
+
+    // the stored delta_at has millisecond precision, so compare as the delta_at filter does
+    private static boolean isStale(InsolvencyDocument stored, InsolvencyDocument document) {
+        return stored.getDeltaAt() != null && stored.getDeltaAt().toInstant()
+                .isAfter(document.getDeltaAt().toInstant().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    private boolean isUnchanged(InsolvencyDocument insolvencyDocument) {
+        return switch (unchangedDataPolicy) {
+            case TOUCH -> insolvencyRepository.touchIfUnchanged(insolvencyDocument);
+            case SKIP -> insolvencyRepository.existsUnchanged(insolvencyDocument);
+            case WRITE -> false;
+        };
+    }
+
     private InsolvencyDocument mapInsolvencyDocument(String companyNumber,
             InternalCompanyInsolvency insolvencyApi) {
         InternalData internalData = insolvencyApi.getInternalData();
         CompanyInsolvency externalData = insolvencyApi.getExternalData();
 
-        // Generating new Etag
+        // Generating new Etag, which the data hash leaves out
         externalData.setEtag(GenerateEtagUtil.generateEtag());
-        return new InsolvencyDocument(companyNumber,
+        InsolvencyDocument insolvencyDocument = new InsolvencyDocument(companyNumber,
                 externalData,
                 internalData.getDeltaAt(),
                 LocalDateTime.now(),
                 internalData.getUpdatedBy());
+        if (unchangedDataPolicy != UnchangedDataPolicy.WRITE) {
+            // only read when deciding whether the data is unchanged
+            insolvencyDocument.setDataHash(companyInsolvencyCodec.contentHash(externalData));
+        }
+        return insolvencyDocument;
     }
 
 }
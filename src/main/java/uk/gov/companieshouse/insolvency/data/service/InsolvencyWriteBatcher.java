@@ -0,0 +1,161 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.insolvency.data.model.BulkInsolvencyRecord;
+import uk.gov.companieshouse.insolvency.data.model.BulkPutStatus;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Group commit for single company PUTs: the writes for different companies made within a short
+ * window are applied together by one call of the chunk writer, which is
+ * {@link InsolvencyService#processInsolvencies(List)} with its per-document staleness rules and
+ * one unordered bulk write, and each PUT is answered with its own status.
+ *
+ * <p>The first write of a batch waits for the window to pass, or for the batch to fill, then runs
+ * the chunk writer on its own thread. A write for a company already waiting in the batch, and
+ * every write of a batch whose chunk write fails, is handed back to be written singly, so one bad
+ * record or a lost race never decides another request's outcome.
+ */
+@Component
+public class InsolvencyWriteBatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+
+    private final boolean enabled;
+    private final Duration window;
+    private final int maxSize;
+    private final Object lock = new Object();
+
+    private final DistributionSummary batchSizeSummary;
+    private final Counter failureCounter;
+
+    private Batch pending;
+
+    /**
+     * Insolvency write batcher.
+     */
+    public InsolvencyWriteBatcher(MeterRegistry meterRegistry,
+            @Value("${insolvency.put.batching.enabled:false}") boolean enabled,
+            @Value("${insolvency.put.batching.window:5ms}") Duration window,
+            @Value("${insolvency.put.batching.max-size:100}") int maxSize) {
+        this.enabled = enabled;
+        this.window = window;
+        this.maxSize = maxSize;
+        this.batchSizeSummary = DistributionSummary.builder("insolvency.put.batch.size")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.failureCounter = meterRegistry.counter("insolvency.put.batch.failures");
+    }
+
+    /**
+     * Write the company insolvency together with the writes made around the same time.
+     *
+     * @param insolvencyRecord the company insolvency with its company number
+     * @param chunkWriter applies a chunk of records, returning a status for each in order; the
+     *                    writer of the batch's first record is the one used
+     * @return {@link BulkPutStatus#OK} or {@link BulkPutStatus#STALE}, or empty when the record was
+     *         not written and should be written singly
+     */
+    public Optional<BulkPutStatus> write(BulkInsolvencyRecord insolvencyRecord,
+            Function<List<BulkInsolvencyRecord>, List<BulkPutStatus>> chunkWriter) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        Batch batch;
+        CompletableFuture<Optional<BulkPutStatus>> result = new CompletableFuture<>();
+        boolean first = false;
+        synchronized (lock) {
+            if (pending == null) {
+                pending = new Batch();
+                first = true;
+            }
+            batch = pending;
+            if (batch.writes.putIfAbsent(insolvencyRecord.getCompanyNumber(),
+                    new Write(insolvencyRecord, result)) != null) {
+                return Optional.empty();
+            }
+            if (batch.writes.size() >= maxSize) {
+                pending = null;
+                batch.full.countDown();
+            }
+        }
+        if (first) {
+            awaitWindow(batch);
+            synchronized (lock) {
+                if (pending == batch) {
+                    pending = null;
+                }
+            }
+            dispatch(batch, chunkWriter);
+        }
+        return await(result);
+    }
+
+    private void awaitWindow(Batch batch) {
+        try {
+            batch.full.await(window.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            // write the batch now rather than strand the requests waiting on it
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // only called once the batch is no longer pending, so no write can join it any more
+    private void dispatch(Batch batch, Function<List<BulkInsolvencyRecord>, List<BulkPutStatus>> chunkWriter) {
+        List<Write> writes = new ArrayList<>(batch.writes.values());
+        batchSizeSummary.record(writes.size());
+        try {
+            List<BulkPutStatus> statuses = chunkWriter.apply(writes.stream().map(Write::insolvencyRecord).toList());
+            for (int i = 0; i < writes.size(); i++) {
+                writes.get(i).result().complete(Optional.of(statuses.get(i)));
+            }
+        } catch (RuntimeException | Error ex) {
+            LOGGER.info("Grouped write of %d records failed, writing them singly".formatted(writes.size()),
+                    DataMapHolder.getLogMap());
+            failureCounter.increment();
+            writes.forEach(write -> write.result().complete(Optional.empty()));
+            if (ex instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    private static Optional<BulkPutStatus> await(CompletableFuture<Optional<BulkPutStatus>> result) {
+        try {
+            return result.get();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for grouped company insolvency write", ex);
+        }
+    }
+
+    private record Write(BulkInsolvencyRecord insolvencyRecord, CompletableFuture<Optional<BulkPutStatus>> result) {
+    }
+
+    private static final class Batch {
+
+        private final Map<String, Write> writes = new LinkedHashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+}
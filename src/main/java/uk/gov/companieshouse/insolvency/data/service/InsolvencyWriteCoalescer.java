@@ -0,0 +1,132 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.insolvency.data.exceptions.ConflictException;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Collapses a burst of PUTs for one company to the one with the latest delta_at.
+ *
+ * <p>While a write for a company is running, at most one more waits behind it: a PUT arriving
+ * then replaces the waiting one unless its delta_at is earlier, and whichever loses is answered
+ * as stale without touching MongoDB or publishing an event. When the running write finishes, the
+ * waiting PUT runs on its own thread. Only PUTs handled by this instance are collapsed; across
+ * instances the delta_at check on the write still decides.
+ */
+@Component
+public class InsolvencyWriteCoalescer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+
+    private final boolean enabled;
+    private final ConcurrentMap<String, Slot> slots = new ConcurrentHashMap<>();
+    private final Counter supersededCounter;
+
+    /**
+     * Insolvency write coalescer.
+     */
+    public InsolvencyWriteCoalescer(MeterRegistry meterRegistry,
+            @Value("${insolvency.put.coalescing.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+        this.supersededCounter = meterRegistry.counter("insolvency.put.superseded");
+    }
+
+    /**
+     * Run the write once no other write for the company is running, unless a PUT with a later
+     * delta_at arrives for the company first.
+     *
+     * @param companyNumber the company number
+     * @param deltaAt the delta_at of the PUT
+     * @param write applies the PUT
+     * @throws ConflictException when the PUT was superseded
+     */
+    public void write(String companyNumber, OffsetDateTime deltaAt, Runnable write) {
+        if (!enabled) {
+            write.run();
+            return;
+        }
+        Turn turn = new Turn(deltaAt);
+        slots.compute(companyNumber, (id, slot) -> {
+            if (slot == null) {
+                turn.start();
+                return new Slot();
+            }
+            if (slot.waiting == null || !turn.isBefore(slot.waiting)) {
+                Turn superseded = slot.waiting;
+                slot.waiting = turn;
+                if (superseded != null) {
+                    superseded.supersede();
+                }
+            } else {
+                turn.supersede();
+            }
+            return slot;
+        });
+        if (!turn.await()) {
+            supersededCounter.increment();
+            LOGGER.info("Insolvency not persisted - superseded by a later delta at", DataMapHolder.getLogMap());
+            throw new ConflictException("Insolvency not persisted - stale delta at");
+        }
+        try {
+            write.run();
+        } finally {
+            slots.compute(companyNumber, (id, slot) -> {
+                if (slot == null || slot.waiting == null) {
+                    return null;
+                }
+                slot.waiting.start();
+                slot.waiting = null;
+                return slot;
+            });
+        }
+    }
+
+    boolean hasWaiting(String companyNumber) {
+        Slot slot = slots.get(companyNumber);
+        return slot != null && slot.waiting != null;
+    }
+
+    // written only inside the map's per-key computation
+    private static final class Slot {
+
+        private volatile Turn waiting;
+    }
+
+    private static final class Turn {
+
+        private final OffsetDateTime deltaAt;
+        private final CompletableFuture<Boolean> started = new CompletableFuture<>();
+
+        private Turn(OffsetDateTime deltaAt) {
+            this.deltaAt = deltaAt;
+        }
+
+        boolean isBefore(Turn other) {
+            return deltaAt != null && other.deltaAt != null && deltaAt.isBefore(other.deltaAt);
+        }
+
+        void start() {
+            started.complete(true);
+        }
+
+        void supersede() {
+            started.complete(false);
+        }
+
+        // not interruptible, as a turn started but never run would hold up the company for good
+        boolean await() {
+            return started.join();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.insolvency.data.api.InsolvencyApiService;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.insolvency.data.model.OutboxEvent;
+import uk.gov.companieshouse.insolvency.data.repository.OutboxEventRepository;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Sends outbox events to chs-kafka-api.
+ *
+ * <p>Each poll reads a batch of events that are due and unclaimed, and sends every company's events
+ * on one worker, in the order they were raised, while different companies are sent in parallel.
+ * A company is skipped while it has an earlier event waiting for a retry or claimed by another
+ * instance, and its events stop at the first one that can't be claimed, so a later event never
+ * overtakes an earlier one. Failed sends back off exponentially and are marked failed once they
+ * run out of attempts.
+ */
+@Component
+@ConditionalOnProperty(name = "insolvency.outbox.enabled", havingValue = "true")
+public class OutboxDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+    private static final int MAX_BACKOFF_SHIFT = 10;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final InsolvencyApiService insolvencyApiService;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration claimDuration;
+
+    private final Counter dispatchedCounter;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+    private final Timer lagTimer;
+
+    /**
+     * Outbox dispatcher.
+     */
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository,
+            InsolvencyApiService insolvencyApiService,
+            MeterRegistry meterRegistry,
+            @Value("${insolvency.outbox.batch-size:100}") int batchSize,
+            @Value("${insolvency.outbox.parallelism:4}") int parallelism,
+            @Value("${insolvency.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${insolvency.outbox.retry-backoff:1s}") Duration retryBackoff,
+            @Value("${insolvency.outbox.claim-duration:30s}") Duration claimDuration) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.insolvencyApiService = insolvencyApiService;
+        this.executor = Executors.newFixedThreadPool(parallelism);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.claimDuration = claimDuration;
+        this.dispatchedCounter = meterRegistry.counter("insolvency.outbox.dispatched");
+        this.retriedCounter = meterRegistry.counter("insolvency.outbox.retried");
+        this.failedCounter = meterRegistry.counter("insolvency.outbox.failed");
+        this.lagTimer = meterRegistry.timer("insolvency.outbox.lag");
+    }
+
+    /**
+     * Send the pending events of one batch.
+     */
+    @Scheduled(fixedDelayString = "${insolvency.outbox.poll-interval:200ms}")
+    public void dispatch() {
+        Map<String, List<OutboxEvent>> eventsByCompany = outboxEventRepository
+                .findPending(batchSize, Instant.now()).stream()
+                .collect(Collectors.groupingBy(OutboxEvent::getCompanyNumber, LinkedHashMap::new,
+                        Collectors.toList()));
+
+        List<Callable<Void>> tasks = eventsByCompany.values().stream()
+                .map(events -> (Callable<Void>) () -> {
+                    dispatchInOrder(events);
+                    return null;
+                })
+                .toList();
+        try {
+            executor.invokeAll(tasks);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void dispatchInOrder(List<OutboxEvent> events) {
+        if (outboxEventRepository.hasEarlierPending(events.getFirst())) {
+            return;
+        }
+        for (OutboxEvent event : events) {
+            Instant now = Instant.now();
+            if (event.getNextAttemptAt() != null && event.getNextAttemptAt().isAfter(now)
+                    || !outboxEventRepository.claim(event.getId(), now, now.plus(claimDuration))) {
+                return;
+            }
+            if (!send(event, now)) {
+                return;
+            }
+        }
+    }
+
+    // true when the company's next event can follow, i.e. this one was sent or given up on
+    private boolean send(OutboxEvent event, Instant now) {
+        DataMapHolder.initialise(event.getContextId());
+        try {
+            insolvencyApiService.invokeChsKafkaApi(event.getCompanyNumber(), event.getDeletedData(),
+                    event.getEventType());
+            outboxEventRepository.deleteById(event.getId());
+            dispatchedCounter.increment();
+            lagTimer.record(Duration.between(event.getCreatedAt(), Instant.now()));
+            return true;
+        } catch (RuntimeException ex) {
+            int attempts = event.getAttempts() + 1;
+            if (attempts >= maxAttempts) {
+                LOGGER.error("Resource changed event failed after %d attempts".formatted(attempts), ex,
+                        DataMapHolder.getLogMap());
+                outboxEventRepository.markFailed(event.getId(), attempts);
+                failedCounter.increment();
+                return true;
+            }
+            LOGGER.info("Resource changed event failed, retrying", DataMapHolder.getLogMap());
+            outboxEventRepository.scheduleRetry(event.getId(), attempts,
+                    now.plus(retryBackoff.multipliedBy(1L << Math.min(attempts - 1, MAX_BACKOFF_SHIFT))));
+            retriedCounter.increment();
+            return false;
+        } finally {
+            DataMapHolder.clear();
+        }
+    }
+}
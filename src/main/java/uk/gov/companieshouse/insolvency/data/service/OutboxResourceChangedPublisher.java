@@ -0,0 +1,40 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static uk.gov.companieshouse.insolvency.data.InsolvencyDataApiApplication.NAMESPACE;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.common.EventType;
+import uk.gov.companieshouse.insolvency.data.logging.DataMapHolder;
+import uk.gov.companieshouse.insolvency.data.model.OutboxEvent;
+import uk.gov.companieshouse.insolvency.data.repository.OutboxEventRepository;
+import uk.gov.companieshouse.logging.Logger;
+import uk.gov.companieshouse.logging.LoggerFactory;
+
+/**
+ * Records the event in the outbox collection, leaving {@link OutboxDispatcher} to send it.
+ */
+@Component
+@ConditionalOnProperty(name = "insolvency.outbox.enabled", havingValue = "true")
+public class OutboxResourceChangedPublisher implements ResourceChangedPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NAMESPACE);
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    public OutboxResourceChangedPublisher(OutboxEventRepository outboxEventRepository) {
+        this.outboxEventRepository = outboxEventRepository;
+    }
+
+    @Override
+    public void publish(String companyNumber, CompanyInsolvency companyInsolvency, EventType eventType,
+            OffsetDateTime deltaAt) {
+        CompanyInsolvency deletedData = EventType.DELETED.equals(eventType) ? companyInsolvency : null;
+        outboxEventRepository.insert(new OutboxEvent(companyNumber, eventType, deletedData,
+                DataMapHolder.getRequestId(), deltaAt, Instant.now()));
+        LOGGER.info("Resource changed event added to outbox", DataMapHolder.getLogMap());
+    }
+}
@@ -0,0 +1,23 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import java.time.OffsetDateTime;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.common.EventType;
+
+/**
+ * Publishes resource changed events for company insolvency writes.
+ */
+public interface ResourceChangedPublisher {
+
+    /**
+     * Publish a resource changed event. Called from within the write's transaction when the
+     * outbox is enabled.
+     *
+     * @param companyNumber company number
+     * @param companyInsolvency the deleted company insolvency for DELETED events
+     * @param eventType resource changed event type
+     * @param deltaAt delta_at of the write, which orders the company's events
+     */
+    void publish(String companyNumber, CompanyInsolvency companyInsolvency, EventType eventType,
+            OffsetDateTime deltaAt);
+}
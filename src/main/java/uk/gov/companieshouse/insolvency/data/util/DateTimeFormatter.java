@@ -6,14 +6,16 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Fixed-width date parsing and formatting for the shapes this service exchanges.
+ *
+ * <p>The common cases are handled directly on characters and epoch arithmetic; anything outside
+ * them (years beyond 0001-9999, out of range fields) is handed to the equivalent
+ * {@link java.time.format.DateTimeFormatter} so results and failures are unchanged.
+ */
 public class DateTimeFormatter {
 
-    static final String STR_PATTERN = "\\d{4}-\\d{2}-\\d{2}";
-    static final Pattern pattern = Pattern.compile(STR_PATTERN);
-
     static java.time.format.DateTimeFormatter writeDateTimeFormatter =
             java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'");
 
@@ -25,6 +27,13 @@ public class DateTimeFormatter {
     private static final java.time.format.DateTimeFormatter deltaAtFormatter =
             java.time.format.DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSSSSS").withZone(UTC);
 
+    private static final int DATE_LENGTH = 10;
+    private static final int DELTA_AT_LENGTH = 20;
+    private static final long SECONDS_PER_DAY = 86_400L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long DAYS_0000_TO_1970 = 719_528L;
+    private static final int MAX_YEAR = 9999;
+
     private DateTimeFormatter() {
 
     }
@@ -36,9 +45,27 @@ public class DateTimeFormatter {
      * @return parsed date.
      */
     public static LocalDate parse(String dateStr) {
-        Matcher matcher = pattern.matcher(dateStr);
-        matcher.find();
-        return LocalDate.parse(matcher.group(), readDateTimeFormatter);
+        int start = indexOfDate(dateStr);
+        if (start < 0) {
+            throw new IllegalStateException("No match found");
+        }
+        int year = digits(dateStr, start, 4);
+        int month = digits(dateStr, start + 5, 2);
+        int day = digits(dateStr, start + 8, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return LocalDate.parse(dateStr.substring(start, start + DATE_LENGTH), readDateTimeFormatter);
+        }
+        return LocalDate.of(year, month, Math.min(day, lengthOfMonth(year, month)));
+    }
+
+    /**
+     * Convert epoch milliseconds to the UTC date they fall on.
+     *
+     * @param epochMilli milliseconds since the epoch.
+     * @return date in UTC.
+     */
+    public static LocalDate fromEpochMilli(long epochMilli) {
+        return LocalDate.ofEpochDay(Math.floorDiv(epochMilli, MILLIS_PER_DAY));
     }
 
     /**
@@ -58,11 +85,115 @@ public class DateTimeFormatter {
      * @return UTC time as string rounded to seconds
      */
     public static String formatPublishedAt(Instant now) {
-        return publishedAtDateTimeFormatter.format(now.atZone(ZoneOffset.UTC));
+        long epochSecond = now.getEpochSecond();
+        long epochDay = Math.floorDiv(epochSecond, SECONDS_PER_DAY);
+        int secondOfDay = (int) Math.floorMod(epochSecond, SECONDS_PER_DAY);
+
+        // civil date from days since 0000-03-01, as in java.time.LocalDate#ofEpochDay
+        long zeroDay = epochDay + DAYS_0000_TO_1970 - 60;
+        long era = Math.floorDiv(zeroDay, 146_097L);
+        long dayOfEra = zeroDay - era * 146_097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int marchMonth = (int) ((5 * dayOfYear + 2) / 153);
+        int day = (int) (dayOfYear - (153L * marchMonth + 2) / 5 + 1);
+        int month = marchMonth < 10 ? marchMonth + 3 : marchMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        if (year < 1 || year > MAX_YEAR) {
+            return publishedAtDateTimeFormatter.format(now.atZone(ZoneOffset.UTC));
+        }
+        char[] chars = "0000-00-00T00:00:00".toCharArray();
+        writeDate(chars, (int) year, month, day);
+        writeDigits(chars, 11, secondOfDay / 3600, 2);
+        writeDigits(chars, 14, secondOfDay / 60 % 60, 2);
+        writeDigits(chars, 17, secondOfDay % 60, 2);
+        return new String(chars);
+    }
+
+    /**
+     * Parse a yyyyMMddHHmmssSSSSSS delta_at header value as UTC.
+     *
+     * @param deltaAt delta_at as string.
+     * @return parsed delta_at.
+     */
+    public static OffsetDateTime parseDeltaAt(final String deltaAt) {
+        if (!isFixedWidthDeltaAt(deltaAt)) {
+            return OffsetDateTime.parse(deltaAt, deltaAtFormatter);
+        }
+        int year = digits(deltaAt, 0, 4);
+        int month = digits(deltaAt, 4, 2);
+        return OffsetDateTime.of(year, month, Math.min(digits(deltaAt, 6, 2), lengthOfMonth(year, month)),
+                digits(deltaAt, 8, 2), digits(deltaAt, 10, 2), digits(deltaAt, 12, 2),
+                digits(deltaAt, 14, 6) * 1000, UTC);
+    }
+
+    // true when the value is 20 digits with every field in range, leaving day-of-month clamping
+    private static boolean isFixedWidthDeltaAt(String deltaAt) {
+        if (deltaAt.length() != DELTA_AT_LENGTH || !isDigits(deltaAt, 0, DELTA_AT_LENGTH)) {
+            return false;
+        }
+        int year = digits(deltaAt, 0, 4);
+        int month = digits(deltaAt, 4, 2);
+        int day = digits(deltaAt, 6, 2);
+        return year >= 1 && month >= 1 && month <= 12 && day >= 1 && day <= 31
+                && digits(deltaAt, 8, 2) <= 23 && digits(deltaAt, 10, 2) <= 59 && digits(deltaAt, 12, 2) <= 59;
+    }
+
+    private static int indexOfDate(String value) {
+        for (int start = 0; start + DATE_LENGTH <= value.length(); start++) {
+            if (isDigits(value, start, 4) && value.charAt(start + 4) == '-'
+                    && isDigits(value, start + 5, 2) && value.charAt(start + 7) == '-'
+                    && isDigits(value, start + 8, 2)) {
+                return start;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isDigits(String value, int start, int count) {
+        if (start + count > value.length()) {
+            return false;
+        }
+        for (int i = start; i < start + count; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(String value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; i++) {
+            result = result * 10 + (value.charAt(i) - '0');
+        }
+        return result;
+    }
+
+    private static void writeDate(char[] chars, int year, int month, int day) {
+        writeDigits(chars, 0, year, 4);
+        writeDigits(chars, 5, month, 2);
+        writeDigits(chars, 8, day, 2);
+    }
+
+    private static void writeDigits(char[] chars, int start, int value, int count) {
+        for (int i = start + count - 1; i >= start; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
     }
 
-    public static boolean isDeltaStale(final String requestDeltaAt, final OffsetDateTime existingDeltaAt) {
-        return existingDeltaAt != null &&
-                OffsetDateTime.parse(requestDeltaAt, deltaAtFormatter).isBefore(existingDeltaAt);
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> isLeapYear(year) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
     }
 }
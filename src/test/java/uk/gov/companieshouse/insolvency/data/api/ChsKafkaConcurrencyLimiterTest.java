@@ -0,0 +1,102 @@
+package uk.gov.companieshouse.insolvency.data.api;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.api.error.ApiErrorResponseException;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
+
+class ChsKafkaConcurrencyLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChsKafkaConcurrencyLimiter concurrencyLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        concurrencyLimiter = new ChsKafkaConcurrencyLimiter(meterRegistry, 1, Duration.ofMillis(50));
+    }
+
+    @Test
+    void shouldReturnResultAndReleasePermit() throws ApiErrorResponseException {
+        assertThat(concurrencyLimiter.execute(() -> "first")).isEqualTo("first");
+        assertThat(concurrencyLimiter.execute(() -> "second")).isEqualTo("second");
+
+        assertThat(meterRegistry.get("chs.kafka.api.calls.active").gauge().value()).isZero();
+        assertThat(meterRegistry.get("chs.kafka.api.calls.acquire").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReleasePermitWhenCallFails() throws ApiErrorResponseException {
+        assertThrows(IllegalStateException.class, () -> concurrencyLimiter.execute(() -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        assertThat(concurrencyLimiter.execute(() -> "next")).isEqualTo("next");
+    }
+
+    @Test
+    void shouldThrowBadGatewayWhenNoPermitBecomesAvailable() throws Exception {
+        CountDownLatch inCall = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> {
+            try {
+                return concurrencyLimiter.execute(() -> {
+                    inCall.countDown();
+                    awaitQuietly(release);
+                    return "busy";
+                });
+            } catch (ApiErrorResponseException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        assertThat(inCall.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(meterRegistry.get("chs.kafka.api.calls.active").gauge().value()).isEqualTo(1);
+        assertThrows(BadGatewayException.class, () -> concurrencyLimiter.execute(() -> "waiting"));
+        assertThat(meterRegistry.get("chs.kafka.api.calls.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(busy.get(5, TimeUnit.SECONDS)).isEqualTo("busy");
+    }
+
+    @Test
+    void shouldNotLimitCallsWhenNoMaximumIsConfigured() throws Exception {
+        ChsKafkaConcurrencyLimiter unlimited = new ChsKafkaConcurrencyLimiter(meterRegistry, 0, Duration.ofMillis(50));
+        CountDownLatch inCall = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> {
+            try {
+                return unlimited.execute(() -> {
+                    inCall.countDown();
+                    awaitQuietly(release);
+                    return "busy";
+                });
+            } catch (ApiErrorResponseException ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        assertThat(inCall.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(unlimited.execute(() -> "next")).isEqualTo("next");
+        assertThat(meterRegistry.get("chs.kafka.api.calls.rejected").counter().count()).isZero();
+
+        release.countDown();
+        assertThat(busy.get(5, TimeUnit.SECONDS)).isEqualTo("busy");
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -15,6 +16,7 @@ import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.http.HttpResponseException;
 import java.util.stream.Stream;
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
@@ -45,6 +47,9 @@ class InsolvencyApiClientServiceTest {
     @Mock
     private ApiClientService apiClientService;
 
+    @Mock
+    private ChsKafkaConcurrencyLimiter concurrencyLimiter;
+
     @Mock
     private ObjectMapper objectMapper;
 
@@ -66,6 +71,12 @@ class InsolvencyApiClientServiceTest {
     @InjectMocks
     private InsolvencyApiService insolvencyApiService;
 
+    @BeforeEach
+    void setUp() throws ApiErrorResponseException {
+        lenient().when(concurrencyLimiter.execute(any()))
+                .thenAnswer(invocation -> invocation.<ChsKafkaConcurrencyLimiter.ApiCall<?>>getArgument(0).execute());
+    }
+
     @Test
     void should_invoke_chs_kafka_endpoint_successfully() throws ApiErrorResponseException {
 
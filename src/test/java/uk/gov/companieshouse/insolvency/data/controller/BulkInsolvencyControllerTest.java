@@ -0,0 +1,149 @@
+package uk.gov.companieshouse.insolvency.data.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.net.URI;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import uk.gov.companieshouse.insolvency.data.config.WebSecurityConfig;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
+import uk.gov.companieshouse.insolvency.data.service.BulkInsolvencyProcessor;
+import uk.gov.companieshouse.insolvency.data.service.InsolvencyExporter;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(controllers = BulkInsolvencyController.class)
+@ContextConfiguration(classes = {BulkInsolvencyController.class})
+@Import({WebSecurityConfig.class})
+class BulkInsolvencyControllerTest {
+
+    private static final String URL = "/company/insolvency/bulk";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BulkInsolvencyProcessor bulkInsolvencyProcessor;
+
+    @MockBean
+    private InsolvencyExporter insolvencyExporter;
+
+    @Test
+    @DisplayName("Insolvency bulk PUT request streams NDJSON results")
+    void callInsolvencyBulkPutRequest() throws Exception {
+        mockMvc.perform(put(URL)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header("x-request-id", "5342342")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key")
+                        .header("ERIC-Authorised-Key-Privileges", "internal-app")
+                        .content("{\"company_number\":\"02588581\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+        verify(bulkInsolvencyProcessor).process(any(), any());
+    }
+
+    @Test
+    @DisplayName("Insolvency bulk PUT request fails with missing ERIC-Authorised-Key-Privileges")
+    void callInsolvencyBulkPutRequestMissingAuthorisation() throws Exception {
+        mockMvc.perform(put(URL)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header("x-request-id", "5342342")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key")
+                        .content("{\"company_number\":\"02588581\"}\n"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(bulkInsolvencyProcessor);
+    }
+
+    @Test
+    @DisplayName("Insolvency batch GET request reads comma separated company numbers")
+    void callInsolvencyBatchGetRequest() throws Exception {
+        mockMvc.perform(get(URL)
+                        .param("company_number", "02588581,02588582")
+                        .header("x-request-id", "5342342")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+        verify(bulkInsolvencyProcessor).retrieve(eq(List.of("02588581", "02588582")), any());
+    }
+
+    @Test
+    @DisplayName("Insolvency batch GET request returns 502 when MongoDB fails before anything is sent")
+    void callInsolvencyBatchGetRequestMongoFailure() throws Exception {
+        doThrow(new BadGatewayException("Failed to access MongoDB", null))
+                .when(bulkInsolvencyProcessor).retrieve(any(), any());
+
+        mockMvc.perform(get(URL)
+                        .param("company_number", "02588581")
+                        .header("x-request-id", "5342342")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key"))
+                .andExpect(status().isBadGateway());
+    }
+
+    @Test
+    @DisplayName("Insolvency export request resumes after the given company number")
+    void callInsolvencyExportRequest() throws Exception {
+        mockMvc.perform(get("/company/insolvency/export")
+                        .param("after", "02588581")
+                        .header("x-request-id", "5342342")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key")
+                        .header("ERIC-Authorised-Key-Privileges", "internal-app"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+
+        verify(insolvencyExporter).export(eq("02588581"), any());
+    }
+
+    @Test
+    @DisplayName("Insolvency export request fails without internal app privileges")
+    void callInsolvencyExportRequestWithoutPrivileges() throws Exception {
+        mockMvc.perform(get("/company/insolvency/export")
+                        .header("x-request-id", "5342342")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "oauth2"))
+                .andExpect(status().isForbidden());
+
+        verify(insolvencyExporter, never()).export(isNull(), any());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/company/insolvency/%65xport", "/company/insolvency/export;x=1"})
+    @DisplayName("Insolvency export request by another spelling of the path fails without internal app privileges")
+    void callInsolvencyExportRequestByOtherPathWithoutPrivileges(String path) throws Exception {
+        mockMvc.perform(get(URI.create(path))
+                        .header("x-request-id", "5342342")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key"))
+                .andExpect(status().isForbidden());
+
+        verify(insolvencyExporter, never()).export(any(), any());
+    }
+}
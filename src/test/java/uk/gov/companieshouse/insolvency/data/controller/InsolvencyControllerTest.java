@@ -1,15 +1,22 @@
 package uk.gov.companieshouse.insolvency.data.controller;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.options;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -18,10 +25,13 @@ import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import java.util.Optional;
+import org.bson.BsonTimestamp;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -39,6 +49,7 @@ import uk.gov.companieshouse.insolvency.data.exceptions.BadRequestException;
 import uk.gov.companieshouse.insolvency.data.exceptions.ConflictException;
 import uk.gov.companieshouse.insolvency.data.exceptions.DocumentNotFoundException;
 import uk.gov.companieshouse.insolvency.data.exceptions.InternalServerErrorException;
+import uk.gov.companieshouse.insolvency.data.model.CausalConsistencyToken;
 import uk.gov.companieshouse.insolvency.data.service.InsolvencyServiceImpl;
 
 @ExtendWith(SpringExtension.class)
@@ -242,6 +253,23 @@ class InsolvencyControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("Insolvency DELETE request returns a causal consistency token when GETs read secondaries")
+    void callInsolvencyDeleteRequestReturnsCausalConsistencyToken() throws Exception {
+        CausalConsistencyToken token = new CausalConsistencyToken(new BsonTimestamp(1700000000, 3), null);
+        doReturn(Optional.of(token)).when(insolvencyService).causalConsistencyToken();
+
+        mockMvc.perform(delete(URL)
+                        .contentType(APPLICATION_JSON)
+                        .header("x-request-id", "5342342")
+                        .header("X-DELTA-AT", "20241010175532456123")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key")
+                        .header("ERIC-Authorised-Key-Privileges", "internal-app"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(InsolvencyController.CAUSAL_CONSISTENCY_TOKEN_HEADER, token.encode()));
+    }
+
     @Test
     @DisplayName("Insolvency DELETE request - DocumentNotFoundException status code 404 not found")
     void callInsolvencyDeleteRequestDocumentNotFound() throws Exception {
@@ -296,7 +324,7 @@ class InsolvencyControllerTest {
     void callInsolvencyGetRequest() throws Exception {
         CompanyInsolvency companyInsolvency = new CompanyInsolvency();
         doReturn(companyInsolvency)
-                .when(insolvencyService).retrieveCompanyInsolvency(anyString());
+                .when(insolvencyService).retrieveCompanyInsolvency(anyString(), isNull());
 
         mockMvc.perform(get(URL)
                         .contentType(APPLICATION_JSON)
@@ -311,7 +339,7 @@ class InsolvencyControllerTest {
     void callInsolvencyGetRequestOauth2() throws Exception {
         CompanyInsolvency companyInsolvency = new CompanyInsolvency();
         doReturn(companyInsolvency)
-                .when(insolvencyService).retrieveCompanyInsolvency(anyString());
+                .when(insolvencyService).retrieveCompanyInsolvency(anyString(), isNull());
 
         mockMvc.perform(get(URL)
                         .contentType(APPLICATION_JSON)
@@ -321,11 +349,114 @@ class InsolvencyControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    @DisplayName("Insolvency GET request returns the stored etag as the ETag header")
+    void callInsolvencyGetRequestReturnsEtag() throws Exception {
+        CompanyInsolvency companyInsolvency = new CompanyInsolvency();
+        companyInsolvency.setEtag("etag-1");
+        doReturn(companyInsolvency)
+                .when(insolvencyService).retrieveCompanyInsolvency(anyString(), isNull());
+
+        mockMvc.perform(get(URL)
+                        .contentType(APPLICATION_JSON)
+                        .header("x-request-id", "5342342")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"etag-1\""));
+        verify(insolvencyService, never()).retrieveEtag(anyString());
+    }
+
+    @Test
+    @DisplayName("Insolvency GET request with matching If-None-Match - status code 304 not modified")
+    void callInsolvencyGetRequestNotModified() throws Exception {
+        doReturn(Optional.of("etag-1"))
+                .when(insolvencyService).retrieveEtag(COMPANY_NUMBER);
+
+        mockMvc.perform(get(URL)
+                        .contentType(APPLICATION_JSON)
+                        .header("x-request-id", "5342342")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"etag-1\"")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"etag-1\""))
+                .andExpect(content().string(""));
+        verify(insolvencyService, never()).retrieveCompanyInsolvency(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Insolvency GET request with stale If-None-Match returns the data")
+    void callInsolvencyGetRequestModified() throws Exception {
+        CompanyInsolvency companyInsolvency = new CompanyInsolvency();
+        companyInsolvency.setEtag("etag-2");
+        doReturn(Optional.of("etag-2"))
+                .when(insolvencyService).retrieveEtag(COMPANY_NUMBER);
+        doReturn(companyInsolvency)
+                .when(insolvencyService).retrieveCompanyInsolvency(COMPANY_NUMBER, null);
+
+        mockMvc.perform(get(URL)
+                        .contentType(APPLICATION_JSON)
+                        .header("x-request-id", "5342342")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"etag-1\"")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"etag-2\""));
+    }
+
+    @Test
+    @DisplayName("Insolvency GET request with If-None-Match for a missing document - status code 404")
+    void callInsolvencyGetRequestConditionalDocumentNotFound() throws Exception {
+        doThrow(new DocumentNotFoundException("Document not found"))
+                .when(insolvencyService).retrieveCompanyInsolvency(anyString(), isNull());
+
+        mockMvc.perform(get(URL)
+                        .contentType(APPLICATION_JSON)
+                        .header("x-request-id", "5342342")
+                        .header(HttpHeaders.IF_NONE_MATCH, "*")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @DisplayName("Insolvency GET request with a causal consistency token reads after it")
+    void callInsolvencyGetRequestWithCausalConsistencyToken() throws Exception {
+        CausalConsistencyToken token = new CausalConsistencyToken(new BsonTimestamp(1700000000, 3), null);
+        doReturn(new CompanyInsolvency())
+                .when(insolvencyService).retrieveCompanyInsolvency(eq(COMPANY_NUMBER), any());
+
+        mockMvc.perform(get(URL)
+                        .contentType(APPLICATION_JSON)
+                        .header("x-request-id", "5342342")
+                        .header(InsolvencyController.CAUSAL_CONSISTENCY_TOKEN_HEADER, token.encode())
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key"))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<CausalConsistencyToken> tokenCaptor = ArgumentCaptor.forClass(CausalConsistencyToken.class);
+        verify(insolvencyService).retrieveCompanyInsolvency(eq(COMPANY_NUMBER), tokenCaptor.capture());
+        assertEquals(token.getOperationTime(), tokenCaptor.getValue().getOperationTime());
+    }
+
+    @Test
+    @DisplayName("Insolvency GET request with a malformed causal consistency token - status code 400")
+    void callInsolvencyGetRequestWithMalformedCausalConsistencyToken() throws Exception {
+        mockMvc.perform(get(URL)
+                        .contentType(APPLICATION_JSON)
+                        .header("x-request-id", "5342342")
+                        .header(InsolvencyController.CAUSAL_CONSISTENCY_TOKEN_HEADER, "not-a-token")
+                        .header("ERIC-Identity", "SOME_IDENTITY")
+                        .header("ERIC-Identity-Type", "key"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("Insolvency GET request - DocumentNotFoundException status code 404 resource not found")
     void callInsolvencyGetRequestDocumentnotFound() throws Exception {
         doThrow(new DocumentNotFoundException("Document not found"))
-                .when(insolvencyService).retrieveCompanyInsolvency(anyString());
+                .when(insolvencyService).retrieveCompanyInsolvency(anyString(), isNull());
 
         mockMvc.perform(get(URL)
                         .contentType(APPLICATION_JSON)
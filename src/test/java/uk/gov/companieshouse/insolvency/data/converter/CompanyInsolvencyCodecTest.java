@@ -0,0 +1,172 @@
+package uk.gov.companieshouse.insolvency.data.converter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mongodb.BasicDBObject;
+import com.mongodb.MongoClientSettings;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.HexFormat;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.ByteBuf;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+import uk.gov.companieshouse.api.insolvency.InternalCompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.serialization.CustomStringSerializer;
+import uk.gov.companieshouse.insolvency.data.serialization.LocalDateDeSerializer;
+import uk.gov.companieshouse.insolvency.data.serialization.LocalDateSerializer;
+import uk.gov.companieshouse.insolvency.data.util.DateTimeFormatter;
+
+class CompanyInsolvencyCodecTest {
+
+    private CompanyInsolvencyCodec codec;
+    private ObjectMapper legacyMapper;
+    private CompanyInsolvency companyInsolvency;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        codec = new CompanyInsolvencyCodec(mongoDbObjectMapper(new LocalDateSerializer()));
+        legacyMapper = mongoDbObjectMapper(new IsoDateSerializer());
+
+        ObjectMapper apiMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        try (InputStream input = new ClassPathResource("/json/input/case_type_compulsory_liquidation.json")
+                .getInputStream()) {
+            companyInsolvency = apiMapper.readValue(input, InternalCompanyInsolvency.class).getExternalData();
+        }
+    }
+
+    @Test
+    void shouldEncodeSameBytesAsLegacyJsonRoundTrip() throws IOException {
+        assertArrayEquals(legacyBytes(companyInsolvency), toBytes(codec.toBsonDocument(companyInsolvency)));
+    }
+
+    @Test
+    void shouldEncodeSameBytesAsLegacyJsonRoundTripWhenEtagIsBlank() throws IOException {
+        companyInsolvency.setEtag("   ");
+
+        BsonDocument actual = codec.toBsonDocument(companyInsolvency);
+
+        assertFalse(actual.containsKey("etag"));
+        assertArrayEquals(legacyBytes(companyInsolvency), toBytes(actual));
+    }
+
+    @Test
+    void shouldEncodeEmptyDocument() throws IOException {
+        CompanyInsolvency empty = new CompanyInsolvency();
+
+        assertArrayEquals(legacyBytes(empty), toBytes(codec.toBsonDocument(empty)));
+    }
+
+    @Test
+    void shouldWriteDatesAsBsonDates() {
+        BsonDocument actual = codec.toBsonDocument(companyInsolvency);
+
+        BsonDocument date = actual.getArray("cases").get(0).asDocument()
+                .getArray("dates").get(0).asDocument();
+        assertEquals(LocalDate.of(2022, 1, 1).toEpochDay() * 86_400_000L,
+                date.getDateTime("date").getValue());
+    }
+
+    @Test
+    void shouldDecodeEncodedDocumentFromReader() {
+        BsonDocument encoded = codec.toBsonDocument(companyInsolvency);
+
+        CompanyInsolvency actual = codec.decode(new BsonDocumentReader(encoded), DecoderContext.builder().build());
+
+        assertEquals(companyInsolvency, actual);
+    }
+
+    @Test
+    void shouldDecodeEncodedDocumentFromDriverDocument() {
+        BsonDocument encoded = codec.toBsonDocument(companyInsolvency);
+        Document document = new DocumentCodec().decode(new BsonDocumentReader(encoded),
+                DecoderContext.builder().build());
+
+        assertEquals(companyInsolvency, codec.decode(document));
+    }
+
+    @Test
+    void shouldHashStoredEncodingWithoutEtag() throws NoSuchAlgorithmException {
+        companyInsolvency.setEtag("first-etag");
+        String hash = codec.contentHash(companyInsolvency);
+
+        BsonDocument withoutEtag = codec.toBsonDocument(companyInsolvency);
+        withoutEtag.remove("etag");
+        byte[] expected = MessageDigest.getInstance("SHA-256").digest(toBytes(withoutEtag));
+        assertEquals(HexFormat.of().formatHex(expected), hash);
+
+        companyInsolvency.setEtag("second-etag");
+        assertEquals(hash, codec.contentHash(companyInsolvency));
+    }
+
+    @Test
+    void shouldHashChangedDataDifferently() {
+        String hash = codec.contentHash(companyInsolvency);
+
+        companyInsolvency.getCases().get(0).getPractitioners().clear();
+
+        assertNotEquals(hash, codec.contentHash(companyInsolvency));
+    }
+
+    private byte[] legacyBytes(CompanyInsolvency source) throws IOException {
+        BasicDBObject legacy = BasicDBObject.parse(legacyMapper.writeValueAsString(source));
+        return toBytes(legacy.toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry()));
+    }
+
+    private static byte[] toBytes(BsonDocument document) {
+        ByteBuf buffer = new RawBsonDocument(document, new BsonDocumentCodec()).getByteBuffer();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static ObjectMapper mongoDbObjectMapper(JsonSerializer<LocalDate> localDateSerializer) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        objectMapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        objectMapper.setSerializationInclusion(JsonInclude.Include.NON_EMPTY);
+        SimpleModule module = new SimpleModule();
+        module.addSerializer(LocalDate.class, localDateSerializer);
+        module.addDeserializer(LocalDate.class, new LocalDateDeSerializer());
+        module.addSerializer(String.class, new CustomStringSerializer());
+        objectMapper.registerModule(module);
+        return objectMapper;
+    }
+
+    /**
+     * The shell style date previously written into the JSON string before parsing it into BSON.
+     */
+    private static class IsoDateSerializer extends JsonSerializer<LocalDate> {
+
+        @Override
+        public void serialize(LocalDate localDate, JsonGenerator jsonGenerator,
+                SerializerProvider serializerProvider) throws IOException {
+            jsonGenerator.writeRawValue("ISODate(\"" + DateTimeFormatter.format(localDate) + "\")");
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package uk.gov.companieshouse.insolvency.data.converter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.TypeDescriptor;
+import uk.gov.companieshouse.insolvency.data.exceptions.InternalServerErrorException;
+
+class EnumConvertersTest {
+
+    private final EnumConverters.StringToEnum stringToEnum = new EnumConverters.StringToEnum();
+    private final EnumConverters.EnumToString enumToString = new EnumConverters.EnumToString();
+
+    @Test
+    void convertStringToEnumUsingFromValue() {
+        Object result = stringToEnum.convert("second-value",
+                TypeDescriptor.valueOf(String.class), TypeDescriptor.valueOf(ValueEnum.class));
+
+        assertSame(ValueEnum.SECOND, result);
+    }
+
+    @Test
+    void convertStringToEnumRepeatedlyReturnsSameConstant() {
+        TypeDescriptor targetType = TypeDescriptor.valueOf(ValueEnum.class);
+
+        for (ValueEnum constant : ValueEnum.values()) {
+            assertSame(constant, stringToEnum.convert(constant.getValue(),
+                    TypeDescriptor.valueOf(String.class), targetType));
+            assertSame(constant, stringToEnum.convert(constant.getValue(),
+                    TypeDescriptor.valueOf(String.class), targetType));
+        }
+    }
+
+    @Test
+    void convertUnknownStringToEnumThrowsInternalServerError() {
+        TypeDescriptor sourceType = TypeDescriptor.valueOf(String.class);
+        TypeDescriptor targetType = TypeDescriptor.valueOf(ValueEnum.class);
+
+        assertThrows(InternalServerErrorException.class,
+                () -> stringToEnum.convert("unknown", sourceType, targetType));
+    }
+
+    @Test
+    void convertStringToEnumWithoutFromValueThrowsInternalServerError() {
+        TypeDescriptor sourceType = TypeDescriptor.valueOf(String.class);
+        TypeDescriptor targetType = TypeDescriptor.valueOf(PlainEnum.class);
+
+        assertThrows(InternalServerErrorException.class,
+                () -> stringToEnum.convert("FIRST", sourceType, targetType));
+    }
+
+    @Test
+    void convertEnumToStringUsingGetValue() {
+        Object result = enumToString.convert(ValueEnum.FIRST,
+                TypeDescriptor.valueOf(ValueEnum.class), TypeDescriptor.valueOf(String.class));
+
+        assertEquals("first-value", result);
+    }
+
+    @Test
+    void convertEnumToStringFallsBackToName() {
+        Object result = enumToString.convert(PlainEnum.SECOND,
+                TypeDescriptor.valueOf(PlainEnum.class), TypeDescriptor.valueOf(String.class));
+
+        assertEquals("SECOND", result);
+    }
+
+    enum ValueEnum {
+        FIRST("first-value"),
+        SECOND("second-value");
+
+        private final String value;
+
+        ValueEnum(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        public static ValueEnum fromValue(String value) {
+            for (ValueEnum constant : values()) {
+                if (constant.value.equals(value)) {
+                    return constant;
+                }
+            }
+            throw new IllegalArgumentException("Unexpected value '" + value + "'");
+        }
+    }
+
+    enum PlainEnum {
+        FIRST,
+        SECOND
+    }
+}
@@ -1,19 +1,21 @@
 package uk.gov.companieshouse.insolvency.data.serialization;
 
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationContext;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import java.io.IOException;
 import java.time.LocalDate;
-import org.junit.jupiter.api.Assertions;
+import java.util.Date;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.companieshouse.insolvency.data.exceptions.InternalServerErrorException;
 import uk.gov.companieshouse.insolvency.data.util.DateTimeFormatter;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,47 +23,71 @@ class LocalDateDeSerializerTest {
 
     private static final String DATE_STRING = "2015-06-26T08:31:35.058Z";
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     @Mock
     private DeserializationContext deserializationContext;
-    @Mock
-    private JsonParser jsonParser;
-    @Mock
-    private JsonNode jsonNode;
 
     private LocalDateDeSerializer deserializer;
 
     @BeforeEach
-    void setUp() throws IOException {
+    void setUp() {
         deserializer = new LocalDateDeSerializer();
-        when(jsonParser.readValueAsTree()).thenReturn(jsonNode);
     }
 
     @Test
     void testDeserializeTextValue() throws IOException {
-        when(jsonNode.get(any())).thenReturn(null);
-        when(jsonNode.textValue()).thenReturn(DATE_STRING);
-        LocalDate localDate = deserializer.deserialize(jsonParser, deserializationContext);
+        LocalDate localDate = deserialize("\"" + DATE_STRING + "\"");
 
-        Assertions.assertEquals(DateTimeFormatter.parse(DATE_STRING), localDate);
+        assertEquals(DateTimeFormatter.parse(DATE_STRING), localDate);
     }
 
     @Test
     void testDeserializeJsonNodeTextualValue() throws IOException {
-        when(jsonNode.get(any())).thenReturn(jsonNode);
-        when(jsonNode.isTextual()).thenReturn(true);
-        when(jsonNode.textValue()).thenReturn(DATE_STRING);
-        LocalDate localDate = deserializer.deserialize(jsonParser, deserializationContext);
+        LocalDate localDate = deserialize("{\"$date\": \"" + DATE_STRING + "\"}");
 
-        Assertions.assertEquals(DateTimeFormatter.parse(DATE_STRING), localDate);
+        assertEquals(DateTimeFormatter.parse(DATE_STRING), localDate);
     }
 
     @Test
     void testDeserializeJsonNodeLongValue() throws IOException {
-        when(jsonNode.get(any())).thenReturn(jsonNode);
-        when(jsonNode.isTextual()).thenReturn(false);
-        when(jsonNode.asLong()).thenReturn(1435308155000L);
-        LocalDate localDate = deserializer.deserialize(jsonParser, deserializationContext);
+        LocalDate localDate = deserialize("{\"$date\": {\"$numberLong\": \"1435308155000\"}}");
+
+        assertEquals(DateTimeFormatter.parse(DATE_STRING), localDate);
+    }
+
+    @Test
+    void testDeserializeJsonNodeLongValueBeforeEpoch() throws IOException {
+        LocalDate localDate = deserialize("{\"$date\": {\"$numberLong\": \"-1\"}}");
+
+        assertEquals(LocalDate.of(1969, 12, 31), localDate);
+    }
+
+    @Test
+    void testDeserializeEmbeddedDate() throws IOException {
+        TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+        buffer.writeEmbeddedObject(new Date(1435308155000L));
+
+        try (JsonParser jsonParser = buffer.asParser()) {
+            jsonParser.nextToken();
+            assertEquals(LocalDate.of(2015, 6, 26), deserializer.deserialize(jsonParser, deserializationContext));
+        }
+    }
+
+    @Test
+    void testDeserializeObjectWithoutDateThrowsInternalServerError() {
+        assertThrows(InternalServerErrorException.class, () -> deserialize("{\"date\": \"" + DATE_STRING + "\"}"));
+    }
+
+    @Test
+    void testDeserializeInvalidTextThrowsInternalServerError() {
+        assertThrows(InternalServerErrorException.class, () -> deserialize("\"26 June 2015\""));
+    }
 
-        Assertions.assertEquals(DateTimeFormatter.parse(DATE_STRING), localDate);
+    private LocalDate deserialize(String json) throws IOException {
+        try (JsonParser jsonParser = objectMapper.createParser(json)) {
+            jsonParser.nextToken();
+            return deserializer.deserialize(jsonParser, deserializationContext);
+        }
     }
-}
\ No newline at end of file
+}
@@ -5,6 +5,7 @@ import static org.mockito.Mockito.verify;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import java.io.IOException;
+import java.time.LocalDate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -33,7 +34,7 @@ class LocalDateSerializerTest {
     void testSerialiseValidValue() throws IOException {
         serializer.serialize(DateTimeFormatter.parse(DATE_STRING), jsonGenerator, serializerProvider);
 
-        verify(jsonGenerator).writeRawValue("ISODate(\"2015-06-26T00:00:00Z\")");
+        verify(jsonGenerator).writeEmbeddedObject(LocalDate.of(2015, 6, 26));
     }
 
     @Test
@@ -0,0 +1,71 @@
+package uk.gov.companieshouse.insolvency.data.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import org.bson.BsonDocument;
+import org.bson.BsonNull;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+import uk.gov.companieshouse.api.insolvency.InternalCompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.config.ApplicationConfig;
+import uk.gov.companieshouse.insolvency.data.converter.CompanyInsolvencyCodec;
+import uk.gov.companieshouse.insolvency.data.model.RawCompanyInsolvency;
+
+class RawCompanyInsolvencyHttpMessageConverterTest {
+
+    private final ApplicationConfig applicationConfig = new ApplicationConfig();
+    private final ObjectMapper objectMapper = applicationConfig.objectMapper();
+    private final CompanyInsolvencyCodec codec = applicationConfig.companyInsolvencyCodec();
+    private final RawCompanyInsolvencyHttpMessageConverter converter =
+            new RawCompanyInsolvencyHttpMessageConverter(objectMapper.getFactory());
+
+    @ParameterizedTest
+    @ValueSource(strings = {"case_type_compulsory_liquidation", "case_type_compulsory_liquidation_no_status",
+            "case_type_receivership"})
+    void shouldWriteSameBytesAsBoundModel(String fixture) throws IOException {
+        CompanyInsolvency companyInsolvency = readFixture(fixture);
+        RawBsonDocument stored = new RawBsonDocument(codec.toBsonDocument(companyInsolvency),
+                new BsonDocumentCodec());
+        byte[] expected = objectMapper.writeValueAsBytes(codec.decode(stored.asBsonReader(),
+                DecoderContext.builder().build()));
+
+        assertArrayEquals(expected, write(stored));
+    }
+
+    @Test
+    void shouldOmitNullFields() throws IOException {
+        BsonDocument stored = codec.toBsonDocument(readFixture("case_type_compulsory_liquidation"));
+        stored.put("etag", BsonNull.VALUE);
+
+        String actual = new String(write(stored), StandardCharsets.UTF_8);
+
+        assertFalse(actual.contains("etag"));
+        assertTrue(actual.contains("\"date\":\"2022-01-01\""));
+    }
+
+    private byte[] write(BsonDocument stored) throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+        converter.write(new RawCompanyInsolvency(stored), MediaType.APPLICATION_JSON, outputMessage);
+        return outputMessage.getBodyAsBytes();
+    }
+
+    private CompanyInsolvency readFixture(String fixture) throws IOException {
+        try (InputStream input = new ClassPathResource("/json/input/" + fixture + ".json").getInputStream()) {
+            return objectMapper.readValue(input, InternalCompanyInsolvency.class).getExternalData();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadRequestException;
+import uk.gov.companieshouse.insolvency.data.model.BulkInsolvencyRecord;
+import uk.gov.companieshouse.insolvency.data.model.BulkPutStatus;
+import uk.gov.companieshouse.insolvency.data.model.BulkPutSummary;
+import uk.gov.companieshouse.insolvency.data.model.InsolvencyDocument;
+
+@ExtendWith(MockitoExtension.class)
+class BulkInsolvencyProcessorTest {
+
+    private static final String VALID_LINE = """
+            {"company_number":"%s","internal_data":{"delta_at":"2022-10-08T15:28:23.383176Z"},\
+            "external_data":{"etag":"etag"}}""";
+
+    @Mock
+    private InsolvencyService insolvencyService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private BulkInsolvencyProcessor underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new BulkInsolvencyProcessor(insolvencyService, objectMapper, validatorFactory.getValidator(),
+                meterRegistry, 2, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Test
+    void shouldWriteResultPerLineInOrderAndSummaryLast() throws IOException {
+        String body = String.join("\n",
+                VALID_LINE.formatted("00000001"),
+                "{not json",
+                "",
+                "{\"internal_data\":{\"delta_at\":\"2022-10-08T15:28:23.383176Z\"},\"external_data\":{}}",
+                VALID_LINE.formatted("00000002"),
+                VALID_LINE.formatted("00000003"));
+        when(insolvencyService.processInsolvencies(any()))
+                .thenReturn(List.of(BulkPutStatus.OK, BulkPutStatus.STALE))
+                .thenReturn(List.of(BulkPutStatus.OK));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        BulkPutSummary summary = underTest.process(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output);
+
+        List<JsonNode> lines = readLines(output);
+        assertThat(lines).hasSize(6);
+        assertThat(lines.get(0).get("line").asInt()).isEqualTo(1);
+        assertThat(lines.get(0).get("company_number").asText()).isEqualTo("00000001");
+        assertThat(lines.get(0).get("result").asText()).isEqualTo("ok");
+        assertThat(lines.get(1).get("line").asInt()).isEqualTo(2);
+        assertThat(lines.get(1).get("result").asText()).isEqualTo("invalid");
+        assertThat(lines.get(1).get("message").asText()).startsWith("Malformed JSON");
+        assertThat(lines.get(2).get("line").asInt()).isEqualTo(4);
+        assertThat(lines.get(2).get("result").asText()).isEqualTo("invalid");
+        assertThat(lines.get(3).get("company_number").asText()).isEqualTo("00000002");
+        assertThat(lines.get(3).get("result").asText()).isEqualTo("stale");
+        assertThat(lines.get(4).get("company_number").asText()).isEqualTo("00000003");
+        assertThat(lines.get(4).get("result").asText()).isEqualTo("ok");
+        assertThat(lines.get(5).get("records").asInt()).isEqualTo(5);
+        assertThat(lines.get(5).has("records_per_second")).isTrue();
+
+        assertThat(summary.getOk()).isEqualTo(2);
+        assertThat(summary.getStale()).isEqualTo(1);
+        assertThat(summary.getInvalid()).isEqualTo(2);
+        assertThat(meterRegistry.get("insolvency.bulk.records").tag("result", "invalid").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void shouldHandValidRecordsToServiceInChunks() throws IOException {
+        String body = String.join("\n", VALID_LINE.formatted("00000001"), VALID_LINE.formatted("00000002"),
+                VALID_LINE.formatted("00000003")) + "\n";
+        when(insolvencyService.processInsolvencies(any()))
+                .thenAnswer(invocation -> invocation.<List<?>>getArgument(0).stream()
+                        .map(insolvencyRecord -> BulkPutStatus.OK)
+                        .toList());
+
+        underTest.process(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)),
+                new ByteArrayOutputStream());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BulkInsolvencyRecord>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(insolvencyService, times(2)).processInsolvencies(chunks.capture());
+        assertThat(chunks.getAllValues()).extracting(List::size).containsExactly(2, 1);
+        assertThat(chunks.getAllValues().get(0).get(0).getInternalData().getDeltaAt()).isNotNull();
+    }
+
+    @Test
+    void shouldWriteOnlySummaryForEmptyBody() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        BulkPutSummary summary = underTest.process(new ByteArrayInputStream(new byte[0]), output);
+
+        assertThat(summary.getRecords()).isZero();
+        assertThat(readLines(output)).hasSize(1);
+    }
+
+    @Test
+    void shouldWriteFoundItemsAndMissingCompanyNumbers() throws IOException {
+        CompanyInsolvency companyInsolvency = new CompanyInsolvency();
+        companyInsolvency.setEtag("etag");
+        when(insolvencyService.retrieveCompanyInsolvencies(List.of("00000001", "00000002")))
+                .thenReturn(Stream.of(new InsolvencyDocument("00000002", companyInsolvency, null, null, null)));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        underTest.retrieve(List.of("00000001", "00000002", " ", "00000001"), output);
+
+        JsonNode actual = objectMapper.readTree(output.toByteArray());
+        assertThat(actual.get("items").get("00000002"))
+                .isEqualTo(objectMapper.valueToTree(companyInsolvency));
+        assertThat(actual.get("items").size()).isOne();
+        assertThat(actual.get("missing")).containsExactly(TextNode.valueOf("00000001"));
+    }
+
+    @Test
+    void shouldLeaveJsonUnfinishedWhenCursorFailsPartWay() {
+        CompanyInsolvency companyInsolvency = new CompanyInsolvency();
+        when(insolvencyService.retrieveCompanyInsolvencies(List.of("00000001", "00000002")))
+                .thenReturn(Stream.concat(
+                        Stream.of(new InsolvencyDocument("00000001", companyInsolvency, null, null, null)),
+                        Stream.<InsolvencyDocument>generate(() -> {
+                            throw new DataAccessResourceFailureException("Cursor lost");
+                        })));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        assertThrows(BadGatewayException.class,
+                () -> underTest.retrieve(List.of("00000001", "00000002"), output));
+
+        assertThat(output.toString(StandardCharsets.UTF_8))
+                .startsWith("{\"items\":{\"00000001\":")
+                .doesNotContain("missing");
+    }
+
+    @Test
+    void shouldRejectTooManyCompanyNumbers() {
+        List<String> companyNumbers = List.of("00000001", "00000002", "00000003", "00000004");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertThrows(BadRequestException.class, () -> underTest.retrieve(companyNumbers, output));
+        verifyNoInteractions(insolvencyService);
+        assertThat(output.size()).isZero();
+    }
+
+    private List<JsonNode> readLines(ByteArrayOutputStream output) throws IOException {
+        List<JsonNode> lines = new ArrayList<>();
+        String text = output.toString(StandardCharsets.UTF_8);
+        assertThat(text).endsWith("\n");
+        for (String line : text.split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
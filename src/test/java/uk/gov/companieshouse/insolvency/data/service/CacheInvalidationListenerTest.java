@@ -0,0 +1,173 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import uk.gov.companieshouse.insolvency.data.model.CacheResumeToken;
+import uk.gov.companieshouse.insolvency.data.repository.CacheResumeTokenRepository;
+import uk.gov.companieshouse.insolvency.data.repository.InsolvencyRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidationListenerTest {
+
+    private static final String NODE_ID = "node-1";
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final BsonDocument STORED_TOKEN = new BsonDocument("_data", new BsonString("stored"));
+    private static final BsonDocument NEXT_TOKEN = new BsonDocument("_data", new BsonString("next"));
+
+    @Mock
+    private InsolvencyRepository insolvencyRepository;
+    @Mock
+    private CacheResumeTokenRepository cacheResumeTokenRepository;
+    @Mock
+    private CompanyInsolvencyCache companyInsolvencyCache;
+    @Mock
+    private CompanyNumberBloomFilter companyNumberBloomFilter;
+    @Mock
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CacheInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new CacheInvalidationListener(insolvencyRepository, cacheResumeTokenRepository,
+                companyInsolvencyCache, companyNumberBloomFilter, meterRegistry, NODE_ID, Duration.ofMillis(10),
+                Duration.ZERO, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void shouldFlushWhenStartingWithoutTokenThenEvictChangedCompanies() {
+        when(cacheResumeTokenRepository.findById(NODE_ID)).thenReturn(Optional.empty());
+        when(insolvencyRepository.watchChanges(isNull(), any())).thenReturn(cursor);
+        ChangeStreamDocument<Document> change = change(OperationType.UPDATE);
+        when(cursor.tryNext()).thenReturn(change).thenAnswer(invocation -> stop());
+        when(cursor.getResumeToken()).thenReturn(NEXT_TOKEN);
+
+        listener.listen();
+
+        verify(companyInsolvencyCache).invalidateAll();
+        verify(companyInsolvencyCache).invalidate(COMPANY_NUMBER);
+        verify(companyNumberBloomFilter).requestRebuild();
+        verify(companyNumberBloomFilter).add(COMPANY_NUMBER);
+        verify(cursor).close();
+        ArgumentCaptor<CacheResumeToken> tokenCaptor = ArgumentCaptor.forClass(CacheResumeToken.class);
+        verify(cacheResumeTokenRepository).save(tokenCaptor.capture());
+        assertThat(tokenCaptor.getValue().getNodeId()).isEqualTo(NODE_ID);
+        assertThat(BsonDocument.parse(tokenCaptor.getValue().getResumeToken())).isEqualTo(NEXT_TOKEN);
+        assertThat(meterRegistry.counter("insolvency.cache.invalidations").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldResumeAfterStoredTokenWithoutFlushing() {
+        when(cacheResumeTokenRepository.findById(NODE_ID)).thenReturn(Optional.of(
+                new CacheResumeToken(NODE_ID, STORED_TOKEN.toJson(), Instant.now())));
+        when(insolvencyRepository.watchChanges(eq(STORED_TOKEN), any())).thenReturn(cursor);
+        when(cursor.tryNext()).thenAnswer(invocation -> stop());
+        when(cursor.getResumeToken()).thenReturn(STORED_TOKEN);
+
+        listener.listen();
+
+        verify(companyInsolvencyCache, never()).invalidateAll();
+        verify(companyNumberBloomFilter).requestRebuild();
+        verify(cacheResumeTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldFlushAndStartFromNowWhenResumeTokenIsLost() {
+        when(cacheResumeTokenRepository.findById(NODE_ID)).thenReturn(Optional.of(
+                new CacheResumeToken(NODE_ID, STORED_TOKEN.toJson(), Instant.now())));
+        when(insolvencyRepository.watchChanges(eq(STORED_TOKEN), any()))
+                .thenThrow(new MongoException(286, "Change stream history lost"));
+        when(insolvencyRepository.watchChanges(isNull(), any())).thenReturn(cursor);
+        when(cursor.tryNext()).thenAnswer(invocation -> stop());
+
+        listener.listen();
+
+        verify(companyInsolvencyCache).invalidateAll();
+        assertThat(meterRegistry.counter("insolvency.cache.change-stream.errors").count()).isZero();
+    }
+
+    @Test
+    void shouldRetryWithSameTokenAfterTransientError() {
+        when(cacheResumeTokenRepository.findById(NODE_ID)).thenReturn(Optional.of(
+                new CacheResumeToken(NODE_ID, STORED_TOKEN.toJson(), Instant.now())));
+        when(insolvencyRepository.watchChanges(eq(STORED_TOKEN), any()))
+                .thenThrow(new MongoException("Connection reset"))
+                .thenReturn(cursor);
+        when(cursor.tryNext()).thenAnswer(invocation -> stop());
+
+        listener.listen();
+
+        verify(insolvencyRepository, times(2)).watchChanges(eq(STORED_TOKEN), any());
+        verify(companyInsolvencyCache, never()).invalidateAll();
+        assertThat(meterRegistry.counter("insolvency.cache.change-stream.errors").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFlushAndReopenWhenStreamIsInvalidated() {
+        when(cacheResumeTokenRepository.findById(NODE_ID)).thenReturn(Optional.of(
+                new CacheResumeToken(NODE_ID, STORED_TOKEN.toJson(), Instant.now())));
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> reopened = mock(MongoChangeStreamCursor.class);
+        when(insolvencyRepository.watchChanges(eq(STORED_TOKEN), any())).thenReturn(cursor);
+        when(insolvencyRepository.watchChanges(isNull(), any())).thenReturn(reopened);
+        ChangeStreamDocument<Document> invalidate = mock(ChangeStreamDocument.class);
+        when(invalidate.getOperationType()).thenReturn(OperationType.INVALIDATE);
+        when(cursor.tryNext()).thenReturn(invalidate);
+        when(reopened.tryNext()).thenAnswer(invocation -> stop());
+
+        listener.listen();
+
+        verify(companyInsolvencyCache).invalidateAll();
+        verify(cursor).close();
+    }
+
+    @Test
+    void shouldEvictDeletedCompanyWithoutAddingItToBloomFilter() {
+        when(cacheResumeTokenRepository.findById(NODE_ID)).thenReturn(Optional.empty());
+        when(insolvencyRepository.watchChanges(isNull(), any())).thenReturn(cursor);
+        ChangeStreamDocument<Document> change = change(OperationType.DELETE);
+        when(cursor.tryNext()).thenReturn(change).thenAnswer(invocation -> stop());
+
+        listener.listen();
+
+        verify(companyInsolvencyCache).invalidate(COMPANY_NUMBER);
+        verify(companyNumberBloomFilter, never()).add(any());
+    }
+
+    private ChangeStreamDocument<Document> change(OperationType operationType) {
+        ChangeStreamDocument<Document> change = mock(ChangeStreamDocument.class);
+        when(change.getOperationType()).thenReturn(operationType);
+        when(change.getDocumentKey()).thenReturn(new BsonDocument("_id", new BsonString(COMPANY_NUMBER)));
+        return change;
+    }
+
+    private ChangeStreamDocument<Document> stop() {
+        listener.shutdown();
+        return null;
+    }
+}
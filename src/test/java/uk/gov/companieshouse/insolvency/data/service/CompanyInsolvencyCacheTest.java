@@ -0,0 +1,79 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+
+class CompanyInsolvencyCacheTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void shouldLoadOnceAndRecordHitsAndMisses() {
+        CompanyInsolvencyCache cache = cache(true, Duration.ofSeconds(5));
+        CompanyInsolvency companyInsolvency = new CompanyInsolvency();
+
+        cache.get(COMPANY_NUMBER, loader(Optional.of(companyInsolvency)));
+        Optional<CompanyInsolvency> actual = cache.get(COMPANY_NUMBER, loader(Optional.of(companyInsolvency)));
+
+        assertThat(actual).containsSame(companyInsolvency);
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", CompanyInsolvencyCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", CompanyInsolvencyCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCacheNotFoundUntilInvalidated() {
+        CompanyInsolvencyCache cache = cache(true, Duration.ofSeconds(5));
+
+        cache.get(COMPANY_NUMBER, loader(Optional.empty()));
+        assertThat(cache.get(COMPANY_NUMBER, loader(Optional.empty()))).isEmpty();
+        cache.invalidate(COMPANY_NUMBER);
+        cache.get(COMPANY_NUMBER, loader(Optional.empty()));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldNotKeepNotFoundWhenNegativeTtlIsZero() {
+        CompanyInsolvencyCache cache = cache(true, Duration.ZERO);
+
+        cache.get(COMPANY_NUMBER, loader(Optional.empty()));
+        cache.get(COMPANY_NUMBER, loader(Optional.empty()));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void shouldAlwaysLoadWhenDisabled() {
+        CompanyInsolvencyCache cache = cache(false, Duration.ofSeconds(5));
+
+        cache.get(COMPANY_NUMBER, loader(Optional.of(new CompanyInsolvency())));
+        cache.get(COMPANY_NUMBER, loader(Optional.of(new CompanyInsolvency())));
+
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.find("cache.gets").meters()).isEmpty();
+    }
+
+    private CompanyInsolvencyCache cache(boolean enabled, Duration negativeTtl) {
+        return new CompanyInsolvencyCache(meterRegistry, enabled, 100, Duration.ofMinutes(1), negativeTtl);
+    }
+
+    private Function<String, Optional<CompanyInsolvency>> loader(Optional<CompanyInsolvency> result) {
+        return companyNumber -> {
+            loads.incrementAndGet();
+            return result;
+        };
+    }
+}
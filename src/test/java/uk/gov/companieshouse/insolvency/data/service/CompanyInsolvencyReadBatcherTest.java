@@ -0,0 +1,131 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.model.InsolvencyDocument;
+import uk.gov.companieshouse.insolvency.data.repository.InsolvencyRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyInsolvencyReadBatcherTest {
+
+    private static final int READS = 4;
+
+    @Mock
+    private InsolvencyRepository insolvencyRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(READS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldSendFullBatchAsOneQuery() throws Exception {
+        CompanyInsolvencyReadBatcher batcher = batcher(true, Duration.ofSeconds(5));
+        when(insolvencyRepository.findDataByIdIn(anyCollection(), eq(ReadPreference.primary())))
+                .thenReturn(List.of(document("00000000"), document("00000002")));
+
+        List<Future<Optional<InsolvencyDocument>>> reads = new ArrayList<>();
+        for (int i = 0; i < READS; i++) {
+            String companyNumber = "%08d".formatted(i);
+            reads.add(executor.submit(() -> batcher.findDataById(companyNumber, ReadPreference.primary())));
+        }
+
+        assertThat(reads.get(0).get(5, TimeUnit.SECONDS)).get()
+                .extracting(InsolvencyDocument::getId).isEqualTo("00000000");
+        assertThat(reads.get(1).get(5, TimeUnit.SECONDS)).isEmpty();
+        assertThat(reads.get(2).get(5, TimeUnit.SECONDS)).get()
+                .extracting(InsolvencyDocument::getId).isEqualTo("00000002");
+        assertThat(reads.get(3).get(5, TimeUnit.SECONDS)).isEmpty();
+        ArgumentCaptor<Collection<String>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(insolvencyRepository).findDataByIdIn(ids.capture(), eq(ReadPreference.primary()));
+        assertThat(ids.getValue()).containsExactlyInAnyOrder("00000000", "00000001", "00000002", "00000003");
+        assertThat(meterRegistry.get("insolvency.get.batch.size").summary().max()).isEqualTo(READS);
+    }
+
+    @Test
+    void shouldSendPartBatchWhenWindowPasses() {
+        CompanyInsolvencyReadBatcher batcher = batcher(true, Duration.ofMillis(1));
+        when(insolvencyRepository.findDataByIdIn(Set.of("00000000"), ReadPreference.primary()))
+                .thenReturn(List.of(document("00000000")));
+
+        assertThat(batcher.findDataById("00000000", ReadPreference.primary())).isPresent();
+        assertThat(meterRegistry.counter("insolvency.get.batch.queries").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBatchReadPreferencesApart() {
+        CompanyInsolvencyReadBatcher batcher = batcher(true, Duration.ofMillis(1));
+        when(insolvencyRepository.findDataByIdIn(anyCollection(), any())).thenReturn(List.of());
+
+        batcher.findDataById("00000000", ReadPreference.primary());
+        batcher.findDataById("00000000", ReadPreference.secondaryPreferred());
+
+        verify(insolvencyRepository).findDataByIdIn(anyCollection(), eq(ReadPreference.primary()));
+        verify(insolvencyRepository).findDataByIdIn(anyCollection(), eq(ReadPreference.secondaryPreferred()));
+    }
+
+    @Test
+    void shouldThrowQueryFailureToEveryRead() {
+        CompanyInsolvencyReadBatcher batcher = batcher(true, Duration.ofMillis(1));
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("error");
+        when(insolvencyRepository.findDataByIdIn(anyCollection(), any())).thenThrow(failure);
+
+        DataAccessResourceFailureException actual = assertThrows(DataAccessResourceFailureException.class,
+                () -> batcher.findDataById("00000000", ReadPreference.primary()));
+
+        assertThat(actual).isSameAs(failure);
+    }
+
+    @Test
+    void shouldReadSinglyWhenDisabled() {
+        CompanyInsolvencyReadBatcher batcher = batcher(false, Duration.ofSeconds(5));
+        when(insolvencyRepository.findDataById("00000000", ReadPreference.primary(), null))
+                .thenReturn(Optional.empty());
+
+        batcher.findDataById("00000000", ReadPreference.primary());
+        batcher.findDataById("00000000", ReadPreference.primary());
+
+        verify(insolvencyRepository, times(2)).findDataById("00000000", ReadPreference.primary(), null);
+        verifyNoMoreInteractions(insolvencyRepository);
+    }
+
+    private CompanyInsolvencyReadBatcher batcher(boolean enabled, Duration window) {
+        return new CompanyInsolvencyReadBatcher(insolvencyRepository, meterRegistry, enabled, window, READS);
+    }
+
+    private static InsolvencyDocument document(String companyNumber) {
+        return new InsolvencyDocument(companyNumber, new CompanyInsolvency(), null, LocalDateTime.now(), "123");
+    }
+}
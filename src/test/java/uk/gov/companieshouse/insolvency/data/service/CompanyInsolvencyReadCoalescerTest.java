@@ -0,0 +1,171 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+
+class CompanyInsolvencyReadCoalescerTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final int FOLLOWERS = 8;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(FOLLOWERS + 1);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch loadStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseLoad = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        releaseLoad.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldShareOneReadBetweenConcurrentCallers() throws Exception {
+        CompanyInsolvencyReadCoalescer coalescer = coalescer(true, Duration.ofSeconds(5));
+        CompanyInsolvency companyInsolvency = new CompanyInsolvency();
+
+        Future<Optional<CompanyInsolvency>> leader = executor.submit(() ->
+                coalescer.load(COMPANY_NUMBER, blockingLoader(Optional.of(companyInsolvency))));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        List<Future<Optional<CompanyInsolvency>>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(executor.submit(() ->
+                    coalescer.load(COMPANY_NUMBER, blockingLoader(Optional.of(new CompanyInsolvency())))));
+        }
+        awaitFollowersWaiting();
+        releaseLoad.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).containsSame(companyInsolvency);
+        for (Future<Optional<CompanyInsolvency>> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).containsSame(companyInsolvency);
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(meterRegistry.counter("insolvency.get.coalescing", "result", "follower").count())
+                .isEqualTo(FOLLOWERS);
+    }
+
+    @Test
+    void shouldReadAgainWhenWaitTimesOut() throws Exception {
+        CompanyInsolvencyReadCoalescer coalescer = coalescer(true, Duration.ofMillis(10));
+
+        executor.submit(() -> coalescer.load(COMPANY_NUMBER, blockingLoader(Optional.empty())));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Optional<CompanyInsolvency> actual = coalescer.load(COMPANY_NUMBER, loader(Optional.empty()));
+
+        assertThat(actual).isEmpty();
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.counter("insolvency.get.coalescing", "result", "timeout").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldHandLeadersExceptionToFollowers() throws Exception {
+        CompanyInsolvencyReadCoalescer coalescer = coalescer(true, Duration.ofSeconds(5));
+        DataAccessResourceFailureException failure = new DataAccessResourceFailureException("error");
+
+        executor.submit(() -> coalescer.load(COMPANY_NUMBER, id -> {
+            loadStarted.countDown();
+            await(releaseLoad);
+            throw failure;
+        }));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Optional<CompanyInsolvency>> follower = executor.submit(() ->
+                coalescer.load(COMPANY_NUMBER, loader(Optional.empty())));
+        awaitFollowersWaiting(1);
+        releaseLoad.countDown();
+
+        Exception actual = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertThat(actual).hasCauseReference(failure);
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void shouldStartNewReadAfterCompanyIsForgotten() throws Exception {
+        CompanyInsolvencyReadCoalescer coalescer = coalescer(true, Duration.ofSeconds(5));
+
+        executor.submit(() -> coalescer.load(COMPANY_NUMBER, blockingLoader(Optional.empty())));
+        assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        coalescer.forget(COMPANY_NUMBER);
+        coalescer.load(COMPANY_NUMBER, loader(Optional.empty()));
+
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.counter("insolvency.get.coalescing", "result", "leader").count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReadEveryTimeWhenDisabled() {
+        CompanyInsolvencyReadCoalescer coalescer = coalescer(false, Duration.ofSeconds(5));
+
+        coalescer.load(COMPANY_NUMBER, loader(Optional.empty()));
+        coalescer.load(COMPANY_NUMBER, loader(Optional.empty()));
+
+        assertThat(loads).hasValue(2);
+        assertThat(meterRegistry.counter("insolvency.get.coalescing", "result", "leader").count()).isZero();
+    }
+
+    private CompanyInsolvencyReadCoalescer coalescer(boolean enabled, Duration timeout) {
+        return new CompanyInsolvencyReadCoalescer(meterRegistry, enabled, timeout);
+    }
+
+    private Function<String, Optional<CompanyInsolvency>> loader(Optional<CompanyInsolvency> result) {
+        return id -> {
+            loads.incrementAndGet();
+            return result;
+        };
+    }
+
+    private Function<String, Optional<CompanyInsolvency>> blockingLoader(Optional<CompanyInsolvency> result) {
+        return id -> {
+            loads.incrementAndGet();
+            loadStarted.countDown();
+            await(releaseLoad);
+            return result;
+        };
+    }
+
+    private void awaitFollowersWaiting() throws InterruptedException {
+        awaitFollowersWaiting(FOLLOWERS);
+    }
+
+    // followers are only counted once they return, so look for threads parked on the leader's future
+    private void awaitFollowersWaiting(int followers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (threadsWaitingOnFuture() < followers && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static long threadsWaitingOnFuture() {
+        return Thread.getAllStackTraces().values().stream()
+                .filter(stack -> Arrays.stream(stack)
+                        .anyMatch(frame -> frame.getClassName().equals(CompletableFuture.class.getName())))
+                .count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
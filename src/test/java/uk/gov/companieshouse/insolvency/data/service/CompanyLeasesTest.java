@@ -0,0 +1,156 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
+import uk.gov.companieshouse.insolvency.data.repository.CompanyLeaseRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyLeasesTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final Duration TTL = Duration.ofSeconds(10);
+
+    @Mock
+    private CompanyLeaseRepository repository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Long> tokens = new ArrayList<>();
+
+    @Test
+    void shouldRunWriteWithFencingTokenAndReleaseLease() {
+        when(repository.acquire(eq(COMPANY_NUMBER), anyString(), eq(TTL))).thenReturn(OptionalLong.of(7L));
+
+        leases(true, Duration.ofSeconds(2)).run(COMPANY_NUMBER, tokens::add);
+
+        assertThat(tokens).containsExactly(7L);
+        verify(repository).release(COMPANY_NUMBER, 7L);
+        assertThat(acquireTimer("acquired").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("insolvency.lease.contended").count()).isZero();
+    }
+
+    @Test
+    void shouldRetryUntilLeaseHeldElsewhereIsFree() {
+        when(repository.acquire(eq(COMPANY_NUMBER), anyString(), eq(TTL)))
+                .thenReturn(OptionalLong.empty(), OptionalLong.empty(), OptionalLong.of(8L));
+
+        leases(true, Duration.ofSeconds(2)).run(COMPANY_NUMBER, tokens::add);
+
+        assertThat(tokens).containsExactly(8L);
+        assertThat(meterRegistry.counter("insolvency.lease.contended").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotRunWriteWhenLeaseIsNotFreedInTime() {
+        when(repository.acquire(eq(COMPANY_NUMBER), anyString(), eq(TTL))).thenReturn(OptionalLong.empty());
+        CompanyLeases leases = leases(true, Duration.ofMillis(20));
+
+        assertThrows(BadGatewayException.class, () -> leases.run(COMPANY_NUMBER, tokens::add));
+
+        assertThat(tokens).isEmpty();
+        verify(repository, never()).release(anyString(), anyLong());
+        assertThat(acquireTimer("timeout").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldRunWriteAgainUnderNewLeaseWhenLeaseIsLost() {
+        when(repository.acquire(eq(COMPANY_NUMBER), anyString(), eq(TTL)))
+                .thenReturn(OptionalLong.of(7L), OptionalLong.of(9L));
+
+        leases(true, Duration.ofSeconds(2)).run(COMPANY_NUMBER, token -> {
+            tokens.add(token);
+            if (token == 7L) {
+                throw new CompanyLeases.LeaseLostException();
+            }
+        });
+
+        assertThat(tokens).containsExactly(7L, 9L);
+        verify(repository).release(COMPANY_NUMBER, 7L);
+        verify(repository).release(COMPANY_NUMBER, 9L);
+        assertThat(meterRegistry.counter("insolvency.lease.lost").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldGiveUpWhenLeaseIsLostOnEveryAttempt() {
+        when(repository.acquire(eq(COMPANY_NUMBER), anyString(), eq(TTL)))
+                .thenReturn(OptionalLong.of(7L), OptionalLong.of(8L), OptionalLong.of(9L));
+        CompanyLeases leases = leases(true, Duration.ofSeconds(2));
+
+        assertThrows(BadGatewayException.class, () -> leases.run(COMPANY_NUMBER, token -> {
+            tokens.add(token);
+            throw new CompanyLeases.LeaseLostException();
+        }));
+
+        assertThat(tokens).containsExactly(7L, 8L, 9L);
+    }
+
+    @Test
+    void shouldReleaseLeaseWhenWriteFails() {
+        when(repository.acquire(eq(COMPANY_NUMBER), anyString(), eq(TTL))).thenReturn(OptionalLong.of(9L));
+        CompanyLeases leases = leases(true, Duration.ofSeconds(2));
+
+        assertThrows(IllegalStateException.class, () -> leases.run(COMPANY_NUMBER, token -> {
+            throw new IllegalStateException("write failed");
+        }));
+
+        verify(repository).release(COMPANY_NUMBER, 9L);
+    }
+
+    @Test
+    void shouldAnswerWriteWhenReleaseFails() {
+        when(repository.acquire(eq(COMPANY_NUMBER), anyString(), eq(TTL))).thenReturn(OptionalLong.of(9L));
+        doThrow(new DataAccessResourceFailureException("down")).when(repository).release(COMPANY_NUMBER, 9L);
+
+        leases(true, Duration.ofSeconds(2)).run(COMPANY_NUMBER, tokens::add);
+
+        assertThat(tokens).containsExactly(9L);
+    }
+
+    @Test
+    void shouldMapMongoFailureOnAcquireToBadGateway() {
+        when(repository.acquire(eq(COMPANY_NUMBER), anyString(), eq(TTL)))
+                .thenThrow(new QueryTimeoutException("timed out"));
+        CompanyLeases leases = leases(true, Duration.ofSeconds(2));
+
+        assertThrows(BadGatewayException.class, () -> leases.run(COMPANY_NUMBER, tokens::add));
+
+        assertThat(tokens).isEmpty();
+    }
+
+    @Test
+    void shouldRunWriteWithoutTokenWhenDisabled() {
+        leases(false, Duration.ofSeconds(2)).run(COMPANY_NUMBER, tokens::add);
+
+        assertThat(tokens).containsExactly((Long) null);
+        verifyNoInteractions(repository);
+    }
+
+    private CompanyLeases leases(boolean enabled, Duration acquireTimeout) {
+        return new CompanyLeases(repository, meterRegistry, enabled, TTL, acquireTimeout, Duration.ofMillis(1));
+    }
+
+    private Timer acquireTimer(String result) {
+        return meterRegistry.get("insolvency.lease.acquire").tag("result", result).timer();
+    }
+}
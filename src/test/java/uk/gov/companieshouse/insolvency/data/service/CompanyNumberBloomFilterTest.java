@@ -0,0 +1,168 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import uk.gov.companieshouse.insolvency.data.repository.InsolvencyRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CompanyNumberBloomFilterTest {
+
+    private static final String STORED = "12345678";
+    private static final String NOT_STORED = "SC123456";
+
+    @Mock
+    private InsolvencyRepository insolvencyRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CompanyNumberBloomFilter filter;
+
+    @AfterEach
+    void tearDown() {
+        filter.shutdown();
+    }
+
+    @Test
+    void shouldReportEveryCompanyAsPossiblyPresentUntilBuilt() {
+        filter = filter(true);
+
+        assertThat(filter.mightContain(NOT_STORED)).isTrue();
+    }
+
+    @Test
+    void shouldRuleOutCompaniesNotStoredOnceBuilt() {
+        filter = filter(true);
+        stored(List.of(STORED));
+
+        filter.rebuild();
+
+        assertThat(filter.mightContain(STORED)).isTrue();
+        assertThat(filter.mightContain(NOT_STORED)).isFalse();
+        assertThat(meterRegistry.counter("insolvency.bloom-filter.lookups", "result", "absent").count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("insolvency.bloom-filter.ready").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepCompaniesAddedWhileRebuilding() {
+        filter = filter(true);
+        doAnswer(invocation -> {
+            filter.add(NOT_STORED);
+            invocation.<Consumer<String>>getArgument(1).accept(STORED);
+            return null;
+        }).when(insolvencyRepository).forEachCompanyNumber(anyInt(), any());
+
+        filter.rebuild();
+
+        assertThat(filter.mightContain(NOT_STORED)).isTrue();
+    }
+
+    @Test
+    void shouldStayUnreadyWhenRebuildFails() {
+        filter = filter(true);
+        doThrow(new DataAccessResourceFailureException("error"))
+                .when(insolvencyRepository).forEachCompanyNumber(anyInt(), any());
+
+        filter.rebuild();
+
+        assertThat(filter.mightContain(NOT_STORED)).isTrue();
+    }
+
+    @Test
+    void shouldDiscardRebuildOvertakenByNewerRequest() throws InterruptedException {
+        filter = filter(true);
+        AtomicInteger builds = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (builds.incrementAndGet() == 1) {
+                filter.requestRebuild();
+            } else {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            invocation.<Consumer<String>>getArgument(1).accept(STORED);
+            return null;
+        }).when(insolvencyRepository).forEachCompanyNumber(anyInt(), any());
+
+        filter.rebuild();
+
+        assertThat(filter.mightContain(NOT_STORED)).isTrue();
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (filter.mightContain(NOT_STORED) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(filter.mightContain(NOT_STORED)).isFalse();
+        assertThat(builds.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldStayWithinFalsePositiveProbability() {
+        filter = filter(true);
+        stored(IntStream.range(0, 1000).mapToObj("%08d"::formatted).toList());
+        filter.rebuild();
+
+        long falsePositives = IntStream.range(0, 10000)
+                .mapToObj("SC%06d"::formatted)
+                .filter(filter::mightContain)
+                .count();
+
+        assertThat(falsePositives).isLessThan(300);
+        assertThat(meterRegistry.get("insolvency.bloom-filter.expected-fpp").gauge().value()).isLessThan(0.03);
+    }
+
+    @Test
+    void shouldDoNothingWhenDisabled() {
+        filter = filter(false);
+
+        filter.add(STORED);
+        filter.requestRebuild();
+
+        assertThat(filter.mightContain(NOT_STORED)).isTrue();
+        verifyNoInteractions(insolvencyRepository);
+    }
+
+    @Test
+    void shouldPackCompanyNumbersWithoutCollisions() {
+        assertThat(CompanyNumberBloomFilter.encode("01234567"))
+                .isNotEqualTo(CompanyNumberBloomFilter.encode("1234567"))
+                .isNotEqualTo(CompanyNumberBloomFilter.encode("01234568"));
+    }
+
+    @Test
+    void shouldMixAsMurmur3Finaliser() {
+        assertThat(CompanyNumberBloomFilter.Bits.mix(0L)).isZero();
+        assertThat(CompanyNumberBloomFilter.Bits.mix(1L)).isEqualTo(0xB456BCFC34C2CB2CL);
+        assertThat(CompanyNumberBloomFilter.Bits.mix(42L)).isEqualTo(0x810879608E4259CCL);
+        assertThat(CompanyNumberBloomFilter.Bits.mix(-1L)).isEqualTo(0x64B5720B4B825F21L);
+    }
+
+    private CompanyNumberBloomFilter filter(boolean enabled) {
+        return new CompanyNumberBloomFilter(insolvencyRepository, meterRegistry, enabled, 1000, 0.01,
+                Duration.ofHours(1), Duration.ZERO, 100);
+    }
+
+    private void stored(List<String> companyNumbers) {
+        doAnswer(invocation -> {
+            companyNumbers.forEach(invocation.<Consumer<String>>getArgument(1));
+            return null;
+        }).when(insolvencyRepository).forEachCompanyNumber(anyInt(), any());
+    }
+}
@@ -0,0 +1,178 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class CompanyWriteLocksTest {
+
+    private static final List<String> COMPANY_NUMBERS = List.of("00000001", "00000002", "00000003");
+    private static final int THREADS = 16;
+    private static final int WRITES_PER_THREAD = 500;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    // the stored version of each company, written by read then write as the service once did
+    private final Map<String, Integer> store = new ConcurrentHashMap<>();
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private final Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+    private final AtomicInteger overlaps = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldKeepStoreAndEventsConsistentUnderConcurrentPutsAndDeletes() throws Exception {
+        CompanyWriteLocks locks = new CompanyWriteLocks(meterRegistry, true, 64);
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            workers.add(executor.submit(() -> {
+                for (int write = 0; write < WRITES_PER_THREAD; write++) {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    String companyNumber = COMPANY_NUMBERS.get(random.nextInt(COMPANY_NUMBERS.size()));
+                    if (random.nextInt(10) == 0) {
+                        locks.run(companyNumber, () -> delete(companyNumber));
+                    } else {
+                        locks.run(companyNumber, () -> put(companyNumber));
+                    }
+                }
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get(30, TimeUnit.SECONDS);
+        }
+
+        assertThat(overlaps).hasValue(0);
+        assertThat(events).hasSize(THREADS * WRITES_PER_THREAD);
+        for (String companyNumber : COMPANY_NUMBERS) {
+            Integer replayed = null;
+            for (Event event : events) {
+                if (event.companyNumber().equals(companyNumber)) {
+                    if (event.version() == null) {
+                        replayed = null;
+                    } else {
+                        // every CHANGED event follows on from the one before it, so no PUT was lost
+                        assertThat(event.version()).isEqualTo(replayed == null ? 1 : replayed + 1);
+                        replayed = event.version();
+                    }
+                }
+            }
+            assertThat(store.get(companyNumber)).isEqualTo(replayed);
+        }
+    }
+
+    @Test
+    void shouldCountContendedAcquisitionAgainstItsStripe() throws Exception {
+        CompanyWriteLocks locks = new CompanyWriteLocks(meterRegistry, true, 64);
+        String companyNumber = COMPANY_NUMBERS.get(0);
+        String stripe = String.valueOf(locks.stripe(companyNumber));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> holder = executor.submit(() -> locks.run(companyNumber, () -> {
+            holding.countDown();
+            await(release);
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<?> waiter = executor.submit(() -> locks.run(companyNumber, () -> { }));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (contended(stripe) == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+        waiter.get(5, TimeUnit.SECONDS);
+
+        assertThat(contended(stripe)).isEqualTo(1);
+        assertThat(meterRegistry.get("insolvency.write.lock.wait").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotHoldUpCompanyOnAnotherStripe() throws Exception {
+        CompanyWriteLocks locks = new CompanyWriteLocks(meterRegistry, true, 64);
+        String held = COMPANY_NUMBERS.get(0);
+        String other = COMPANY_NUMBERS.get(1);
+        assertThat(locks.stripe(held)).isNotEqualTo(locks.stripe(other));
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> holder = executor.submit(() -> locks.run(held, () -> {
+            holding.countDown();
+            await(release);
+        }));
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.submit(() -> locks.run(other, () -> put(other))).get(5, TimeUnit.SECONDS);
+        release.countDown();
+        holder.get(5, TimeUnit.SECONDS);
+
+        assertThat(store).containsEntry(other, 1);
+    }
+
+    private void put(String companyNumber) {
+        enter(companyNumber);
+        try {
+            Integer stored = store.get(companyNumber);
+            Thread.yield();
+            int version = stored == null ? 1 : stored + 1;
+            store.put(companyNumber, version);
+            events.add(new Event(companyNumber, version));
+        } finally {
+            exit(companyNumber);
+        }
+    }
+
+    private void delete(String companyNumber) {
+        enter(companyNumber);
+        try {
+            store.remove(companyNumber);
+            events.add(new Event(companyNumber, null));
+        } finally {
+            exit(companyNumber);
+        }
+    }
+
+    private void enter(String companyNumber) {
+        if (running.computeIfAbsent(companyNumber, id -> new AtomicInteger()).incrementAndGet() > 1) {
+            overlaps.incrementAndGet();
+        }
+    }
+
+    private void exit(String companyNumber) {
+        running.get(companyNumber).decrementAndGet();
+    }
+
+    private double contended(String stripe) {
+        return meterRegistry.get("insolvency.write.lock.contended").tag("stripe", stripe).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // a null version is a DELETED event
+    private record Event(String companyNumber, Integer version) {
+    }
+}
@@ -0,0 +1,112 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Consumer;
+import org.bson.BsonArray;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
+import uk.gov.companieshouse.insolvency.data.repository.InsolvencyRepository;
+
+@ExtendWith(MockitoExtension.class)
+class InsolvencyExporterTest {
+
+    private static final Instant DELTA_AT = Instant.parse("2022-10-08T15:28:23.383Z");
+    private static final Instant UPDATED_AT = Instant.parse("2024-01-02T03:04:05.006Z");
+
+    @Mock
+    private InsolvencyRepository repository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private InsolvencyExporter underTest;
+
+    @BeforeEach
+    void setUp() {
+        underTest = new InsolvencyExporter(repository, objectMapper, 2);
+    }
+
+    @Test
+    void shouldWriteOneLinePerDocumentInCursorOrder() throws IOException {
+        doAnswer(invocation -> {
+            Consumer<RawBsonDocument> action = invocation.getArgument(2);
+            action.accept(storedDocument("00000001"));
+            action.accept(storedDocument("00000002"));
+            action.accept(storedDocument("00000003"));
+            return null;
+        }).when(repository).forEachAfter(eq("00000000"), eq(2), any());
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        underTest.export("00000000", output);
+
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(3);
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertThat(first.get("company_number").asText()).isEqualTo("00000001");
+        assertThat(first.get("delta_at").asText()).isEqualTo("2022-10-08T15:28:23.383Z");
+        assertThat(first.get("updated_at").asText()).isEqualTo("2024-01-02T03:04:05.006Z");
+        assertThat(first.get("data").get("etag").asText()).isEqualTo("etag");
+        assertThat(first.get("data").get("cases").get(0).get("date").asText()).isEqualTo("2022-10-08");
+        assertThat(objectMapper.readTree(lines[2]).get("company_number").asText()).isEqualTo("00000003");
+    }
+
+    @Test
+    void shouldRethrowWriteFailure() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<RawBsonDocument>>getArgument(2).accept(storedDocument("00000001"));
+            return null;
+        }).when(repository).forEachAfter(eq(null), eq(2), any());
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        IOException actual = assertThrows(IOException.class, () -> underTest.export(null, broken));
+        assertThat(actual).hasMessage("Broken pipe");
+    }
+
+    @Test
+    void shouldThrowBadGatewayWhenDataAccessExCaught() {
+        doThrow(new DataAccessResourceFailureException("Connection broken"))
+                .when(repository).forEachAfter(any(), eq(2), any());
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        assertThrows(BadGatewayException.class, () -> underTest.export(null, output));
+    }
+
+    private static RawBsonDocument storedDocument(String companyNumber) {
+        BsonDocument data = new BsonDocument("etag", new BsonString("etag"))
+                .append("cases", new BsonArray(List.of(
+                        new BsonDocument("date", new BsonDateTime(DELTA_AT.toEpochMilli())))));
+        BsonDocument document = new BsonDocument("_id", new BsonString(companyNumber))
+                .append("delta_at", new BsonDateTime(DELTA_AT.toEpochMilli()))
+                .append("updated_at", new BsonDateTime(UPDATED_AT.toEpochMilli()))
+                .append("data", data);
+        return new RawBsonDocument(document, new BsonDocumentCodec());
+    }
+}
@@ -1,49 +1,74 @@
 package uk.gov.companieshouse.insolvency.data.service;
 
-import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import org.assertj.core.api.Assertions;
+import org.bson.BsonDocument;
+import org.bson.BsonTimestamp;
 import org.junit.Assert;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
-import org.junit.jupiter.params.ParameterizedTest;
-import org.junit.jupiter.params.provider.CsvSource;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
 import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
 import uk.gov.companieshouse.api.insolvency.InternalCompanyInsolvency;
 import uk.gov.companieshouse.api.insolvency.InternalData;
-import uk.gov.companieshouse.insolvency.data.api.InsolvencyApiService;
 import uk.gov.companieshouse.insolvency.data.common.EventType;
+import uk.gov.companieshouse.insolvency.data.common.UnchangedDataPolicy;
+import uk.gov.companieshouse.insolvency.data.converter.CompanyInsolvencyCodec;
+import uk.gov.companieshouse.insolvency.data.config.OutboxConfig;
 import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
 import uk.gov.companieshouse.insolvency.data.exceptions.ConflictException;
+import uk.gov.companieshouse.insolvency.data.exceptions.DocumentNotFoundException;
+import uk.gov.companieshouse.insolvency.data.model.BulkInsolvencyRecord;
+import uk.gov.companieshouse.insolvency.data.model.BulkPutStatus;
+import uk.gov.companieshouse.insolvency.data.model.CausalConsistencyToken;
 import uk.gov.companieshouse.insolvency.data.model.InsolvencyDocument;
+import uk.gov.companieshouse.insolvency.data.model.RawCompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.repository.CompanyLeaseRepository;
 import uk.gov.companieshouse.insolvency.data.repository.InsolvencyRepository;
 
 @ExtendWith(MockitoExtension.class)
 class InsolvencyServiceImplTest {
 
     private static final String DELTA_AT = "20221008152823383176";
+    private static final OffsetDateTime PARSED_DELTA_AT =
+            OffsetDateTime.of(2022, 10, 8, 15, 28, 23, 383_176_000, ZoneOffset.UTC);
     private static final String STALE_DELTA_AT = "20201008152823383176";
     private static final OffsetDateTime DB_DELTA_AT = OffsetDateTime.of(2021, 10, 31, 0, 0, 0, 0, ZoneOffset.UTC);
     private static final String COMPANY_NUMBER = "12345678";
@@ -51,181 +76,454 @@ class InsolvencyServiceImplTest {
     @Mock
     private InsolvencyRepository repository;
     @Mock
-    private InsolvencyApiService insolvencyApiService;
+    private ResourceChangedPublisher resourceChangedPublisher;
+    @Mock
+    private CompanyInsolvencyCodec companyInsolvencyCodec;
 
-    @InjectMocks
     private InsolvencyServiceImpl underTest;
 
-    @ParameterizedTest
-    @CsvSource({
-            "2021-03-08T12:00:00.000Z , 2022-03-08T12:00:00.000Z",
-            "2022-03-08T12:00:00.000Z , 2022-03-08T12:00:00.001Z"
-    })
-    void when_request_is_stale_then_data_should_not_be_saved(OffsetDateTime requestDeltaAt,
-            OffsetDateTime existingDeltaAt) {
+    @BeforeEach
+    void setUp() {
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.TOUCH,
+                disabledCache(), ReadPreference.primary(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+    }
+
+    @Test
+    void when_request_is_stale_then_conflict_should_be_thrown() {
         // given
         InternalCompanyInsolvency internalCompanyInsolvency = createInternalCompanyInsolvency();
-        internalCompanyInsolvency.getInternalData().setDeltaAt(requestDeltaAt);
 
-        InsolvencyDocument existingDocument = new InsolvencyDocument();
-        existingDocument.setDeltaAt(existingDeltaAt);
-        Optional<InsolvencyDocument> existingDocumentOptional = Optional.of(existingDocument);
-
-        when(repository.findById(anyString())).thenReturn(existingDocumentOptional);
+        when(repository.upsertIfNotStale(any())).thenReturn(false);
 
         // when
         Executable executable = () -> underTest.processInsolvency(COMPANY_NUMBER, internalCompanyInsolvency);
 
         // then
         assertThrows(ConflictException.class, executable);
-        verifyNoInteractions(insolvencyApiService);
+        verifyNoInteractions(resourceChangedPublisher);
+        verify(repository, times(0)).findById(any());
         verify(repository, times(0)).save(any());
     }
 
     @Test
-    void should_process_successfully_when_existing_delta_at_is_null() {
-        // given
-        OffsetDateTime requestDeltaAt = OffsetDateTime.parse("2021-03-08T12:00:00.000Z");
+    void when_insolvency_data_is_given_then_data_should_be_saved() {
+        InternalCompanyInsolvency companyInsolvency = createInternalCompanyInsolvency();
+        OffsetDateTime requestDeltaAt = companyInsolvency.getInternalData().getDeltaAt();
 
-        InternalCompanyInsolvency internalCompanyInsolvency = createInternalCompanyInsolvency();
-        internalCompanyInsolvency.getInternalData().setDeltaAt(requestDeltaAt);
-        InsolvencyDocument existingDocument = new InsolvencyDocument();
+        when(repository.upsertIfNotStale(any())).thenReturn(true);
 
-        when(repository.findById(anyString())).thenReturn(Optional.of(existingDocument));
+        underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency);
 
-        // when
-        underTest.processInsolvency(COMPANY_NUMBER, internalCompanyInsolvency);
+        ArgumentCaptor<InsolvencyDocument> documentCaptor = ArgumentCaptor.forClass(InsolvencyDocument.class);
+        verify(repository).upsertIfNotStale(documentCaptor.capture());
+        Assertions.assertThat(documentCaptor.getValue().getId()).isEqualTo(COMPANY_NUMBER);
+        Assertions.assertThat(documentCaptor.getValue().getDeltaAt()).isEqualTo(requestDeltaAt);
+        Assertions.assertThat(documentCaptor.getValue().getUpdatedAt()).isNotNull();
+        verify(repository, times(0)).findById(any());
+        verify(resourceChangedPublisher).publish(anyString(), any(), eq(EventType.CHANGED), eq(requestDeltaAt));
+    }
 
-        // then
-        assertNull(existingDocument.getDeltaAt());
-        verify(repository).save(any());
-        verify(insolvencyApiService).invokeChsKafkaApi(anyString(), any(), eq(EventType.CHANGED));
+    @Test
+    void shouldWriteLeasedPutWithFencingTokenAndReleaseLease() {
+        InternalCompanyInsolvency companyInsolvency = createInternalCompanyInsolvency();
+        CompanyLeaseRepository leaseRepository = mock(CompanyLeaseRepository.class);
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.TOUCH,
+                disabledCache(), ReadPreference.primary(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(), disabledWriteCoalescer(), disabledWriteLocks(),
+                new CompanyLeases(leaseRepository, new SimpleMeterRegistry(), true, Duration.ofSeconds(10),
+                        Duration.ofSeconds(2), Duration.ofMillis(5)));
+
+        when(leaseRepository.acquire(eq(COMPANY_NUMBER), anyString(), eq(Duration.ofSeconds(10))))
+                .thenReturn(OptionalLong.of(42L));
+        when(repository.upsertIfNotStale(any())).thenReturn(true);
+
+        underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency);
+
+        verify(repository).upsertIfNotStale(argThat(document -> Long.valueOf(42L).equals(document.getFencingToken())));
+        verify(leaseRepository).release(COMPANY_NUMBER, 42L);
     }
 
     @Test
-    void when_insolvency_data_is_given_then_data_should_be_saved() {
+    void shouldRetryPutFencedOffByLaterLeaseUnderNewLeaseInsteadOfAnsweringStale() {
         InternalCompanyInsolvency companyInsolvency = createInternalCompanyInsolvency();
+        CompanyLeaseRepository leaseRepository = mock(CompanyLeaseRepository.class);
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.TOUCH,
+                disabledCache(), ReadPreference.primary(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(), disabledWriteCoalescer(), disabledWriteLocks(),
+                new CompanyLeases(leaseRepository, new SimpleMeterRegistry(), true, Duration.ofSeconds(10),
+                        Duration.ofSeconds(2), Duration.ofMillis(5)));
+
+        when(leaseRepository.acquire(eq(COMPANY_NUMBER), anyString(), eq(Duration.ofSeconds(10))))
+                .thenReturn(OptionalLong.of(1L), OptionalLong.of(3L));
+        when(repository.upsertIfNotStale(any())).thenReturn(false, true);
+        when(repository.isFenced(COMPANY_NUMBER, 1L)).thenReturn(true);
 
         underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency);
 
-        verify(repository).save(any());
-        verify(insolvencyApiService).invokeChsKafkaApi(anyString(), any(), eq(EventType.CHANGED));
+        verify(repository).upsertIfNotStale(argThat(document -> Long.valueOf(3L).equals(document.getFencingToken())));
+        verify(resourceChangedPublisher).publish(anyString(), any(), eq(EventType.CHANGED), any());
     }
 
     @Test
-    void shouldThrowBadGatewayWhenTransientDataAccessExCaughtOnFindDuringPut() {
+    void shouldAnswerStaleWhenLeasedPutIsNotFencedOff() {
         InternalCompanyInsolvency companyInsolvency = createInternalCompanyInsolvency();
+        CompanyLeaseRepository leaseRepository = mock(CompanyLeaseRepository.class);
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.TOUCH,
+                disabledCache(), ReadPreference.primary(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(), disabledWriteCoalescer(), disabledWriteLocks(),
+                new CompanyLeases(leaseRepository, new SimpleMeterRegistry(), true, Duration.ofSeconds(10),
+                        Duration.ofSeconds(2), Duration.ofMillis(5)));
+
+        when(leaseRepository.acquire(eq(COMPANY_NUMBER), anyString(), eq(Duration.ofSeconds(10))))
+                .thenReturn(OptionalLong.of(1L));
+        when(repository.upsertIfNotStale(any())).thenReturn(false);
+        when(repository.isFenced(COMPANY_NUMBER, 1L)).thenReturn(false);
+
+        assertThrows(ConflictException.class, () -> underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency));
+
+        verifyNoInteractions(resourceChangedPublisher);
+    }
 
-        doThrow(new TransientDataAccessException("Connection broken") {
-        })
-                .when(repository)
-                .findById(anyString());
+    @Test
+    void shouldStoreDataHashWithChangedData() {
+        InternalCompanyInsolvency companyInsolvency = createInternalCompanyInsolvency();
 
-        assertThrows(BadGatewayException.class, () ->
-                underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency));
-        verifyNoInteractions(insolvencyApiService);
+        when(companyInsolvencyCodec.contentHash(companyInsolvency.getExternalData())).thenReturn("hash");
+        when(repository.touchIfUnchanged(any())).thenReturn(false);
+        when(repository.upsertIfNotStale(any())).thenReturn(true);
+
+        underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency);
+
+        ArgumentCaptor<InsolvencyDocument> documentCaptor = ArgumentCaptor.forClass(InsolvencyDocument.class);
+        verify(repository).touchIfUnchanged(documentCaptor.capture());
+        verify(repository).upsertIfNotStale(documentCaptor.getValue());
+        Assertions.assertThat(documentCaptor.getValue().getDataHash()).isEqualTo("hash");
+        verify(resourceChangedPublisher).publish(anyString(), any(), eq(EventType.CHANGED), any());
     }
 
     @Test
-    void shouldThrowBadGatewayWhenDataAccessExCaughtOnFindDuringPut() {
+    void shouldOnlyTouchDeltaAtWhenDataUnchanged() {
         InternalCompanyInsolvency companyInsolvency = createInternalCompanyInsolvency();
 
-        doThrow(new DataAccessException("Connection broken") {
-        })
-                .when(repository)
-                .findById(anyString());
+        when(repository.touchIfUnchanged(any())).thenReturn(true);
 
-        assertThrows(BadGatewayException.class, () ->
-                underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency));
-        verifyNoInteractions(insolvencyApiService);
+        underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency);
+
+        verify(repository, times(0)).upsertIfNotStale(any());
+        verifyNoInteractions(resourceChangedPublisher);
+    }
+
+    @Test
+    void shouldSkipWriteWhenDataUnchangedAndPolicyIsSkip() {
+        InternalCompanyInsolvency companyInsolvency = createInternalCompanyInsolvency();
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.SKIP,
+                disabledCache(), ReadPreference.primary(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+
+        when(repository.existsUnchanged(any())).thenReturn(true);
+
+        underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency);
+
+        verify(repository, times(0)).touchIfUnchanged(any());
+        verify(repository, times(0)).upsertIfNotStale(any());
+        verifyNoInteractions(resourceChangedPublisher);
+    }
+
+    @Test
+    void shouldWriteUnchangedDataWhenPolicyIsWrite() {
+        InternalCompanyInsolvency companyInsolvency = createInternalCompanyInsolvency();
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.WRITE,
+                disabledCache(), ReadPreference.primary(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+
+        when(repository.upsertIfNotStale(any())).thenReturn(true);
+
+        underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency);
+
+        verify(repository, times(0)).touchIfUnchanged(any());
+        verify(repository, times(0)).existsUnchanged(any());
+        verify(repository).upsertIfNotStale(argThat(document -> document.getDataHash() == null));
+        verifyNoInteractions(companyInsolvencyCodec);
+        verify(resourceChangedPublisher).publish(anyString(), any(), eq(EventType.CHANGED), any());
+    }
+
+    @Test
+    void shouldWriteAndPublishAgainWhenPutIsReplayedAfterFailedPublishWithoutOutbox() {
+        InternalCompanyInsolvency companyInsolvency = createInternalCompanyInsolvency();
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec,
+                new OutboxConfig().insolvencyUnchangedDataPolicy(UnchangedDataPolicy.TOUCH, false),
+                disabledCache(), ReadPreference.primary(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+
+        when(repository.upsertIfNotStale(any())).thenReturn(true);
+        doThrow(new BadGatewayException("chs-kafka-api unavailable", null))
+                .doNothing()
+                .when(resourceChangedPublisher).publish(anyString(), any(), eq(EventType.CHANGED), any());
+
+        assertThrows(BadGatewayException.class, () -> underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency));
+        underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency);
+
+        verify(repository, times(0)).touchIfUnchanged(any());
+        verify(repository, times(2)).upsertIfNotStale(any());
+        verify(resourceChangedPublisher, times(2)).publish(anyString(), any(), eq(EventType.CHANGED), any());
+    }
+
+    @Test
+    void shouldWriteAndPublishInOneWriteTransaction() {
+        InternalCompanyInsolvency companyInsolvency = createInternalCompanyInsolvency();
+        List<String> calls = new ArrayList<>();
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher, new TransactionOperations() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                calls.add("begin");
+                T result = action.doInTransaction(new SimpleTransactionStatus());
+                calls.add("commit");
+                return result;
+            }
+        }, companyInsolvencyCodec, UnchangedDataPolicy.TOUCH, disabledCache(), ReadPreference.primary(),
+                disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+        when(repository.upsertIfNotStale(any())).thenAnswer(invocation -> calls.add("upsert"));
+        doAnswer(invocation -> calls.add("publish"))
+                .when(resourceChangedPublisher).publish(anyString(), any(), eq(EventType.CHANGED), any());
+
+        underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency);
+
+        Assertions.assertThat(calls).containsExactly("begin", "upsert", "publish", "commit");
+    }
+
+    @Test
+    void shouldBulkWriteChangedRecordsAndReportStaleOnes() {
+        BulkInsolvencyRecord changed = createBulkInsolvencyRecord("00000001", PARSED_DELTA_AT);
+        BulkInsolvencyRecord stale = createBulkInsolvencyRecord("00000002", DB_DELTA_AT);
+        BulkInsolvencyRecord created = createBulkInsolvencyRecord("00000003", PARSED_DELTA_AT);
+
+        when(repository.findWriteStates(List.of("00000001", "00000002", "00000003"))).thenReturn(List.of(
+                createStoredState("00000001", DB_DELTA_AT, "old-hash"),
+                createStoredState("00000002", PARSED_DELTA_AT, "old-hash")));
+        when(repository.bulkUpsertIfNotStale(any())).thenReturn(List.of());
+        when(repository.bulkTouchIfUnchanged(List.of())).thenReturn(true);
+
+        List<BulkPutStatus> statuses = underTest.processInsolvencies(List.of(changed, stale, created));
+
+        Assertions.assertThat(statuses).containsExactly(BulkPutStatus.OK, BulkPutStatus.STALE, BulkPutStatus.OK);
+        ArgumentCaptor<List<InsolvencyDocument>> writesCaptor = ArgumentCaptor.captor();
+        verify(repository).bulkUpsertIfNotStale(writesCaptor.capture());
+        Assertions.assertThat(writesCaptor.getValue()).extracting(InsolvencyDocument::getId)
+                .containsExactly("00000001", "00000003");
+        verify(resourceChangedPublisher).publish(eq("00000001"), any(), eq(EventType.CHANGED), eq(PARSED_DELTA_AT));
+        verify(resourceChangedPublisher).publish(eq("00000003"), any(), eq(EventType.CHANGED), eq(PARSED_DELTA_AT));
+        verifyNoMoreInteractions(resourceChangedPublisher);
+    }
+
+    @Test
+    void shouldAnswerGroupedPutWithItsOwnStatus() {
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.TOUCH,
+                disabledCache(), ReadPreference.primary(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(),
+                new InsolvencyWriteBatcher(new SimpleMeterRegistry(), true, Duration.ofMillis(1), 100),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+        BulkInsolvencyRecord stale = createBulkInsolvencyRecord(COMPANY_NUMBER, DB_DELTA_AT);
+
+        when(repository.findWriteStates(List.of(COMPANY_NUMBER)))
+                .thenReturn(List.of(createStoredState(COMPANY_NUMBER, PARSED_DELTA_AT, "old-hash")));
+        when(repository.bulkUpsertIfNotStale(List.of())).thenReturn(List.of());
+        when(repository.bulkTouchIfUnchanged(List.of())).thenReturn(true);
+
+        assertThrows(ConflictException.class, () ->
+                underTest.processInsolvency(COMPANY_NUMBER, stale.toInternalCompanyInsolvency()));
+        verify(repository, times(0)).upsertIfNotStale(any());
+        verifyNoInteractions(resourceChangedPublisher);
+    }
+
+    @Test
+    void shouldBulkTouchRecordsWithUnchangedData() {
+        BulkInsolvencyRecord unchanged = createBulkInsolvencyRecord(COMPANY_NUMBER, PARSED_DELTA_AT);
+
+        when(companyInsolvencyCodec.contentHash(any())).thenReturn("hash");
+        when(repository.findWriteStates(List.of(COMPANY_NUMBER)))
+                .thenReturn(List.of(createStoredState(COMPANY_NUMBER, DB_DELTA_AT, "hash")));
+        when(repository.bulkUpsertIfNotStale(List.of())).thenReturn(List.of());
+        when(repository.bulkTouchIfUnchanged(any())).thenReturn(true);
+
+        List<BulkPutStatus> statuses = underTest.processInsolvencies(List.of(unchanged));
+
+        Assertions.assertThat(statuses).containsExactly(BulkPutStatus.OK);
+        verify(repository).bulkTouchIfUnchanged(argThat(documents -> documents.size() == 1));
+        verifyNoInteractions(resourceChangedPublisher);
+    }
+
+    @Test
+    void shouldRetryUnappliedBulkWritesSingly() {
+        BulkInsolvencyRecord raced = createBulkInsolvencyRecord(COMPANY_NUMBER, PARSED_DELTA_AT);
+
+        when(repository.findWriteStates(List.of(COMPANY_NUMBER))).thenReturn(List.of());
+        when(repository.bulkUpsertIfNotStale(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.bulkTouchIfUnchanged(List.of())).thenReturn(true);
+        when(repository.upsertIfNotStale(any())).thenReturn(false);
+
+        List<BulkPutStatus> statuses = underTest.processInsolvencies(List.of(raced));
+
+        Assertions.assertThat(statuses).containsExactly(BulkPutStatus.STALE);
+        verify(repository).upsertIfNotStale(any());
+        verifyNoInteractions(resourceChangedPublisher);
+    }
+
+    @Test
+    void shouldRetryUnappliedBulkWriteSinglyUnderLease() {
+        BulkInsolvencyRecord raced = createBulkInsolvencyRecord(COMPANY_NUMBER, PARSED_DELTA_AT);
+        CompanyLeaseRepository leaseRepository = mock(CompanyLeaseRepository.class);
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.TOUCH,
+                disabledCache(), ReadPreference.primary(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(), disabledWriteCoalescer(), disabledWriteLocks(),
+                new CompanyLeases(leaseRepository, new SimpleMeterRegistry(), true, Duration.ofSeconds(10),
+                        Duration.ofSeconds(2), Duration.ofMillis(5)));
+
+        when(repository.findWriteStates(List.of(COMPANY_NUMBER))).thenReturn(List.of());
+        when(repository.bulkUpsertIfNotStale(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(repository.bulkTouchIfUnchanged(List.of())).thenReturn(true);
+        when(leaseRepository.acquire(eq(COMPANY_NUMBER), anyString(), eq(Duration.ofSeconds(10))))
+                .thenReturn(OptionalLong.of(5L));
+        when(repository.upsertIfNotStale(any())).thenReturn(true);
+
+        List<BulkPutStatus> statuses = underTest.processInsolvencies(List.of(raced));
+
+        Assertions.assertThat(statuses).containsExactly(BulkPutStatus.OK);
+        verify(repository).upsertIfNotStale(argThat(document -> Long.valueOf(5L).equals(document.getFencingToken())));
+        verify(leaseRepository).release(COMPANY_NUMBER, 5L);
+    }
+
+    @Test
+    void shouldThrowBadGatewayWhenDataAccessExCaughtOnBulkPut() {
+        BulkInsolvencyRecord insolvencyRecord = createBulkInsolvencyRecord(COMPANY_NUMBER, PARSED_DELTA_AT);
+
+        when(repository.findWriteStates(any())).thenThrow(new DataAccessResourceFailureException("Connection broken"));
+
+        List<BulkInsolvencyRecord> records = List.of(insolvencyRecord);
+        assertThrows(BadGatewayException.class, () -> underTest.processInsolvencies(records));
+        verifyNoInteractions(resourceChangedPublisher);
+    }
+
+    @Test
+    void shouldRetrieveCompanyInsolvenciesWithOneQuery() {
+        InsolvencyDocument document = new InsolvencyDocument(COMPANY_NUMBER, new CompanyInsolvency(), null, null, null);
+        when(repository.findAllByIdIn(List.of(COMPANY_NUMBER, "00000002"))).thenReturn(Stream.of(document));
+
+        Assertions.assertThat(underTest.retrieveCompanyInsolvencies(List.of(COMPANY_NUMBER, "00000002")))
+                .containsExactly(document);
+    }
+
+    @Test
+    void shouldThrowBadGatewayWhenDataAccessExCaughtOnBatchGet() {
+        when(repository.findAllByIdIn(any())).thenThrow(new DataAccessResourceFailureException("Connection broken"));
+
+        List<String> companyNumbers = List.of(COMPANY_NUMBER);
+        assertThrows(BadGatewayException.class, () -> underTest.retrieveCompanyInsolvencies(companyNumbers));
     }
 
     @Test
-    void shouldThrowBadGatewayWhenTransientDataAccessExCaughtOnSaveDuringPut() {
+    void shouldThrowBadGatewayWhenTransientDataAccessExCaughtOnUpsertDuringPut() {
         InternalCompanyInsolvency companyInsolvency = createInternalCompanyInsolvency();
 
         doThrow(new TransientDataAccessException("Connection broken") {
         })
                 .when(repository)
-                .save(isA(InsolvencyDocument.class));
+                .upsertIfNotStale(isA(InsolvencyDocument.class));
 
         assertThrows(BadGatewayException.class, () ->
                 underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency));
-        verifyNoInteractions(insolvencyApiService);
+        verifyNoInteractions(resourceChangedPublisher);
     }
 
     @Test
-    void shouldThrowBadGatewayWhenDataAccessExCaughtOnSaveDuringPut() {
+    void shouldThrowBadGatewayWhenDataAccessExCaughtOnUpsertDuringPut() {
         InternalCompanyInsolvency companyInsolvency = createInternalCompanyInsolvency();
 
         doThrow(new DataAccessException("Connection broken") {
         })
                 .when(repository)
-                .save(isA(InsolvencyDocument.class));
+                .upsertIfNotStale(isA(InsolvencyDocument.class));
 
         assertThrows(BadGatewayException.class, () ->
                 underTest.processInsolvency(COMPANY_NUMBER, companyInsolvency));
-        verifyNoInteractions(insolvencyApiService);
+        verifyNoInteractions(resourceChangedPublisher);
     }
 
     @Test
-    void shouldThrowBadGatewayWhenTransientDataAccessExCaughtOnFindDuringDelete() {
+    void shouldThrowBadGatewayWhenTransientDataAccessExCaughtOnDeleteDuringDelete() {
         doThrow(new TransientDataAccessException("Connection broken") {
         })
                 .when(repository)
-                .findById(anyString());
+                .deleteIfNotStale(anyString(), any(), any());
 
         assertThrows(BadGatewayException.class, () ->
                 underTest.deleteInsolvency(COMPANY_NUMBER, DELTA_AT));
-        verifyNoInteractions(insolvencyApiService);
+        verifyNoInteractions(resourceChangedPublisher);
     }
 
     @Test
-    void shouldThrowBadGatewayWhenDataAccessExCaughtOnFindDuringDelete() {
+    void shouldThrowBadGatewayWhenDataAccessExCaughtOnDeleteDuringDelete() {
         doThrow(new DataAccessException("Connection broken") {
         })
                 .when(repository)
-                .findById(anyString());
+                .deleteIfNotStale(anyString(), any(), any());
 
         assertThrows(BadGatewayException.class, () ->
                 underTest.deleteInsolvency(COMPANY_NUMBER, DELTA_AT));
-        verifyNoInteractions(insolvencyApiService);
+        verifyNoInteractions(resourceChangedPublisher);
     }
 
     @Test
-    void shouldThrowBadGatewayWhenTransientDataAccessExCaughtOnDeleteByIdDuringDelete() {
-        when(repository.findById(anyString())).thenReturn(Optional.of(new InsolvencyDocument()));
+    void shouldThrowBadGatewayWhenTransientDataAccessExCaughtOnExistsByIdDuringDelete() {
+        when(repository.deleteIfNotStale(anyString(), any(), any())).thenReturn(Optional.empty());
         doThrow(new TransientDataAccessException("Connection broken") {
         })
                 .when(repository)
-                .deleteById(anyString());
+                .existsById(anyString());
 
         assertThrows(BadGatewayException.class, () ->
                 underTest.deleteInsolvency(COMPANY_NUMBER, DELTA_AT));
+        verifyNoInteractions(resourceChangedPublisher);
     }
 
     @Test
-    void shouldThrowBadGatewayWhenDataAccessExCaughtOnDeleteByIdDuringDelete() {
-        when(repository.findById(anyString())).thenReturn(Optional.of(new InsolvencyDocument()));
+    void shouldThrowBadGatewayWhenDataAccessExCaughtOnExistsByIdDuringDelete() {
+        when(repository.deleteIfNotStale(anyString(), any(), any())).thenReturn(Optional.empty());
         doThrow(new DataAccessException("Connection broken") {
         })
                 .when(repository)
-                .deleteById(anyString());
+                .existsById(anyString());
 
         assertThrows(BadGatewayException.class, () ->
                 underTest.deleteInsolvency(COMPANY_NUMBER, DELTA_AT));
+        verifyNoInteractions(resourceChangedPublisher);
     }
 
     @Test
     void when_insolvency_number_is_given_then_return_company_insolvency_information() {
         InsolvencyDocument document = new InsolvencyDocument(COMPANY_NUMBER, new CompanyInsolvency(),
                 OffsetDateTime.of(LocalDateTime.now(), ZoneOffset.UTC), LocalDateTime.now(), "123");
-        when(repository.findById(COMPANY_NUMBER)).thenReturn(Optional.of(document));
+        when(repository.findDataById(COMPANY_NUMBER, ReadPreference.primary(), null)).thenReturn(Optional.of(document));
 
         CompanyInsolvency companyInsolvency = underTest.retrieveCompanyInsolvency(COMPANY_NUMBER);
 
         Assertions.assertThat(companyInsolvency).isNotNull();
-        verify(repository).findById(any());
+        verify(repository).findDataById(any(), any(), any());
 
     }
 
@@ -234,7 +532,7 @@ class InsolvencyServiceImplTest {
         doThrow(new TransientDataAccessException("Connection broken") {
         })
                 .when(repository)
-                .findById(anyString());
+                .findDataById(anyString(), any(), any());
 
         assertThrows(BadGatewayException.class, () ->
                 underTest.retrieveCompanyInsolvency("234234"));
@@ -245,7 +543,7 @@ class InsolvencyServiceImplTest {
         doThrow(new DataAccessException("Connection broken") {
         })
                 .when(repository)
-                .findById(anyString());
+                .findDataById(anyString(), any(), any());
 
         assertThrows(BadGatewayException.class, () ->
                 underTest.retrieveCompanyInsolvency("234234"));
@@ -255,19 +553,235 @@ class InsolvencyServiceImplTest {
     void when_invalid_insolvency_number_is_given_then_throw_exception() {
         Assert.assertThrows(RuntimeException.class, () -> underTest.retrieveCompanyInsolvency(COMPANY_NUMBER));
 
-        verify(repository).findById(any());
-        verify(insolvencyApiService, times(0)).invokeChsKafkaApi(anyString(), any(), any());
+        verify(repository).findDataById(any(), any(), any());
+        verify(resourceChangedPublisher, times(0)).publish(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void shouldServeRepeatedGetFromCacheUntilPutInvalidatesIt() {
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.WRITE,
+                enabledCache(), ReadPreference.primary(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+        InsolvencyDocument document = new InsolvencyDocument(COMPANY_NUMBER, new CompanyInsolvency(),
+                OffsetDateTime.of(LocalDateTime.now(), ZoneOffset.UTC), LocalDateTime.now(), "123");
+        when(repository.findDataById(COMPANY_NUMBER, ReadPreference.primary(), null)).thenReturn(Optional.of(document));
+        when(repository.upsertIfNotStale(any())).thenReturn(true);
+
+        underTest.retrieveCompanyInsolvency(COMPANY_NUMBER);
+        underTest.retrieveCompanyInsolvency(COMPANY_NUMBER);
+        verify(repository).findDataById(COMPANY_NUMBER, ReadPreference.primary(), null);
+
+        underTest.processInsolvency(COMPANY_NUMBER, createInternalCompanyInsolvency());
+        underTest.retrieveCompanyInsolvency(COMPANY_NUMBER);
+        verify(repository, times(2)).findDataById(COMPANY_NUMBER, ReadPreference.primary(), null);
+    }
+
+    @Test
+    void shouldServeCachedNotFoundUntilDeleteInvalidatesIt() {
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.TOUCH,
+                enabledCache(), ReadPreference.primary(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+        when(repository.findDataById(COMPANY_NUMBER, ReadPreference.primary(), null)).thenReturn(Optional.empty());
+        when(repository.deleteIfNotStale(COMPANY_NUMBER, PARSED_DELTA_AT, null)).thenReturn(Optional.empty());
+
+        assertThrows(DocumentNotFoundException.class, () -> underTest.retrieveCompanyInsolvency(COMPANY_NUMBER));
+        assertThrows(DocumentNotFoundException.class, () -> underTest.retrieveCompanyInsolvency(COMPANY_NUMBER));
+        verify(repository).findDataById(COMPANY_NUMBER, ReadPreference.primary(), null);
+
+        underTest.deleteInsolvency(COMPANY_NUMBER, DELTA_AT);
+        assertThrows(DocumentNotFoundException.class, () -> underTest.retrieveCompanyInsolvency(COMPANY_NUMBER));
+        verify(repository, times(2)).findDataById(COMPANY_NUMBER, ReadPreference.primary(), null);
+    }
+
+    @Test
+    void shouldAnswerNotFoundFromBloomFilterUntilPutAddsCompany() {
+        CompanyNumberBloomFilter filter = new CompanyNumberBloomFilter(repository, new SimpleMeterRegistry(), true,
+                1000, 0.01, Duration.ofHours(1), Duration.ZERO, 100);
+        doAnswer(invocation -> {
+            invocation.<Consumer<String>>getArgument(1).accept("00000001");
+            return null;
+        }).when(repository).forEachCompanyNumber(anyInt(), any());
+        filter.rebuild();
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.WRITE,
+                disabledCache(), ReadPreference.primary(), filter, disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+        when(repository.upsertIfNotStale(any())).thenReturn(true);
+        when(repository.findDataById(COMPANY_NUMBER, ReadPreference.primary(), null))
+                .thenReturn(Optional.of(new InsolvencyDocument(COMPANY_NUMBER, new CompanyInsolvency(),
+                        PARSED_DELTA_AT, LocalDateTime.now(), "123")));
+
+        assertThrows(DocumentNotFoundException.class, () -> underTest.retrieveCompanyInsolvency(COMPANY_NUMBER));
+        verify(repository, times(0)).findDataById(any(), any(), any());
+
+        underTest.processInsolvency(COMPANY_NUMBER, createInternalCompanyInsolvency());
+        Assertions.assertThat(underTest.retrieveCompanyInsolvency(COMPANY_NUMBER)).isNotNull();
+        filter.shutdown();
+    }
+
+    @Test
+    void shouldReadFromConfiguredMembersWhenCacheIsDisabled() {
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.TOUCH,
+                disabledCache(), ReadPreference.secondaryPreferred(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+        when(repository.findDataById(COMPANY_NUMBER, ReadPreference.secondaryPreferred(), null))
+                .thenReturn(Optional.of(new InsolvencyDocument(COMPANY_NUMBER, new CompanyInsolvency(),
+                        PARSED_DELTA_AT, LocalDateTime.now(), "123")));
+
+        Assertions.assertThat(underTest.retrieveCompanyInsolvency(COMPANY_NUMBER)).isNotNull();
+    }
+
+    @Test
+    void shouldLoadCacheFromPrimaryAndReadPastItWithToken() {
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.TOUCH,
+                enabledCache(), ReadPreference.secondaryPreferred(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+        CausalConsistencyToken token = new CausalConsistencyToken(new BsonTimestamp(1, 1), null);
+        InsolvencyDocument document = new InsolvencyDocument(COMPANY_NUMBER, new CompanyInsolvency(),
+                PARSED_DELTA_AT, LocalDateTime.now(), "123");
+        when(repository.findDataById(COMPANY_NUMBER, ReadPreference.primary(), null))
+                .thenReturn(Optional.of(document));
+        when(repository.findDataById(COMPANY_NUMBER, ReadPreference.secondaryPreferred(), token))
+                .thenReturn(Optional.of(document));
+
+        underTest.retrieveCompanyInsolvency(COMPANY_NUMBER);
+        underTest.retrieveCompanyInsolvency(COMPANY_NUMBER);
+        underTest.retrieveCompanyInsolvency(COMPANY_NUMBER, token);
+
+        verify(repository).findDataById(COMPANY_NUMBER, ReadPreference.primary(), null);
+        verify(repository).findDataById(COMPANY_NUMBER, ReadPreference.secondaryPreferred(), token);
+    }
+
+    @Test
+    void shouldNotTakeCausalConsistencyTokenWhenReadingPrimary() {
+        Assertions.assertThat(underTest.causalConsistencyToken()).isEmpty();
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void shouldTakeCausalConsistencyTokenWhenReadingSecondaries() {
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.TOUCH,
+                disabledCache(), ReadPreference.secondaryPreferred(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+        CausalConsistencyToken token = new CausalConsistencyToken(new BsonTimestamp(1, 1), new BsonDocument());
+        when(repository.currentCausalConsistencyToken()).thenReturn(token);
+
+        Assertions.assertThat(underTest.causalConsistencyToken()).containsSame(token);
+    }
+
+    @Test
+    void shouldOmitCausalConsistencyTokenWhenItCannotBeRead() {
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.TOUCH,
+                disabledCache(), ReadPreference.secondaryPreferred(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+        when(repository.currentCausalConsistencyToken()).thenThrow(new DataAccessResourceFailureException("error"));
+
+        Assertions.assertThat(underTest.causalConsistencyToken()).isEmpty();
+    }
+
+    @Test
+    void shouldRetrieveEtagWithoutReadingData() {
+        when(repository.findEtagById(COMPANY_NUMBER)).thenReturn(Optional.of("etag"));
+
+        Optional<String> actual = underTest.retrieveEtag(COMPANY_NUMBER);
+
+        Assertions.assertThat(actual).contains("etag");
+        verify(repository, times(0)).findDataById(any(), any(), any());
+    }
+
+    @Test
+    void shouldRetrieveEtagFromCacheWhenCached() {
+        underTest = new InsolvencyServiceImpl(repository, resourceChangedPublisher,
+                TransactionOperations.withoutTransaction(), companyInsolvencyCodec, UnchangedDataPolicy.TOUCH,
+                enabledCache(), ReadPreference.primary(), disabledFilter(), disabledCoalescer(),
+                disabledBatcher(), disabledWriteBatcher(),
+                disabledWriteCoalescer(), disabledWriteLocks(), disabledLeases());
+        CompanyInsolvency companyInsolvency = new CompanyInsolvency();
+        companyInsolvency.setEtag("etag");
+        when(repository.findDataById(COMPANY_NUMBER, ReadPreference.primary(), null))
+                .thenReturn(Optional.of(new InsolvencyDocument(COMPANY_NUMBER, companyInsolvency,
+                        PARSED_DELTA_AT, LocalDateTime.now(), "123")));
+        underTest.retrieveCompanyInsolvency(COMPANY_NUMBER);
+
+        Optional<String> actual = underTest.retrieveEtag(COMPANY_NUMBER);
+
+        Assertions.assertThat(actual).contains("etag");
+        verify(repository, times(0)).findEtagById(any());
+    }
+
+    @Test
+    void shouldThrowBadGatewayWhenDataAccessExCaughtDuringEtagRetrieval() {
+        when(repository.findEtagById(COMPANY_NUMBER)).thenThrow(new DataAccessResourceFailureException("error"));
+
+        assertThrows(BadGatewayException.class, () -> underTest.retrieveEtag(COMPANY_NUMBER));
+    }
+
+    @Test
+    void shouldReturnRawDataWhenDocumentExists() {
+        RawCompanyInsolvency rawCompanyInsolvency = new RawCompanyInsolvency(new BsonDocument());
+        when(repository.findRawDataById(COMPANY_NUMBER, ReadPreference.primary(), null))
+                .thenReturn(Optional.of(rawCompanyInsolvency));
+
+        RawCompanyInsolvency actual = underTest.retrieveRawCompanyInsolvency(COMPANY_NUMBER, null);
+
+        Assertions.assertThat(actual).isSameAs(rawCompanyInsolvency);
+    }
+
+    @Test
+    void shouldReadRawDataAfterCausalConsistencyToken() {
+        CausalConsistencyToken token = new CausalConsistencyToken(new BsonTimestamp(1700000000, 3), null);
+        RawCompanyInsolvency rawCompanyInsolvency = new RawCompanyInsolvency(new BsonDocument());
+        when(repository.findRawDataById(COMPANY_NUMBER, ReadPreference.primary(), token))
+                .thenReturn(Optional.of(rawCompanyInsolvency));
+
+        RawCompanyInsolvency actual = underTest.retrieveRawCompanyInsolvency(COMPANY_NUMBER, token);
+
+        Assertions.assertThat(actual).isSameAs(rawCompanyInsolvency);
+    }
+
+    @Test
+    void shouldThrowDocumentNotFoundWhenRawDataDoesNotExist() {
+        when(repository.findRawDataById(COMPANY_NUMBER, ReadPreference.primary(), null)).thenReturn(Optional.empty());
+
+        assertThrows(DocumentNotFoundException.class, () ->
+                underTest.retrieveRawCompanyInsolvency(COMPANY_NUMBER, null));
+    }
+
+    @Test
+    void shouldThrowBadGatewayWhenDataAccessExCaughtOnRawGet() {
+        doThrow(new DataAccessException("Connection broken") {
+        })
+                .when(repository)
+                .findRawDataById(anyString(), any(), any());
+
+        assertThrows(BadGatewayException.class, () ->
+                underTest.retrieveRawCompanyInsolvency(COMPANY_NUMBER, null));
     }
 
     @Test
     void shouldInvokeChsKafkaApiWithEmptyDataWhenDocumentDoesNotExistDuringDelete() {
-        when(repository.findById(COMPANY_NUMBER)).thenReturn(Optional.empty());
+        when(repository.deleteIfNotStale(COMPANY_NUMBER, PARSED_DELTA_AT, null)).thenReturn(Optional.empty());
+        when(repository.existsById(COMPANY_NUMBER)).thenReturn(false);
 
         underTest.deleteInsolvency(COMPANY_NUMBER, DELTA_AT);
 
-        verify(repository).findById(COMPANY_NUMBER);
+        verify(repository).deleteIfNotStale(COMPANY_NUMBER, PARSED_DELTA_AT, null);
+        verify(repository).existsById(COMPANY_NUMBER);
         verifyNoMoreInteractions(repository);
-        verify(insolvencyApiService).invokeChsKafkaApi(COMPANY_NUMBER, null, EventType.DELETED);
+        verify(resourceChangedPublisher).publish(COMPANY_NUMBER, null, EventType.DELETED, PARSED_DELTA_AT);
     }
 
     @Test
@@ -276,50 +790,107 @@ class InsolvencyServiceImplTest {
         InsolvencyDocument document = new InsolvencyDocument(COMPANY_NUMBER, data,
                 OffsetDateTime.of(LocalDateTime.now(), ZoneOffset.UTC), LocalDateTime.now(), "123");
         document.setDeltaAt(DB_DELTA_AT);
-        when(repository.findById(COMPANY_NUMBER)).thenReturn(Optional.of(document));
+        when(repository.deleteIfNotStale(COMPANY_NUMBER, PARSED_DELTA_AT, null)).thenReturn(Optional.of(document));
 
         underTest.deleteInsolvency(COMPANY_NUMBER, DELTA_AT);
-        verify(repository).findById(COMPANY_NUMBER);
-        verify(repository).deleteById(COMPANY_NUMBER);
-        verify(insolvencyApiService).invokeChsKafkaApi(COMPANY_NUMBER, data, EventType.DELETED);
+
+        verify(repository).deleteIfNotStale(COMPANY_NUMBER, PARSED_DELTA_AT, null);
+        verifyNoMoreInteractions(repository);
+        verify(resourceChangedPublisher).publish(COMPANY_NUMBER, data, EventType.DELETED, PARSED_DELTA_AT);
     }
 
     @Test
     void shouldThrowConflictExceptionWhenDocumentExistsAndRequestDeltaAtIsStale() {
-        CompanyInsolvency data = new CompanyInsolvency();
-        InsolvencyDocument document = new InsolvencyDocument(COMPANY_NUMBER, data,
-                OffsetDateTime.of(LocalDateTime.now(), ZoneOffset.UTC), LocalDateTime.now(), "123");
-        document.setDeltaAt(DB_DELTA_AT);
-        when(repository.findById(COMPANY_NUMBER)).thenReturn(Optional.of(document));
+        when(repository.deleteIfNotStale(anyString(), any(), any())).thenReturn(Optional.empty());
+        when(repository.existsById(COMPANY_NUMBER)).thenReturn(true);
 
         assertThrows(ConflictException.class, () ->
                 underTest.deleteInsolvency(COMPANY_NUMBER, STALE_DELTA_AT));
-        verify(repository).findById(COMPANY_NUMBER);
+        verify(repository).deleteIfNotStale(COMPANY_NUMBER,
+                OffsetDateTime.of(2020, 10, 8, 15, 28, 23, 383_176_000, ZoneOffset.UTC), null);
+        verify(repository).existsById(COMPANY_NUMBER);
         verifyNoMoreInteractions(repository);
-        verifyNoInteractions(insolvencyApiService);
+        verifyNoInteractions(resourceChangedPublisher);
     }
 
     @Test
     void when_connection_issue_in_db_on_delete_then_throw_bad_gateway_exception() {
-        when(repository.findById(COMPANY_NUMBER)).thenReturn(Optional.of(new InsolvencyDocument()));
         doThrow(new DataAccessResourceFailureException("Connection broken"))
                 .when(repository)
-                .deleteById(COMPANY_NUMBER);
+                .deleteIfNotStale(COMPANY_NUMBER, PARSED_DELTA_AT, null);
 
         assertThrows(BadGatewayException.class, () ->
                 underTest.deleteInsolvency(COMPANY_NUMBER, DELTA_AT));
     }
 
     @Test
-    void when_connection_issue_in_db_on_find_in_delete_then_throw_bad_gateway_exception() {
+    void when_connection_issue_in_db_on_exists_in_delete_then_throw_bad_gateway_exception() {
+        when(repository.deleteIfNotStale(COMPANY_NUMBER, PARSED_DELTA_AT, null)).thenReturn(Optional.empty());
         doThrow(new DataAccessResourceFailureException("Connection broken"))
                 .when(repository)
-                .findById(COMPANY_NUMBER);
+                .existsById(COMPANY_NUMBER);
 
         assertThrows(BadGatewayException.class, () ->
                 underTest.deleteInsolvency(COMPANY_NUMBER, DELTA_AT));
     }
 
+    private static CompanyInsolvencyCache disabledCache() {
+        return new CompanyInsolvencyCache(new SimpleMeterRegistry(), false, 100, Duration.ofMinutes(1),
+                Duration.ofSeconds(5));
+    }
+
+    private static CompanyInsolvencyCache enabledCache() {
+        return new CompanyInsolvencyCache(new SimpleMeterRegistry(), true, 100, Duration.ofMinutes(1),
+                Duration.ofSeconds(5));
+    }
+
+    private static CompanyInsolvencyReadCoalescer disabledCoalescer() {
+        return new CompanyInsolvencyReadCoalescer(new SimpleMeterRegistry(), false, Duration.ofMillis(500));
+    }
+
+    private CompanyInsolvencyReadBatcher disabledBatcher() {
+        return new CompanyInsolvencyReadBatcher(repository, new SimpleMeterRegistry(), false, Duration.ofMillis(2),
+                100);
+    }
+
+    private static InsolvencyWriteBatcher disabledWriteBatcher() {
+        return new InsolvencyWriteBatcher(new SimpleMeterRegistry(), false, Duration.ofMillis(5), 100);
+    }
+
+    private static InsolvencyWriteCoalescer disabledWriteCoalescer() {
+        return new InsolvencyWriteCoalescer(new SimpleMeterRegistry(), false);
+    }
+
+    private static CompanyWriteLocks disabledWriteLocks() {
+        return new CompanyWriteLocks(new SimpleMeterRegistry(), false, 1);
+    }
+
+    private static CompanyLeases disabledLeases() {
+        return new CompanyLeases(mock(CompanyLeaseRepository.class), new SimpleMeterRegistry(), false,
+                Duration.ofSeconds(10), Duration.ofSeconds(2), Duration.ofMillis(5));
+    }
+
+    private CompanyNumberBloomFilter disabledFilter() {
+        return new CompanyNumberBloomFilter(repository, new SimpleMeterRegistry(), false, 1000, 0.01,
+                Duration.ofHours(1), Duration.ZERO, 100);
+    }
+
+    private static BulkInsolvencyRecord createBulkInsolvencyRecord(String companyNumber, OffsetDateTime deltaAt) {
+        InternalCompanyInsolvency companyInsolvency = new InternalCompanyInsolvency();
+        InternalData internalData = new InternalData();
+        internalData.setDeltaAt(deltaAt);
+        companyInsolvency.setInternalData(internalData);
+        companyInsolvency.setExternalData(new CompanyInsolvency());
+        return new BulkInsolvencyRecord(companyNumber, companyInsolvency);
+    }
+
+    private static InsolvencyDocument createStoredState(String companyNumber, OffsetDateTime deltaAt,
+            String dataHash) {
+        InsolvencyDocument document = new InsolvencyDocument(companyNumber, null, deltaAt, null, null);
+        document.setDataHash(dataHash);
+        return document;
+    }
+
     private InternalCompanyInsolvency createInternalCompanyInsolvency() {
         InternalCompanyInsolvency companyInsolvency = new InternalCompanyInsolvency();
         InternalData internalData = new InternalData();
@@ -0,0 +1,113 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+import uk.gov.companieshouse.api.insolvency.InternalCompanyInsolvency;
+import uk.gov.companieshouse.api.insolvency.InternalData;
+import uk.gov.companieshouse.insolvency.data.model.BulkInsolvencyRecord;
+import uk.gov.companieshouse.insolvency.data.model.BulkPutStatus;
+
+class InsolvencyWriteBatcherTest {
+
+    private static final int WRITES = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(WRITES);
+    private final List<List<BulkInsolvencyRecord>> chunks = new CopyOnWriteArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldWriteFullBatchAsOneChunkAndAnswerEachWrite() throws Exception {
+        InsolvencyWriteBatcher batcher = batcher(true, Duration.ofSeconds(5));
+        // odd company numbers are stale
+        Function<List<BulkInsolvencyRecord>, List<BulkPutStatus>> chunkWriter = chunk -> {
+            chunks.add(chunk);
+            return chunk.stream()
+                    .map(insolvencyRecord -> insolvencyRecord.getCompanyNumber().endsWith("1")
+                            || insolvencyRecord.getCompanyNumber().endsWith("3")
+                            ? BulkPutStatus.STALE : BulkPutStatus.OK)
+                    .toList();
+        };
+
+        List<Future<Optional<BulkPutStatus>>> writes = new ArrayList<>();
+        for (int i = 0; i < WRITES; i++) {
+            BulkInsolvencyRecord insolvencyRecord = insolvencyRecord("%08d".formatted(i));
+            writes.add(executor.submit(() -> batcher.write(insolvencyRecord, chunkWriter)));
+        }
+
+        for (int i = 0; i < WRITES; i++) {
+            assertThat(writes.get(i).get(5, TimeUnit.SECONDS))
+                    .contains(i % 2 == 0 ? BulkPutStatus.OK : BulkPutStatus.STALE);
+        }
+        assertThat(chunks).hasSize(1);
+        assertThat(chunks.get(0)).hasSize(WRITES);
+        assertThat(meterRegistry.get("insolvency.put.batch.size").summary().max()).isEqualTo(WRITES);
+    }
+
+    @Test
+    void shouldWritePartBatchWhenWindowPasses() {
+        InsolvencyWriteBatcher batcher = batcher(true, Duration.ofMillis(1));
+
+        Optional<BulkPutStatus> actual = batcher.write(insolvencyRecord("00000000"), chunk -> {
+            chunks.add(chunk);
+            return List.of(BulkPutStatus.OK);
+        });
+
+        assertThat(actual).contains(BulkPutStatus.OK);
+        assertThat(chunks).hasSize(1);
+    }
+
+    @Test
+    void shouldHandBackEveryWriteWhenChunkWriteFails() {
+        InsolvencyWriteBatcher batcher = batcher(true, Duration.ofMillis(1));
+
+        Optional<BulkPutStatus> actual = batcher.write(insolvencyRecord("00000000"), chunk -> {
+            throw new IllegalArgumentException("bad record");
+        });
+
+        assertThat(actual).isEmpty();
+        assertThat(meterRegistry.counter("insolvency.put.batch.failures").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldHandBackEveryWriteWhenDisabled() {
+        InsolvencyWriteBatcher batcher = batcher(false, Duration.ofSeconds(5));
+
+        Optional<BulkPutStatus> actual = batcher.write(insolvencyRecord("00000000"), chunk -> {
+            chunks.add(chunk);
+            return List.of(BulkPutStatus.OK);
+        });
+
+        assertThat(actual).isEmpty();
+        assertThat(chunks).isEmpty();
+    }
+
+    private InsolvencyWriteBatcher batcher(boolean enabled, Duration window) {
+        return new InsolvencyWriteBatcher(meterRegistry, enabled, window, WRITES);
+    }
+
+    private static BulkInsolvencyRecord insolvencyRecord(String companyNumber) {
+        InternalCompanyInsolvency companyInsolvency = new InternalCompanyInsolvency();
+        companyInsolvency.setInternalData(new InternalData());
+        companyInsolvency.setExternalData(new CompanyInsolvency());
+        return new BulkInsolvencyRecord(companyNumber, companyInsolvency);
+    }
+}
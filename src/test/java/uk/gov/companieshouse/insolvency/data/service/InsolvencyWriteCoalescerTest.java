@@ -0,0 +1,133 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import uk.gov.companieshouse.insolvency.data.exceptions.ConflictException;
+
+class InsolvencyWriteCoalescerTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final OffsetDateTime FIRST = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime SECOND = FIRST.plusSeconds(1);
+    private static final OffsetDateTime THIRD = FIRST.plusSeconds(2);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private final List<OffsetDateTime> written = new CopyOnWriteArrayList<>();
+    private final CountDownLatch writeStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseWrite = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        releaseWrite.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldWriteOnlyLatestOfPutsWaitingBehindRunningWrite() throws Exception {
+        InsolvencyWriteCoalescer coalescer = new InsolvencyWriteCoalescer(meterRegistry, true);
+
+        Future<?> running = executor.submit(() -> coalescer.write(COMPANY_NUMBER, FIRST, blockingWrite(FIRST)));
+        assertThat(writeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<?> superseded = executor.submit(() -> coalescer.write(COMPANY_NUMBER, SECOND, write(SECOND)));
+        awaitWaiting(coalescer);
+        Future<?> latest = executor.submit(() -> coalescer.write(COMPANY_NUMBER, THIRD, write(THIRD)));
+
+        ExecutionException actual = assertThrows(ExecutionException.class, () -> superseded.get(5, TimeUnit.SECONDS));
+        assertThat(actual).hasCauseInstanceOf(ConflictException.class);
+        releaseWrite.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        latest.get(5, TimeUnit.SECONDS);
+
+        assertThat(written).containsExactly(FIRST, THIRD);
+        assertThat(meterRegistry.counter("insolvency.put.superseded").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldAnswerPutOlderThanWaitingOneAsStale() throws Exception {
+        InsolvencyWriteCoalescer coalescer = new InsolvencyWriteCoalescer(meterRegistry, true);
+
+        Future<?> running = executor.submit(() -> coalescer.write(COMPANY_NUMBER, FIRST, blockingWrite(FIRST)));
+        assertThat(writeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<?> latest = executor.submit(() -> coalescer.write(COMPANY_NUMBER, THIRD, write(THIRD)));
+        awaitWaiting(coalescer);
+
+        assertThrows(ConflictException.class, () -> coalescer.write(COMPANY_NUMBER, SECOND, write(SECOND)));
+        releaseWrite.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        latest.get(5, TimeUnit.SECONDS);
+
+        assertThat(written).containsExactly(FIRST, THIRD);
+    }
+
+    @Test
+    void shouldRunWaitingPutWhenRunningWriteFails() throws Exception {
+        InsolvencyWriteCoalescer coalescer = new InsolvencyWriteCoalescer(meterRegistry, true);
+
+        Future<?> failing = executor.submit(() -> coalescer.write(COMPANY_NUMBER, FIRST, () -> {
+            writeStarted.countDown();
+            await(releaseWrite);
+            throw new IllegalStateException("write failed");
+        }));
+        assertThat(writeStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<?> waiting = executor.submit(() -> coalescer.write(COMPANY_NUMBER, SECOND, write(SECOND)));
+        awaitWaiting(coalescer);
+        releaseWrite.countDown();
+
+        assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        waiting.get(5, TimeUnit.SECONDS);
+        assertThat(written).containsExactly(SECOND);
+        assertThat(coalescer.hasWaiting(COMPANY_NUMBER)).isFalse();
+    }
+
+    @Test
+    void shouldRunEveryWriteWhenDisabled() {
+        InsolvencyWriteCoalescer coalescer = new InsolvencyWriteCoalescer(meterRegistry, false);
+
+        coalescer.write(COMPANY_NUMBER, SECOND, write(SECOND));
+        coalescer.write(COMPANY_NUMBER, FIRST, write(FIRST));
+
+        assertThat(written).containsExactly(SECOND, FIRST);
+    }
+
+    private Runnable write(OffsetDateTime deltaAt) {
+        return () -> written.add(deltaAt);
+    }
+
+    private Runnable blockingWrite(OffsetDateTime deltaAt) {
+        return () -> {
+            writeStarted.countDown();
+            await(releaseWrite);
+            written.add(deltaAt);
+        };
+    }
+
+    private static void awaitWaiting(InsolvencyWriteCoalescer coalescer) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!coalescer.hasWaiting(COMPANY_NUMBER) && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package uk.gov.companieshouse.insolvency.data.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import uk.gov.companieshouse.api.insolvency.CompanyInsolvency;
+import uk.gov.companieshouse.insolvency.data.api.InsolvencyApiService;
+import uk.gov.companieshouse.insolvency.data.common.EventType;
+import uk.gov.companieshouse.insolvency.data.exceptions.BadGatewayException;
+import uk.gov.companieshouse.insolvency.data.model.OutboxEvent;
+import uk.gov.companieshouse.insolvency.data.repository.OutboxEventRepository;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OutboxDispatcherTest {
+
+    private static final String COMPANY_NUMBER = "12345678";
+    private static final String OTHER_COMPANY_NUMBER = "87654321";
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+    @Mock
+    private InsolvencyApiService insolvencyApiService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new OutboxDispatcher(outboxEventRepository, insolvencyApiService, meterRegistry,
+                100, 2, 3, Duration.ofSeconds(1), Duration.ofSeconds(30));
+        when(outboxEventRepository.claim(anyString(), any(), any())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void shouldSendEachCompanysEventsInOrderAndRemoveThem() {
+        CompanyInsolvency deletedData = new CompanyInsolvency();
+        OutboxEvent changed = event("1", COMPANY_NUMBER, EventType.CHANGED, null, 0);
+        OutboxEvent deleted = event("2", COMPANY_NUMBER, EventType.DELETED, deletedData, 0);
+        OutboxEvent other = event("3", OTHER_COMPANY_NUMBER, EventType.CHANGED, null, 0);
+        when(outboxEventRepository.findPending(eq(100), any())).thenReturn(List.of(changed, other, deleted));
+
+        dispatcher.dispatch();
+
+        InOrder inOrder = inOrder(insolvencyApiService, outboxEventRepository);
+        inOrder.verify(insolvencyApiService).invokeChsKafkaApi(COMPANY_NUMBER, null, EventType.CHANGED);
+        inOrder.verify(outboxEventRepository).deleteById("1");
+        inOrder.verify(insolvencyApiService).invokeChsKafkaApi(COMPANY_NUMBER, deletedData, EventType.DELETED);
+        inOrder.verify(outboxEventRepository).deleteById("2");
+        verify(insolvencyApiService).invokeChsKafkaApi(OTHER_COMPANY_NUMBER, null, EventType.CHANGED);
+        verify(outboxEventRepository).deleteById("3");
+        assertThat(meterRegistry.counter("insolvency.outbox.dispatched").count()).isEqualTo(3);
+        assertThat(meterRegistry.timer("insolvency.outbox.lag").count()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldRetryFailedEventLaterAndHoldBackTheCompanysLaterEvents() {
+        OutboxEvent first = event("1", COMPANY_NUMBER, EventType.CHANGED, null, 1);
+        OutboxEvent second = event("2", COMPANY_NUMBER, EventType.CHANGED, null, 0);
+        OutboxEvent other = event("3", OTHER_COMPANY_NUMBER, EventType.CHANGED, null, 0);
+        when(outboxEventRepository.findPending(eq(100), any())).thenReturn(List.of(first, second, other));
+        doThrow(new BadGatewayException("Resource changed call failed", null))
+                .when(insolvencyApiService).invokeChsKafkaApi(eq(COMPANY_NUMBER), isNull(), any());
+
+        Instant before = Instant.now();
+        dispatcher.dispatch();
+
+        verify(outboxEventRepository).scheduleRetry(eq("1"), eq(2),
+                argThat(next -> !next.isBefore(before.plusSeconds(2))));
+        verify(outboxEventRepository, never()).claim(eq("2"), any(), any());
+        verify(outboxEventRepository, never()).deleteById("1");
+        verify(outboxEventRepository).deleteById("3");
+        assertThat(meterRegistry.counter("insolvency.outbox.retried").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldMarkEventFailedOnceAttemptsAreUsedUpAndMoveOn() {
+        OutboxEvent first = event("1", COMPANY_NUMBER, EventType.CHANGED, null, 2);
+        OutboxEvent second = event("2", COMPANY_NUMBER, EventType.DELETED, null, 0);
+        when(outboxEventRepository.findPending(eq(100), any())).thenReturn(List.of(first, second));
+        doThrow(new BadGatewayException("Resource changed call failed", null))
+                .when(insolvencyApiService).invokeChsKafkaApi(COMPANY_NUMBER, null, EventType.CHANGED);
+
+        dispatcher.dispatch();
+
+        verify(outboxEventRepository).markFailed("1", 3);
+        verify(insolvencyApiService).invokeChsKafkaApi(COMPANY_NUMBER, null, EventType.DELETED);
+        verify(outboxEventRepository).deleteById("2");
+        assertThat(meterRegistry.counter("insolvency.outbox.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldSkipCompanyWhenEventIsClaimedElsewhere() {
+        OutboxEvent first = event("1", COMPANY_NUMBER, EventType.CHANGED, null, 0);
+        OutboxEvent second = event("2", COMPANY_NUMBER, EventType.CHANGED, null, 0);
+        when(outboxEventRepository.findPending(eq(100), any())).thenReturn(List.of(first, second));
+        when(outboxEventRepository.claim(eq("1"), any(), any())).thenReturn(false);
+
+        dispatcher.dispatch();
+
+        verify(outboxEventRepository, never()).claim(eq("2"), any(), any());
+        verify(insolvencyApiService, never()).invokeChsKafkaApi(anyString(), any(), any());
+    }
+
+    @Test
+    void shouldSkipCompanyWhenEventIsNotYetDue() {
+        OutboxEvent first = event("1", COMPANY_NUMBER, EventType.CHANGED, null, 1);
+        ReflectionTestUtils.setField(first, "nextAttemptAt", Instant.now().plusSeconds(60));
+        OutboxEvent second = event("2", COMPANY_NUMBER, EventType.CHANGED, null, 0);
+        when(outboxEventRepository.findPending(eq(100), any())).thenReturn(List.of(first, second));
+
+        dispatcher.dispatch();
+
+        verify(outboxEventRepository, never()).claim(anyString(), any(), any());
+        verify(insolvencyApiService, never()).invokeChsKafkaApi(anyString(), any(), any());
+    }
+
+    @Test
+    void shouldSkipCompanyWhenEarlierEventIsWaitingOutsideBatch() {
+        OutboxEvent later = event("2", COMPANY_NUMBER, EventType.CHANGED, null, 0);
+        OutboxEvent other = event("3", OTHER_COMPANY_NUMBER, EventType.CHANGED, null, 0);
+        when(outboxEventRepository.findPending(eq(100), any())).thenReturn(List.of(later, other));
+        when(outboxEventRepository.hasEarlierPending(later)).thenReturn(true);
+
+        dispatcher.dispatch();
+
+        verify(outboxEventRepository, never()).claim(eq("2"), any(), any());
+        verify(insolvencyApiService, never()).invokeChsKafkaApi(eq(COMPANY_NUMBER), any(), any());
+        verify(insolvencyApiService).invokeChsKafkaApi(OTHER_COMPANY_NUMBER, null, EventType.CHANGED);
+    }
+
+    private static OutboxEvent event(String id, String companyNumber, EventType eventType,
+            CompanyInsolvency deletedData, int attempts) {
+        OutboxEvent event = new OutboxEvent(companyNumber, eventType, deletedData, "context-" + id,
+                OffsetDateTime.now(ZoneOffset.UTC), Instant.now().minusSeconds(1));
+        ReflectionTestUtils.setField(event, "id", id);
+        ReflectionTestUtils.setField(event, "attempts", attempts);
+        return event;
+    }
+}
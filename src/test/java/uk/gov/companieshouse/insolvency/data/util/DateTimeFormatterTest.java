@@ -6,10 +6,26 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class DateTimeFormatterTest {
 
+    private static final Pattern LEGACY_DATE_PATTERN = Pattern.compile("\\d{4}-\\d{2}-\\d{2}");
+    private static final java.time.format.DateTimeFormatter LEGACY_READ_FORMATTER =
+            java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final java.time.format.DateTimeFormatter LEGACY_PUBLISHED_AT_FORMATTER =
+            java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    private static final java.time.format.DateTimeFormatter LEGACY_DELTA_AT_FORMATTER =
+            java.time.format.DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSSSSS").withZone(ZoneOffset.UTC);
+
     @Test
     void shouldParseAndFormatGivenDateString() {
         LocalDate parsedValue = DateTimeFormatter.parse("2015-06-26T08:31:35.058Z");
@@ -41,4 +57,98 @@ class DateTimeFormatterTest {
         // then
         assertEquals(expected, actual);
     }
+
+    @Test
+    void shouldParseSameAsRegexAndPatternFormatter() {
+        for (String year : new String[]{"0000", "0001", "1900", "2000", "2015", "2023", "2024", "2100", "9999"}) {
+            for (int month = 0; month <= 13; month++) {
+                for (int day = 0; day <= 32; day++) {
+                    String dateStr = "%s-%02d-%02dT08:31:35.058Z".formatted(year, month, day);
+                    assertEquals(legacyParse(dateStr), parse(dateStr), dateStr);
+                }
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "2015", "2015-6-26", "x2015-06-26", "12015-06-26T00:00:00Z", "2015-06-2",
+            "{\"$date\": \"2015-06-26\"}"})
+    void shouldParseUnusualInputSameAsRegexAndPatternFormatter(String dateStr) {
+        assertEquals(legacyParse(dateStr), parse(dateStr));
+    }
+
+    @Test
+    void shouldFormatPublishedAtSameAsPatternFormatter() {
+        for (long day = LocalDate.of(-1, 1, 1).toEpochDay(); day <= LocalDate.of(10000, 12, 31).toEpochDay(); day++) {
+            Instant instant = Instant.ofEpochSecond(day * 86_400L + Math.floorMod(day * 7919, 86_400L), 999_999_999);
+            assertEquals(LEGACY_PUBLISHED_AT_FORMATTER.format(instant.atZone(ZoneOffset.UTC)),
+                    DateTimeFormatter.formatPublishedAt(instant));
+        }
+    }
+
+    @Test
+    void shouldConvertEpochMilliToUtcDate() {
+        for (long day = LocalDate.of(1, 1, 1).toEpochDay(); day <= LocalDate.of(9999, 12, 31).toEpochDay(); day++) {
+            long epochMilli = day * 86_400_000L;
+            LocalDate expected = LocalDate.ofEpochDay(day);
+            assertEquals(legacyParse(Instant.ofEpochMilli(epochMilli).toString()),
+                    DateTimeFormatter.fromEpochMilli(epochMilli));
+            assertEquals(expected, DateTimeFormatter.fromEpochMilli(epochMilli + 86_399_999L));
+        }
+    }
+
+    @Test
+    void shouldParseDeltaAtSameAsPatternFormatter() {
+        Random random = new Random(1);
+        for (int i = 0; i < 200_000; i++) {
+            String deltaAt = i % 2 == 0
+                    ? "%04d%02d%02d%02d%02d%02d%06d".formatted(random.nextInt(10_000), random.nextInt(14),
+                            random.nextInt(33), random.nextInt(26), random.nextInt(61), random.nextInt(61),
+                            random.nextInt(1_000_000))
+                    : "202402291230%02d%06d".formatted(44 + random.nextInt(3), 123_455 + random.nextInt(3));
+            assertEquals(legacyParseDeltaAt(deltaAt), parseDeltaAt(deltaAt), deltaAt);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"", "2024022912304512345", "202402291230451234567", "2024-02-29T12:30:45Z",
+            "20240229240000000000", "20241301000000000000"})
+    void shouldRejectMalformedDeltaAtSameAsPatternFormatter(String deltaAt) {
+        assertEquals(legacyParseDeltaAt(deltaAt), parseDeltaAt(deltaAt));
+    }
+
+    private static Object parse(String dateStr) {
+        try {
+            return DateTimeFormatter.parse(dateStr);
+        } catch (RuntimeException ex) {
+            return ex.getClass();
+        }
+    }
+
+    private static Object legacyParse(String dateStr) {
+        try {
+            Matcher matcher = LEGACY_DATE_PATTERN.matcher(dateStr);
+            matcher.find();
+            return LocalDate.parse(matcher.group(), LEGACY_READ_FORMATTER);
+        } catch (IllegalStateException | DateTimeParseException ex) {
+            return ex.getClass();
+        }
+    }
+
+    private static Object parseDeltaAt(String deltaAt) {
+        try {
+            return DateTimeFormatter.parseDeltaAt(deltaAt);
+        } catch (RuntimeException ex) {
+            return ex.getClass();
+        }
+    }
+
+    private static Object legacyParseDeltaAt(String deltaAt) {
+        try {
+            return OffsetDateTime.parse(deltaAt, LEGACY_DELTA_AT_FORMATTER);
+        } catch (DateTimeParseException ex) {
+            return ex.getClass();
+        }
+    }
+
 }